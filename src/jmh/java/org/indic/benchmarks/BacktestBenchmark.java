@@ -0,0 +1,58 @@
+package org.indic.benchmarks;
+
+import org.indic.backtest.Backtest;
+import org.indic.records.BacktestResult;
+import org.indic.records.BarSeries;
+import org.indic.streaming.EmaState;
+import org.indic.streaming.RsiState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replay of a strategy over streaming states, one operation is one bar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(BacktestBenchmark.BARS)
+public class BacktestBenchmark {
+
+    static final int BARS = 1_000_000;
+
+    private BarSeries series;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        series = BarSeries.allocate(BARS);
+        double close = 100.0;
+        for (int i = 0; i < BARS; i++) {
+            close += random.nextGaussian() * 0.1;
+            series.timestamps()[i] = i;
+            series.open()[i] = close;
+            series.high()[i] = close + random.nextDouble();
+            series.low()[i] = close - random.nextDouble();
+            series.close()[i] = close;
+            series.volume()[i] = 1_000;
+        }
+    }
+
+    @Benchmark
+    public BacktestResult emaCrossover() {
+        EmaState fast = new EmaState(12);
+        EmaState slow = new EmaState(26);
+        return Backtest.run(series, (timestamp, open, high, low, close, volume) ->
+                fast.update(close) > slow.update(close) ? 1 : -1);
+    }
+
+    @Benchmark
+    public BacktestResult rsiReversion() {
+        RsiState rsi = new RsiState(14);
+        return Backtest.run(series, (timestamp, open, high, low, close, volume) -> {
+            double value = rsi.update(close);
+            return value < 30 ? 1 : value > 70 ? -1 : 0;
+        });
+    }
+}
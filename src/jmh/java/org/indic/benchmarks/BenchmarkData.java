@@ -0,0 +1,31 @@
+package org.indic.benchmarks;
+
+import org.indic.records.BarSeries;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic random walk bars for the benchmarks.
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    public static BarSeries randomWalk(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        BarSeries series = BarSeries.allocate(size);
+        double close = 100.0;
+        for (int i = 0; i < size; i++) {
+            double open = close;
+            close = Math.max(1.0, close + random.nextDouble(-1.0, 1.0));
+            series.timestamps()[i] = i * 60_000L;
+            series.open()[i] = open;
+            series.close()[i] = close;
+            series.high()[i] = Math.max(open, close) + random.nextDouble(0.0, 0.5);
+            series.low()[i] = Math.min(open, close) - random.nextDouble(0.0, 0.5);
+            series.volume()[i] = random.nextLong(1_000, 100_000);
+        }
+        return series;
+    }
+}
@@ -0,0 +1,67 @@
+package org.indic.benchmarks;
+
+import org.indic.indicators.ElementWise;
+import org.indic.records.BarSeries;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vectorized against scalar element-wise kernels, the output buffers are reused.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ElementWiseBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    @Param({"vector", "scalar"})
+    public String kernels;
+
+    private ElementWise elementWise;
+    private BarSeries series;
+    private double[] first;
+    private double[] second;
+    private long[] signed;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        elementWise = kernels.equals("vector") ? ElementWise.get() : ElementWise.scalar();
+        series = BenchmarkData.randomWalk(size, 42);
+        first = new double[size];
+        second = new double[size];
+        signed = new long[size];
+    }
+
+    @Benchmark
+    public double[] trueRange() {
+        elementWise.trueRange(series.close(), series.high(), series.low(), first);
+        return first;
+    }
+
+    @Benchmark
+    public double[] bands() {
+        elementWise.bands(series.close(), series.open(), 2, first, second);
+        return second;
+    }
+
+    @Benchmark
+    public double[] bandwidth() {
+        elementWise.bandwidth(series.low(), series.close(), series.high(), first);
+        return first;
+    }
+
+    @Benchmark
+    public double[] subtract() {
+        elementWise.subtract(series.high(), series.low(), first);
+        return first;
+    }
+
+    @Benchmark
+    public long[] signedVolumes() {
+        elementWise.signedVolumes(series.close(), series.volume(), signed);
+        return signed;
+    }
+}
@@ -0,0 +1,71 @@
+package org.indic.benchmarks;
+
+import org.indic.indicators.*;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.OscillatorSeries;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch indicators which take a period, over series sizes and periods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PeriodBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    @Param({"14", "200"})
+    public int period;
+
+    private BarSeries series;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        series = BenchmarkData.randomWalk(size, 42);
+    }
+
+    @Benchmark
+    public double[] sma() {
+        return IndicatorUtils.smaList(series.close(), period);
+    }
+
+    @Benchmark
+    public double[] ema() {
+        return IndicatorUtils.ema(series.close(), period);
+    }
+
+    @Benchmark
+    public double[] rollingStandardDeviation() {
+        return IndicatorUtils.rollingStandardDeviation(series.close(), period);
+    }
+
+    @Benchmark
+    public BandSeries bollinger() {
+        return BollingerBands.calculate(period, series.close(), 2);
+    }
+
+    @Benchmark
+    public double[] atr() {
+        return AverageTrueRange.calculateAtr(period, series);
+    }
+
+    @Benchmark
+    public double[] rsiCumulative() {
+        return RelativeStrengthIndex.calculate(period, series.close(), RelativeStrengthIndex.Smoothing.CUMULATIVE);
+    }
+
+    @Benchmark
+    public double[] rsiWilder() {
+        return RelativeStrengthIndex.calculate(period, series.close(), RelativeStrengthIndex.Smoothing.WILDER);
+    }
+
+    @Benchmark
+    public OscillatorSeries stochastic() {
+        return StochasticOscillator.calculate(period, series);
+    }
+}
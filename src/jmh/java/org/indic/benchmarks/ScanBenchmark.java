@@ -0,0 +1,59 @@
+package org.indic.benchmarks;
+
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.OnBalanceVolume;
+import org.indic.indicators.ParallelScan;
+import org.indic.records.BarSeries;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential against parallel scans over one long series.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScanBenchmark {
+
+    @Param({"10000000"})
+    public int size;
+
+    private BarSeries series;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        series = BenchmarkData.randomWalk(size, 42);
+    }
+
+    @Benchmark
+    public double[] emaSequential() {
+        return IndicatorUtils.ema(series.close(), 20);
+    }
+
+    @Benchmark
+    public double[] emaParallel() {
+        return ParallelScan.ema(series.close(), 20);
+    }
+
+    @Benchmark
+    public double[] atrSequential() {
+        return AverageTrueRange.calculateAtr(14, series);
+    }
+
+    @Benchmark
+    public double[] atrParallel() {
+        return ParallelScan.atr(14, series);
+    }
+
+    @Benchmark
+    public long[] obvSequential() {
+        return OnBalanceVolume.calculate(series);
+    }
+
+    @Benchmark
+    public long[] obvParallel() {
+        return ParallelScan.obv(series);
+    }
+}
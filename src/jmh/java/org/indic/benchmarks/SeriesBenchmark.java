@@ -0,0 +1,53 @@
+package org.indic.benchmarks;
+
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.Macd;
+import org.indic.indicators.OnBalanceVolume;
+import org.indic.records.BarSeries;
+import org.indic.records.MacdSeries;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch indicators with fixed parameters and the boxed List adapters, over series sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SeriesBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private BarSeries series;
+    private List<Double> closeList;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        series = BenchmarkData.randomWalk(size, 42);
+        closeList = IndicatorUtils.toList(series.close());
+    }
+
+    @Benchmark
+    public MacdSeries macd() {
+        return Macd.calculateResult(12, 26, 9, series.close());
+    }
+
+    @Benchmark
+    public long[] obv() {
+        return OnBalanceVolume.calculate(series);
+    }
+
+    @Benchmark
+    public double[] trueRange() {
+        return AverageTrueRange.calculateTR(series.close(), series.high(), series.low());
+    }
+
+    @Benchmark
+    public List<Double> emaList() {
+        return IndicatorUtils.ema(closeList, 12);
+    }
+}
@@ -0,0 +1,96 @@
+package org.indic.benchmarks;
+
+import org.indic.records.BarSeries;
+import org.indic.streaming.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming states, one operation is one bar update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(StreamingBenchmark.BARS)
+public class StreamingBenchmark {
+
+    static final int BARS = 100_000;
+
+    @Param({"14", "200"})
+    public int period;
+
+    private BarSeries series;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        series = BenchmarkData.randomWalk(BARS, 42);
+    }
+
+    @Benchmark
+    public double ema() {
+        EmaState state = new EmaState(period);
+        double[] closes = series.close();
+        for (double close : closes) {
+            state.update(close);
+        }
+        return state.value();
+    }
+
+    @Benchmark
+    public double atr() {
+        AtrState state = new AtrState(period);
+        for (int i = 0; i < BARS; i++) {
+            state.update(series.high()[i], series.low()[i], series.close()[i]);
+        }
+        return state.value();
+    }
+
+    @Benchmark
+    public double rsi() {
+        RsiState state = new RsiState(period);
+        double[] closes = series.close();
+        for (double close : closes) {
+            state.update(close);
+        }
+        return state.value();
+    }
+
+    @Benchmark
+    public double macd() {
+        MacdState state = new MacdState(12, 26, 9);
+        double[] closes = series.close();
+        for (double close : closes) {
+            state.update(close);
+        }
+        return state.histogram();
+    }
+
+    @Benchmark
+    public long obv() {
+        ObvState state = new ObvState();
+        for (int i = 0; i < BARS; i++) {
+            state.update(series.close()[i], series.volume()[i]);
+        }
+        return state.value();
+    }
+
+    @Benchmark
+    public double bollinger() {
+        BollingerState state = new BollingerState(period, 2);
+        double[] closes = series.close();
+        for (double close : closes) {
+            state.update(close);
+        }
+        return state.upper();
+    }
+
+    @Benchmark
+    public double stochastic() {
+        StochasticState state = new StochasticState(period);
+        for (int i = 0; i < BARS; i++) {
+            state.update(series.close()[i], series.high()[i], series.low()[i]);
+        }
+        return state.k();
+    }
+}
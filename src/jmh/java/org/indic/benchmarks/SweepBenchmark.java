@@ -0,0 +1,60 @@
+package org.indic.benchmarks;
+
+import org.indic.engine.ParameterSweep;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.records.BarSeries;
+import org.indic.records.SweepMatrix;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periods 5 to 200 with one sweep against one call per period.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SweepBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    private BarSeries series;
+    private ParameterSweep sweep;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        series = BenchmarkData.randomWalk(size, 42);
+        sweep = new ParameterSweep(5, 200);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sweep.close();
+    }
+
+    @Benchmark
+    public SweepMatrix emaSweep() {
+        return sweep.ema(series.close());
+    }
+
+    @Benchmark
+    public void emaPerPeriod(Blackhole blackhole) {
+        for (int period = 5; period <= 200; period++) {
+            blackhole.consume(IndicatorUtils.ema(series.close(), period));
+        }
+    }
+
+    @Benchmark
+    public SweepMatrix smaSweep() {
+        return sweep.sma(series.close());
+    }
+
+    @Benchmark
+    public void smaPerPeriod(Blackhole blackhole) {
+        for (int period = 5; period <= 200; period++) {
+            blackhole.consume(IndicatorUtils.smaList(series.close(), period));
+        }
+    }
+}
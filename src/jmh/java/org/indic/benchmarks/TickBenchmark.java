@@ -0,0 +1,61 @@
+package org.indic.benchmarks;
+
+import org.indic.streaming.BarAggregator;
+import org.indic.streaming.EmaState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tick aggregation into bars feeding an ema, one operation is one tick.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(TickBenchmark.TICKS)
+public class TickBenchmark {
+
+    static final int TICKS = 1_000_000;
+
+    private long[] timestamps;
+    private double[] prices;
+    private long[] sizes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        timestamps = new long[TICKS];
+        prices = new double[TICKS];
+        sizes = new long[TICKS];
+        long time = 0;
+        double price = 100.0;
+        for (int i = 0; i < TICKS; i++) {
+            time += random.nextInt(20);
+            price += random.nextGaussian() * 0.01;
+            timestamps[i] = time;
+            prices[i] = price;
+            sizes[i] = 1 + random.nextInt(500);
+        }
+    }
+
+    @Benchmark
+    public double timeBars() {
+        EmaState ema = new EmaState(12);
+        BarAggregator aggregator = BarAggregator.timeBars(1_000, (timestamp, open, high, low, close, volume) -> ema.update(close));
+        for (int i = 0; i < TICKS; i++) {
+            aggregator.tick(timestamps[i], prices[i], sizes[i]);
+        }
+        return ema.value();
+    }
+
+    @Benchmark
+    public double volumeBars() {
+        EmaState ema = new EmaState(12);
+        BarAggregator aggregator = BarAggregator.volumeBars(10_000, (timestamp, open, high, low, close, volume) -> ema.update(close));
+        for (int i = 0; i < TICKS; i++) {
+            aggregator.tick(timestamps[i], prices[i], sizes[i]);
+        }
+        return ema.value();
+    }
+}
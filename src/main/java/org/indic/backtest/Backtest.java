@@ -0,0 +1,115 @@
+package org.indic.backtest;
+
+import org.indic.records.BacktestResult;
+import org.indic.records.BarSeries;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Replays historical bars one at a time through a {@link Strategy}, so indicators are updated
+ * incrementally instead of being recalculated for every prefix of the history.
+ * The position a strategy returns for a bar is filled at the open of the next bar, a position
+ * returned for the last bar is not filled. The replay loop does not allocate, the cost per bar is
+ * the strategy call and a few additions.
+ * Runs over many symbols or parameter sets are replayed in parallel on a {@link ForkJoinPool},
+ * each with its own strategy instance.
+ */
+public class Backtest implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism Number of worker threads
+     */
+    public Backtest(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Uses one worker per available processor.
+     */
+    public Backtest() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Replays the series on the calling thread.
+     * @param series
+     * @param strategy
+     * @return The result of the run
+     */
+    public static BacktestResult run(BarSeries series, Strategy strategy) {
+        long[] timestamps = series.timestamps();
+        double[] opens = series.open();
+        double[] highs = series.high();
+        double[] lows = series.low();
+        double[] closes = series.close();
+        long[] volumes = series.volume();
+
+        double cash = 0.0;
+        double position = 0.0;
+        double target = 0.0;
+        double equity = 0.0;
+        double peak = 0.0;
+        double maxDrawdown = 0.0;
+        int trades = 0;
+        long barsInMarket = 0;
+
+        for (int i = 0; i < closes.length; i++) {
+            if (target != position) {
+                cash -= (target - position) * opens[i];
+                position = target;
+                trades++;
+            }
+            target = strategy.onBar(timestamps[i], opens[i], highs[i], lows[i], closes[i], volumes[i]);
+            if (position != 0.0) barsInMarket++;
+
+            equity = cash + position * closes[i];
+            if (equity > peak) {
+                peak = equity;
+            } else if (peak - equity > maxDrawdown) {
+                maxDrawdown = peak - equity;
+            }
+        }
+
+        return new BacktestResult(closes.length, trades, barsInMarket, equity, maxDrawdown, position);
+    }
+
+    /**
+     * Replays the series once per parameter set in parallel.
+     * @param series
+     * @param parameters E.g. periods or thresholds
+     * @param strategies Creates the strategy for a parameter set, called from the worker threads
+     * @return The results in the order of the parameters
+     */
+    public <P> List<BacktestResult> run(BarSeries series, List<P> parameters, Function<P, Strategy> strategies) {
+        return pool.submit(() -> parameters.parallelStream()
+                .map(parameter -> run(series, strategies.apply(parameter)))
+                .toList()).join();
+    }
+
+    /**
+     * Replays every symbol of the universe in parallel.
+     * @param universe Series by symbol
+     * @param strategies Creates the strategy for a symbol, called from the worker threads
+     * @return The results by symbol
+     */
+    public Map<String, BacktestResult> run(Map<String, BarSeries> universe, Supplier<Strategy> strategies) {
+        return pool.submit(() -> universe.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> run(entry.getValue(), strategies.get())))).join();
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
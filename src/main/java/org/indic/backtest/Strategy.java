@@ -0,0 +1,16 @@
+package org.indic.backtest;
+
+/**
+ * Trading logic replayed by a {@link Backtest}. A strategy keeps its own streaming indicator
+ * states (e.g. EmaState, RsiState), updates them with every bar and decides on the position.
+ * Every run uses its own strategy instance, so strategies need not be thread safe.
+ */
+@FunctionalInterface
+public interface Strategy {
+
+    /**
+     * Called for every bar in order.
+     * @return The position to hold from the open of the next bar, e.g. 1 long, 0 flat, -1 short
+     */
+    double onBar(long timestamp, double open, double high, double low, double close, long volume);
+}
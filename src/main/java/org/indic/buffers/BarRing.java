@@ -0,0 +1,99 @@
+package org.indic.buffers;
+
+import org.indic.streaming.BarConsumer;
+
+import java.util.function.IntFunction;
+
+/**
+ * Keeps the open, high, low and close of the latest capacity bars in {@link DoubleRing DoubleRings},
+ * e.g. one per symbol for live data. Timestamps and volumes are not kept.
+ */
+public final class BarRing implements BarConsumer {
+
+    private final DoubleRing open;
+    private final DoubleRing high;
+    private final DoubleRing low;
+    private final DoubleRing close;
+
+    private BarRing(int capacity, IntFunction<DoubleRing> factory) {
+        this.open = factory.apply(capacity);
+        this.high = factory.apply(capacity);
+        this.low = factory.apply(capacity);
+        this.close = factory.apply(capacity);
+    }
+
+    /**
+     * @param capacity Number of bars to keep
+     * @return The empty ring backed by double[]
+     */
+    public static BarRing onHeap(int capacity) {
+        return new BarRing(capacity, DoubleRing::onHeap);
+    }
+
+    /**
+     * @param capacity Number of bars to keep
+     * @return The empty ring backed by native memory
+     */
+    public static BarRing offHeap(int capacity) {
+        return new BarRing(capacity, DoubleRing::offHeap);
+    }
+
+    /**
+     * Appends a bar, evicts the oldest one if the ring is full.
+     * @param open
+     * @param high
+     * @param low
+     * @param close
+     */
+    public void add(double open, double high, double low, double close) {
+        this.open.add(open);
+        this.high.add(high);
+        this.low.add(low);
+        this.close.add(close);
+    }
+
+    @Override
+    public void accept(long timestamp, double open, double high, double low, double close, long volume) {
+        add(open, high, low, close);
+    }
+
+    public DoubleRing open() {
+        return open;
+    }
+
+    public DoubleRing high() {
+        return high;
+    }
+
+    public DoubleRing low() {
+        return low;
+    }
+
+    public DoubleRing close() {
+        return close;
+    }
+
+    /**
+     * @return The number of bars in the ring
+     */
+    public int size() {
+        return close.size();
+    }
+
+    /**
+     * @return The maximum number of bars
+     */
+    public int capacity() {
+        return close.capacity();
+    }
+
+    /**
+     * Removes all bars.
+     */
+    public void clear() {
+        open.clear();
+        high.clear();
+        low.clear();
+        close.clear();
+    }
+}
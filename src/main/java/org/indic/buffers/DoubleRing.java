@@ -0,0 +1,89 @@
+package org.indic.buffers;
+
+/**
+ * Fixed capacity window over the latest values. Adding a value to a full ring
+ * evicts the oldest one, both in O(1) and without allocating.
+ * Index 0 is the oldest value in the window, size() - 1 the latest.
+ */
+public sealed interface DoubleRing permits HeapDoubleRing, OffHeapDoubleRing {
+
+    /**
+     * Creates a ring backed by a double[].
+     * @param capacity
+     * @return The empty ring
+     */
+    static DoubleRing onHeap(int capacity) {
+        return new HeapDoubleRing(capacity);
+    }
+
+    /**
+     * Creates a ring backed by native memory, which the garbage collector does not have
+     * to scan or copy. The memory is released when the ring is garbage collected.
+     * @param capacity
+     * @return The empty ring
+     */
+    static DoubleRing offHeap(int capacity) {
+        return new OffHeapDoubleRing(capacity);
+    }
+
+    /**
+     * Appends a value, evicts the oldest one if the ring is full.
+     * @param value
+     */
+    void add(double value);
+
+    /**
+     * @param index 0 is the oldest value
+     * @return The value
+     */
+    double get(int index);
+
+    /**
+     * @return The number of values in the ring
+     */
+    int size();
+
+    /**
+     * @return The maximum number of values
+     */
+    int capacity();
+
+    /**
+     * Removes all values.
+     */
+    void clear();
+
+    /**
+     * @return The latest value
+     */
+    default double latest() {
+        return get(size() - 1);
+    }
+
+    /**
+     * @return true once capacity values were added
+     */
+    default boolean isFull() {
+        return size() == capacity();
+    }
+
+    /**
+     * Copies the values from oldest to latest.
+     * @param destination
+     * @param offset
+     */
+    default void copyTo(double[] destination, int offset) {
+        for (int i = 0; i < size(); i++) {
+            destination[offset + i] = get(i);
+        }
+    }
+
+    /**
+     * @return The values from oldest to latest
+     */
+    default double[] toArray() {
+        double[] values = new double[size()];
+        copyTo(values, 0);
+        return values;
+    }
+}
@@ -0,0 +1,58 @@
+package org.indic.buffers;
+
+/**
+ * {@link DoubleRing} backed by a double[].
+ */
+final class HeapDoubleRing implements DoubleRing {
+
+    private final double[] values;
+    private int head;
+    private int size;
+
+    HeapDoubleRing(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.values = new double[capacity];
+    }
+
+    @Override
+    public void add(double value) {
+        int tail = head + size;
+        if (tail >= values.length) tail -= values.length;
+        values[tail] = value;
+        if (size < values.length) {
+            size++;
+        } else if (++head == values.length) {
+            head = 0;
+        }
+    }
+
+    @Override
+    public double get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        int i = head + index;
+        return values[i >= values.length ? i - values.length : i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        return values.length;
+    }
+
+    @Override
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public void copyTo(double[] destination, int offset) {
+        int first = Math.min(size, values.length - head);
+        System.arraycopy(values, head, destination, offset, first);
+        System.arraycopy(values, 0, destination, offset + first, size - first);
+    }
+}
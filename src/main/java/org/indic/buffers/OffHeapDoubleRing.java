@@ -0,0 +1,64 @@
+package org.indic.buffers;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * {@link DoubleRing} backed by a direct buffer outside of the java heap.
+ */
+final class OffHeapDoubleRing implements DoubleRing {
+
+    private final DoubleBuffer values;
+    private final int capacity;
+    private int head;
+    private int size;
+
+    OffHeapDoubleRing(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.values = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, Double.BYTES)).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    }
+
+    @Override
+    public void add(double value) {
+        int tail = head + size;
+        if (tail >= capacity) tail -= capacity;
+        values.put(tail, value);
+        if (size < capacity) {
+            size++;
+        } else if (++head == capacity) {
+            head = 0;
+        }
+    }
+
+    @Override
+    public double get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        int i = head + index;
+        return values.get(i >= capacity ? i - capacity : i);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public void copyTo(double[] destination, int offset) {
+        int first = Math.min(size, capacity - head);
+        values.get(head, destination, offset, first);
+        values.get(0, destination, offset + first, size - first);
+    }
+}
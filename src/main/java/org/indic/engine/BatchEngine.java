@@ -0,0 +1,166 @@
+package org.indic.engine;
+
+import org.indic.records.BarSeries;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Calculates the same set of indicators for a whole universe of symbols
+ * on a {@link ForkJoinPool}. Symbols are split recursively, idle workers
+ * steal the remaining halves, so a few very long series do not hold up the rest.
+ * The specs are run through one {@link IndicatorPlan}, so shared emas, smas
+ * and true ranges are only calculated once per symbol.
+ */
+public class BatchEngine implements AutoCloseable {
+
+    private final List<IndicatorSpec<?>> specs;
+    private final IndicatorPlan plan = new IndicatorPlan();
+    private final List<Node<?>> nodes = new ArrayList<>();
+    private final ForkJoinPool pool;
+
+    /**
+     * @param specs The indicators to calculate for every symbol
+     * @param parallelism Number of worker threads
+     */
+    public BatchEngine(List<IndicatorSpec<?>> specs, int parallelism) {
+        this.specs = List.copyOf(specs);
+        for (IndicatorSpec<?> spec : this.specs) {
+            nodes.add(plan.add(spec));
+        }
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Uses one worker per available processor.
+     * @param specs The indicators to calculate for every symbol
+     */
+    public BatchEngine(List<IndicatorSpec<?>> specs) {
+        this(specs, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Calculates all indicators for one series on the calling thread.
+     * @param series
+     * @return The results by spec
+     */
+    public SymbolResults compute(BarSeries series) {
+        PlanResults planResults = plan.execute(series);
+        SymbolResults results = new SymbolResults();
+        for (int i = 0; i < specs.size(); i++) {
+            putResult(specs.get(i), nodes.get(i), planResults, results);
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> void putResult(IndicatorSpec<R> spec, Node<?> node, PlanResults planResults, SymbolResults results) {
+        results.put(spec, planResults.get((Node<R>) node));
+    }
+
+    /**
+     * Calculates all indicators for every symbol of the universe in parallel.
+     * Longest series are scheduled first.
+     * @param universe Series by symbol
+     * @return The results by symbol
+     */
+    public Map<String, SymbolResults> compute(Map<String, BarSeries> universe) {
+        List<Map.Entry<String, BarSeries>> entries = new ArrayList<>(universe.entrySet());
+        entries.sort(Comparator.comparingInt((Map.Entry<String, BarSeries> e) -> e.getValue().size()).reversed());
+
+        Map<String, SymbolResults> results = new ConcurrentHashMap<>();
+        pool.invoke(new SymbolTask(entries, 0, entries.size(), results));
+        return results;
+    }
+
+    /**
+     * Calculates all indicators for every symbol and hands each result to the sink
+     * instead of keeping them. At most maxInFlight series are loaded at the same time,
+     * which bounds the memory used for input and results.
+     * The sink is called from the worker threads.
+     * @param symbols The symbols to calculate
+     * @param loader Loads the series of a symbol, called from the worker threads
+     * @param sink Receives the results of a symbol
+     * @param maxInFlight Maximum number of series loaded at once, at least 1
+     * @throws CompletionException if loading or calculating a symbol failed
+     */
+    public void compute(Collection<String> symbols, Function<String, BarSeries> loader,
+                        BiConsumer<String, SymbolResults> sink, int maxInFlight) {
+        if (maxInFlight <= 0) throw new IllegalArgumentException("maxInFlight must be positive");
+        Semaphore permits = new Semaphore(maxInFlight);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (String symbol : symbols) {
+            permits.acquireUninterruptibly();
+            if (failure.get() != null) {
+                permits.release();
+                break;
+            }
+            pool.execute(() -> {
+                try {
+                    sink.accept(symbol, compute(loader.apply(symbol)));
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        // all permits are back once every submitted symbol finished
+        permits.acquireUninterruptibly(maxInFlight);
+        permits.release(maxInFlight);
+
+        if (failure.get() != null) {
+            throw new CompletionException(failure.get());
+        }
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private class SymbolTask extends RecursiveAction {
+
+        private final List<Map.Entry<String, BarSeries>> entries;
+        private final int from;
+        private final int to;
+        private final Map<String, SymbolResults> results;
+
+        SymbolTask(List<Map.Entry<String, BarSeries>> entries, int from, int to, Map<String, SymbolResults> results) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                Map.Entry<String, BarSeries> entry = entries.get(from);
+                results.put(entry.getKey(), BatchEngine.this.compute(entry.getValue()));
+                return;
+            }
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SymbolTask(entries, from, middle, results), new SymbolTask(entries, middle, to, results));
+            }
+        }
+    }
+}
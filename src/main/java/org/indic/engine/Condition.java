@@ -0,0 +1,82 @@
+package org.indic.engine;
+
+import org.indic.records.BarSeries;
+
+import java.util.function.Predicate;
+
+/**
+ * A condition a symbol has to meet in a {@link Screener}, e.g. RSI(14) below 30.
+ * Conditions on indicators are built from {@link LatestValue}s, comparisons with NaN
+ * (not enough bars) do not hold.
+ */
+public interface Condition {
+
+    /**
+     * @param series
+     * @return true if the series meets the condition
+     */
+    boolean test(BarSeries series);
+
+    /**
+     * Used to test the cheapest conditions first.
+     * @return The number of bars read, {@link LatestValue#WHOLE_SERIES} if all bars are read
+     */
+    int cost();
+
+    /**
+     * @param cost The number of bars read, see {@link #cost() cost}
+     * @param predicate
+     * @return A condition for any predicate on the series
+     */
+    static Condition of(int cost, Predicate<BarSeries> predicate) {
+        return new Custom(cost, predicate);
+    }
+
+    record Custom(int cost, Predicate<BarSeries> predicate) implements Condition {
+        @Override
+        public boolean test(BarSeries series) {
+            return predicate.test(series);
+        }
+    }
+
+    /**
+     * Holds if left is below right at the last bar, or above if below is false.
+     */
+    record Compare(LatestValue left, LatestValue right, boolean below) implements Condition {
+        @Override
+        public boolean test(BarSeries series) {
+            double l = left.latest(series);
+            if (Double.isNaN(l)) return false;
+            double r = right.latest(series);
+            return below ? l < r : l > r;
+        }
+
+        @Override
+        public int cost() {
+            return saturatedAdd(left.cost(1), right.cost(1));
+        }
+    }
+
+    /**
+     * Holds if the value at the last bar is above the one before, or below if rising is false.
+     */
+    record Trend(LatestValue value, boolean rising) implements Condition {
+
+        @Override
+        public boolean test(BarSeries series) {
+            double[] values = new double[2];
+            value.latest(series, values);
+            return rising ? values[1] > values[0] : values[1] < values[0];
+        }
+
+        @Override
+        public int cost() {
+            return value.cost(2);
+        }
+    }
+
+    private static int saturatedAdd(int a, int b) {
+        long sum = (long) a + b;
+        return (int) Math.min(sum, LatestValue.WHOLE_SERIES);
+    }
+}
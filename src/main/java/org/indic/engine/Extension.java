@@ -0,0 +1,189 @@
+package org.indic.engine;
+
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.OscillatorSeries;
+import org.indic.streaming.AtrState;
+import org.indic.streaming.BollingerState;
+import org.indic.streaming.EmaState;
+import org.indic.streaming.ObvState;
+import org.indic.streaming.RsiState;
+import org.indic.streaming.StochasticState;
+
+import java.util.Arrays;
+
+/**
+ * Extends the result of a spec by new bars with the streaming state of the indicator.
+ * The states match the batch calculations exactly, so an extended result
+ * is the same as a full recalculation.
+ * @param <R> The result type of the spec
+ */
+interface Extension<R> {
+
+    /**
+     * Feeds the bars from to to - 1 into the state.
+     * @param previous The result for the bars 0 to from - 1
+     * @param series
+     * @param from
+     * @param to
+     * @return The result for the bars 0 to to - 1
+     */
+    R extend(R previous, BarSeries series, int from, int to);
+
+    /**
+     * @return The result for no bars
+     */
+    R empty();
+
+    /**
+     * @param spec
+     * @return The extension of the spec, null if its result is not append stable
+     */
+    @SuppressWarnings("unchecked")
+    static <R> Extension<R> of(IndicatorSpec<R> spec) {
+        Extension<?> extension = switch (spec) {
+            case IndicatorSpec.Sma sma -> {
+                BollingerState state = new BollingerState(sma.period(), 0);
+                yield new Values(sma.period() - 1, (series, i) -> state.update(series.close()[i]));
+            }
+            case IndicatorSpec.Ema ema -> {
+                EmaState state = new EmaState(ema.period());
+                yield new Values(ema.period() - 1, (series, i) -> state.update(series.close()[i]));
+            }
+            case IndicatorSpec.Rsi rsi -> {
+                RsiState state = new RsiState(rsi.period(), rsi.smoothing());
+                yield new Values(rsi.period(), (series, i) -> state.update(series.close()[i]));
+            }
+            case IndicatorSpec.Atr atr -> {
+                AtrState state = new AtrState(atr.period());
+                yield new Values(atr.period() - 1, (series, i) -> state.update(series.high()[i], series.low()[i], series.close()[i]));
+            }
+            case IndicatorSpec.Bollinger bollinger -> new Bands(bollinger.period(), bollinger.width());
+            case IndicatorSpec.Stochastic stochastic -> new Stochastic(stochastic.period());
+            case IndicatorSpec.Obv obv -> new Obv();
+            default -> null;
+        };
+        return (Extension<R>) extension;
+    }
+
+    @FunctionalInterface
+    interface BarUpdate {
+        double update(BarSeries series, int index);
+    }
+
+    /**
+     * One value per bar once warmUp bars were added.
+     */
+    final class Values implements Extension<double[]> {
+
+        private final int warmUp;
+        private final BarUpdate update;
+
+        Values(int warmUp, BarUpdate update) {
+            this.warmUp = warmUp;
+            this.update = update;
+        }
+
+        @Override
+        public double[] extend(double[] previous, BarSeries series, int from, int to) {
+            double[] values = Arrays.copyOf(previous, Math.max(0, to - warmUp));
+            for (int i = from; i < to; i++) {
+                double value = update.update(series, i);
+                if (i >= warmUp) values[i - warmUp] = value;
+            }
+            return values;
+        }
+
+        @Override
+        public double[] empty() {
+            return new double[0];
+        }
+    }
+
+    final class Bands implements Extension<BandSeries> {
+
+        private final int period;
+        private final int width;
+        private final BollingerState state;
+
+        Bands(int period, int width) {
+            this.period = period;
+            this.width = width;
+            this.state = new BollingerState(period, width);
+        }
+
+        @Override
+        public BandSeries extend(BandSeries previous, BarSeries series, int from, int to) {
+            int size = Math.max(0, to - period + 1);
+            double[] middle = Arrays.copyOf(previous.middle(), size);
+            double[] deviation = Arrays.copyOf(previous.deviation(), size);
+            for (int i = from; i < to; i++) {
+                state.update(series.close()[i]);
+                if (i < period - 1) continue;
+                middle[i - period + 1] = state.middle();
+                deviation[i - period + 1] = state.deviation();
+            }
+            return new BandSeries(middle, deviation, width);
+        }
+
+        @Override
+        public BandSeries empty() {
+            return new BandSeries(new double[0], new double[0], width);
+        }
+    }
+
+    final class Stochastic implements Extension<OscillatorSeries> {
+
+        private final int period;
+        private final StochasticState state;
+
+        Stochastic(int period) {
+            this.period = period;
+            this.state = new StochasticState(period);
+        }
+
+        @Override
+        public OscillatorSeries extend(OscillatorSeries previous, BarSeries series, int from, int to) {
+            double[] k = Arrays.copyOf(previous.k(), Math.max(0, to - period + 1));
+            for (int i = from; i < to; i++) {
+                double value = state.update(series.close()[i], series.high()[i], series.low()[i]);
+                if (i >= period - 1) k[i - period + 1] = value;
+            }
+            if (k.length == 0) return empty();
+            // d_3 averages fewer values while there are less than three
+            double d3 = state.d3();
+            if (k.length < 3) {
+                double sum = 0.0;
+                for (double value : k) {
+                    sum += value;
+                }
+                d3 = sum / k.length;
+            }
+            return new OscillatorSeries(k, state.d(), d3);
+        }
+
+        @Override
+        public OscillatorSeries empty() {
+            return new OscillatorSeries(new double[0], 0.0, 0.0);
+        }
+    }
+
+    final class Obv implements Extension<long[]> {
+
+        private final ObvState state = new ObvState();
+
+        @Override
+        public long[] extend(long[] previous, BarSeries series, int from, int to) {
+            long[] values = Arrays.copyOf(previous, to);
+            for (int i = from; i < to; i++) {
+                values[i] = state.update(series.close()[i], series.volume()[i]);
+            }
+            return values;
+        }
+
+        @Override
+        public long[] empty() {
+            return new long[0];
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.indic.engine;
+
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.MacdSeries;
+import org.indic.records.OscillatorSeries;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of indicators over one series, described as a graph of {@link Node nodes}.
+ * Equal sub computations are registered once, e.g. MACD(12,26,9) and EMA(12)
+ * share the same ema, Bollinger(20,2) and SMA(20) the same sma and ATR(14) and ATR(20)
+ * the same true ranges. Nodes are kept in dependency order, {@link #execute(BarSeries) execute}
+ * computes every node exactly once per series.
+ */
+public class IndicatorPlan {
+
+    private final List<Node<?>> nodes = new ArrayList<>();
+    private final Map<Node<?>, Integer> indices = new HashMap<>();
+    private final List<int[]> inputIndices = new ArrayList<>();
+
+    /**
+     * Adds a node and all of its inputs, nodes already in the plan are reused.
+     * @param node
+     * @return The node to look up its result with
+     */
+    public <R> Node<R> add(Node<R> node) {
+        register(node);
+        return node;
+    }
+
+    private int register(Node<?> node) {
+        Integer existing = indices.get(node);
+        if (existing != null) return existing;
+
+        List<Node<?>> inputs = node.inputs();
+        int[] sources = new int[inputs.size()];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = register(inputs.get(i));
+        }
+
+        int index = nodes.size();
+        nodes.add(node);
+        inputIndices.add(sources);
+        indices.put(node, index);
+        return index;
+    }
+
+    /**
+     * Adds the node computing the given spec. Specs without built-in nodes become a
+     * {@link Node.Custom} leaf, they share no sub computations.
+     * @param spec
+     * @return The node to look up its result with
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Node<R> add(IndicatorSpec<R> spec) {
+        Node<?> node;
+        if (spec instanceof IndicatorSpec.Sma sma) node = new Node.Sma(Node.CLOSE, sma.period());
+        else if (spec instanceof IndicatorSpec.Ema ema) node = new Node.Ema(Node.CLOSE, ema.period());
+        else if (spec instanceof IndicatorSpec.Rsi rsi) node = new Node.Rsi(Node.CLOSE, rsi.period(), rsi.smoothing());
+        else if (spec instanceof IndicatorSpec.Atr atr) node = new Node.Atr(atr.period());
+        else if (spec instanceof IndicatorSpec.Macd macd) node = new Node.Macd(macd.shortPeriod(), macd.longPeriod(), macd.signalPeriod());
+        else if (spec instanceof IndicatorSpec.Bollinger bollinger) node = new Node.Bollinger(bollinger.period(), bollinger.width());
+        else if (spec instanceof IndicatorSpec.Stochastic stochastic) node = new Node.Stochastic(stochastic.period());
+        else if (spec instanceof IndicatorSpec.Obv) node = new Node.Obv();
+        else node = new Node.Custom<>(spec);
+        return (Node<R>) add(node);
+    }
+
+    public Node<double[]> sma(int period) {
+        return add(new Node.Sma(Node.CLOSE, period));
+    }
+
+    public Node<double[]> ema(int period) {
+        return add(new Node.Ema(Node.CLOSE, period));
+    }
+
+    public Node<double[]> rsi(int period, RelativeStrengthIndex.Smoothing smoothing) {
+        return add(new Node.Rsi(Node.CLOSE, period, smoothing));
+    }
+
+    public Node<double[]> trueRange() {
+        return add(new Node.TrueRange());
+    }
+
+    public Node<double[]> atr(int period) {
+        return add(new Node.Atr(period));
+    }
+
+    public Node<MacdSeries> macd(int shortPeriod, int longPeriod, int signalPeriod) {
+        return add(new Node.Macd(shortPeriod, longPeriod, signalPeriod));
+    }
+
+    public Node<BandSeries> bollinger(int period, int width) {
+        return add(new Node.Bollinger(period, width));
+    }
+
+    public Node<OscillatorSeries> stochastic(int period) {
+        return add(new Node.Stochastic(period));
+    }
+
+    public Node<long[]> obv() {
+        return add(new Node.Obv());
+    }
+
+    /**
+     * @return The number of distinct computations in the plan
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Computes every node of the plan once, inputs before the nodes reading them.
+     * @param series
+     * @return The results of all nodes
+     */
+    public PlanResults execute(BarSeries series) {
+        Object[] values = new Object[nodes.size()];
+        for (int i = 0; i < values.length; i++) {
+            int[] sources = inputIndices.get(i);
+            Object[] inputs = new Object[sources.length];
+            for (int j = 0; j < inputs.length; j++) {
+                inputs[j] = values[sources[j]];
+            }
+            values[i] = nodes.get(i).evaluate(series, inputs);
+        }
+        return new PlanResults(Map.copyOf(indices), values);
+    }
+}
@@ -0,0 +1,119 @@
+package org.indic.engine;
+
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.BollingerBands;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.OnBalanceVolume;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.indicators.StochasticOscillator;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.MacdSeries;
+import org.indic.records.OscillatorSeries;
+
+/**
+ * An indicator with its parameters, e.g. RSI(14) or MACD(12,26,9).
+ * Specs are value objects, two specs with the same parameters are equal.
+ * @param <R> The result type of the indicator
+ */
+public interface IndicatorSpec<R> {
+
+    /**
+     * Calculates the indicator for the given bars.
+     * @param series
+     * @return The indicator values
+     */
+    R compute(BarSeries series);
+
+    static IndicatorSpec<double[]> sma(int period) {
+        return new Sma(period);
+    }
+
+    static IndicatorSpec<double[]> ema(int period) {
+        return new Ema(period);
+    }
+
+    static IndicatorSpec<double[]> rsi(int period) {
+        return new Rsi(period, RelativeStrengthIndex.Smoothing.CUMULATIVE);
+    }
+
+    static IndicatorSpec<double[]> rsi(int period, RelativeStrengthIndex.Smoothing smoothing) {
+        return new Rsi(period, smoothing);
+    }
+
+    static IndicatorSpec<double[]> atr(int period) {
+        return new Atr(period);
+    }
+
+    static IndicatorSpec<MacdSeries> macd(int shortPeriod, int longPeriod, int signalPeriod) {
+        return new Macd(shortPeriod, longPeriod, signalPeriod);
+    }
+
+    static IndicatorSpec<BandSeries> bollinger(int period, int width) {
+        return new Bollinger(period, width);
+    }
+
+    static IndicatorSpec<OscillatorSeries> stochastic(int period) {
+        return new Stochastic(period);
+    }
+
+    static IndicatorSpec<long[]> obv() {
+        return new Obv();
+    }
+
+    record Sma(int period) implements IndicatorSpec<double[]> {
+        @Override
+        public double[] compute(BarSeries series) {
+            return IndicatorUtils.smaList(series.close(), period);
+        }
+    }
+
+    record Ema(int period) implements IndicatorSpec<double[]> {
+        @Override
+        public double[] compute(BarSeries series) {
+            return IndicatorUtils.ema(series.close(), period);
+        }
+    }
+
+    record Rsi(int period, RelativeStrengthIndex.Smoothing smoothing) implements IndicatorSpec<double[]> {
+        @Override
+        public double[] compute(BarSeries series) {
+            return RelativeStrengthIndex.calculate(period, series.close(), smoothing);
+        }
+    }
+
+    record Atr(int period) implements IndicatorSpec<double[]> {
+        @Override
+        public double[] compute(BarSeries series) {
+            return AverageTrueRange.calculateAtr(period, series);
+        }
+    }
+
+    record Macd(int shortPeriod, int longPeriod, int signalPeriod) implements IndicatorSpec<MacdSeries> {
+        @Override
+        public MacdSeries compute(BarSeries series) {
+            return org.indic.indicators.Macd.calculateResult(shortPeriod, longPeriod, signalPeriod, series.close());
+        }
+    }
+
+    record Bollinger(int period, int width) implements IndicatorSpec<BandSeries> {
+        @Override
+        public BandSeries compute(BarSeries series) {
+            return BollingerBands.calculate(period, series.close(), width);
+        }
+    }
+
+    record Stochastic(int period) implements IndicatorSpec<OscillatorSeries> {
+        @Override
+        public OscillatorSeries compute(BarSeries series) {
+            return StochasticOscillator.calculate(period, series);
+        }
+    }
+
+    record Obv() implements IndicatorSpec<long[]> {
+        @Override
+        public long[] compute(BarSeries series) {
+            return OnBalanceVolume.calculate(series);
+        }
+    }
+}
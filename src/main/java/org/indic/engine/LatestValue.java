@@ -0,0 +1,312 @@
+package org.indic.engine;
+
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.Lookback;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.indicators.StochasticOscillator;
+import org.indic.records.BarSeries;
+import org.indic.streaming.AtrState;
+import org.indic.streaming.EmaState;
+import org.indic.streaming.RsiState;
+
+import java.util.Arrays;
+
+/**
+ * The value of an indicator at the latest bars of a series, e.g. RSI(14) at the last bar.
+ * Windowed indicators (sma, bollinger, stochastic) only read the bars of the needed windows.
+ * Recursive ones (ema, rsi, atr) run their streaming state over the whole series without allocating
+ * the history, or, when created with a tolerance, only read the tail sized by {@link Lookback} with
+ * the latest value kernels, e.g. {@link IndicatorUtils#latestEma(double[], int, int, int) latestEma}.
+ * The cost of a screen then no longer grows with the history, the values are within the bounds
+ * documented at the kernels. Cumulative rsi averages every close, it always reads the whole series.
+ * Exact values are the same as the last values of the batch calculations, the windowed
+ * bollinger values only differ by rounding from the rolling ones.
+ * Values are value objects, two values with the same parameters are equal.
+ */
+public interface LatestValue {
+
+    /**
+     * Returned by {@link #cost(int) cost} when the whole series is read.
+     */
+    int WHOLE_SERIES = Integer.MAX_VALUE;
+
+    /**
+     * Writes the values at the latest values.length bars, the value at the last bar
+     * goes into values[values.length - 1]. Values that need more bars than the series has are NaN.
+     * @param series
+     * @param values Receives the latest values
+     */
+    void latest(BarSeries series, double[] values);
+
+    /**
+     * @param count Number of latest values
+     * @return The number of bars read for count values, {@link #WHOLE_SERIES} if all bars are read
+     */
+    int cost(int count);
+
+    /**
+     * @param series
+     * @return The value at the last bar, NaN if the series is too short
+     */
+    default double latest(BarSeries series) {
+        double[] values = new double[1];
+        latest(series, values);
+        return values[0];
+    }
+
+    default Condition below(double threshold) {
+        return new Condition.Compare(this, new Constant(threshold), true);
+    }
+
+    default Condition above(double threshold) {
+        return new Condition.Compare(this, new Constant(threshold), false);
+    }
+
+    default Condition below(LatestValue other) {
+        return new Condition.Compare(this, other, true);
+    }
+
+    default Condition above(LatestValue other) {
+        return new Condition.Compare(this, other, false);
+    }
+
+    /**
+     * @return Condition that holds if the value at the last bar is above the one before
+     */
+    default Condition rising() {
+        return new Condition.Trend(this, true);
+    }
+
+    /**
+     * @return Condition that holds if the value at the last bar is below the one before
+     */
+    default Condition falling() {
+        return new Condition.Trend(this, false);
+    }
+
+    static LatestValue close() {
+        return new Close();
+    }
+
+    static LatestValue sma(int period) {
+        return new Sma(period);
+    }
+
+    static LatestValue ema(int period) {
+        return new Ema(period, WHOLE_SERIES);
+    }
+
+    /**
+     * @param period
+     * @param tolerance See {@link Lookback#ema(int, double) Lookback.ema}
+     * @return The ema from the last {@link Lookback#ema(int, double) Lookback.ema} prices
+     */
+    static LatestValue ema(int period, double tolerance) {
+        return new Ema(period, Lookback.ema(period, tolerance));
+    }
+
+    static LatestValue rsi(int period) {
+        return new Rsi(period, RelativeStrengthIndex.Smoothing.CUMULATIVE, WHOLE_SERIES);
+    }
+
+    static LatestValue rsi(int period, RelativeStrengthIndex.Smoothing smoothing) {
+        return new Rsi(period, smoothing, WHOLE_SERIES);
+    }
+
+    /**
+     * @param period
+     * @param smoothing
+     * @param tolerance See {@link Lookback#rsi(int, double) Lookback.rsi}
+     * @return The rsi from the last {@link Lookback#rsi(int, double) Lookback.rsi} closes,
+     * from all closes for {@link RelativeStrengthIndex.Smoothing#CUMULATIVE}
+     */
+    static LatestValue rsi(int period, RelativeStrengthIndex.Smoothing smoothing, double tolerance) {
+        int lookback = Lookback.rsi(period, tolerance);
+        return new Rsi(period, smoothing, smoothing == RelativeStrengthIndex.Smoothing.WILDER ? lookback : WHOLE_SERIES);
+    }
+
+    static LatestValue atr(int period) {
+        return new Atr(period, WHOLE_SERIES);
+    }
+
+    /**
+     * @param period
+     * @param tolerance See {@link Lookback#atr(int, double) Lookback.atr}
+     * @return The atr from the last {@link Lookback#atr(int, double) Lookback.atr} bars
+     */
+    static LatestValue atr(int period, double tolerance) {
+        return new Atr(period, Lookback.atr(period, tolerance));
+    }
+
+    static LatestValue lowerBand(int period, int width) {
+        return new Band(period, -width);
+    }
+
+    static LatestValue upperBand(int period, int width) {
+        return new Band(period, width);
+    }
+
+    static LatestValue stochasticK(int period) {
+        return new StochasticK(period);
+    }
+
+    record Constant(double value) implements LatestValue {
+        @Override
+        public void latest(BarSeries series, double[] values) {
+            Arrays.fill(values, value);
+        }
+
+        @Override
+        public int cost(int count) {
+            return 0;
+        }
+    }
+
+    record Close() implements LatestValue {
+        @Override
+        public void latest(BarSeries series, double[] values) {
+            int size = series.size();
+            for (int i = 0; i < values.length; i++) {
+                int index = size - values.length + i;
+                values[i] = index >= 0 ? series.close()[index] : Double.NaN;
+            }
+        }
+
+        @Override
+        public int cost(int count) {
+            return count;
+        }
+    }
+
+    record Sma(int period) implements LatestValue {
+        @Override
+        public void latest(BarSeries series, double[] values) {
+            int size = series.size();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = IndicatorUtils.smaWithPeriodValues(series.close(), period, size - values.length + i + 1).orElse(Double.NaN);
+            }
+        }
+
+        @Override
+        public int cost(int count) {
+            return period * count;
+        }
+    }
+
+    /**
+     * Bollinger band sma + offset * deviation, negative offsets are the lower band.
+     */
+    record Band(int period, int offset) implements LatestValue {
+        @Override
+        public void latest(BarSeries series, double[] values) {
+            int size = series.size();
+            for (int i = 0; i < values.length; i++) {
+                int to = size - values.length + i + 1;
+                if (to < period) {
+                    values[i] = Double.NaN;
+                    continue;
+                }
+                double middle = IndicatorUtils.smaWithPeriodValues(series.close(), period, to).getAsDouble();
+                values[i] = middle + offset * IndicatorUtils.standardDeviation(series.close(), period, to).getAsDouble();
+            }
+        }
+
+        @Override
+        public int cost(int count) {
+            return 2 * period * count;
+        }
+    }
+
+    record StochasticK(int period) implements LatestValue {
+        @Override
+        public void latest(BarSeries series, double[] values) {
+            int size = series.size();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = StochasticOscillator.latestK(period, series, size - values.length + i + 1);
+            }
+        }
+
+        @Override
+        public int cost(int count) {
+            return period * count;
+        }
+    }
+
+    /**
+     * @param lookback Number of prices read per value, {@link #WHOLE_SERIES} for the exact ema
+     */
+    record Ema(int period, int lookback) implements LatestValue {
+        @Override
+        public void latest(BarSeries series, double[] values) {
+            if (lookback == WHOLE_SERIES) {
+                EmaState state = new EmaState(period);
+                Recursive.run(series, values, i -> state.update(series.close()[i]));
+                return;
+            }
+            int size = series.size();
+            for (int i = 0; i < values.length; i++) {
+                int to = size - values.length + i + 1;
+                values[i] = to > 0 ? IndicatorUtils.latestEma(series.close(), period, lookback, to) : Double.NaN;
+            }
+        }
+
+        @Override
+        public int cost(int count) {
+            return tailCost(lookback, count);
+        }
+    }
+
+    /**
+     * @param lookback Number of closes read per value, {@link #WHOLE_SERIES} for the exact rsi
+     */
+    record Rsi(int period, RelativeStrengthIndex.Smoothing smoothing, int lookback) implements LatestValue {
+        @Override
+        public void latest(BarSeries series, double[] values) {
+            if (lookback == WHOLE_SERIES) {
+                RsiState state = new RsiState(period, smoothing);
+                Recursive.run(series, values, i -> state.update(series.close()[i]));
+                return;
+            }
+            int size = series.size();
+            for (int i = 0; i < values.length; i++) {
+                int to = size - values.length + i + 1;
+                values[i] = to > 0 ? RelativeStrengthIndex.latest(period, series.close(), smoothing, lookback, to) : Double.NaN;
+            }
+        }
+
+        @Override
+        public int cost(int count) {
+            return tailCost(lookback, count);
+        }
+    }
+
+    /**
+     * @param lookback Number of bars read per value, {@link #WHOLE_SERIES} for the exact atr
+     */
+    record Atr(int period, int lookback) implements LatestValue {
+        @Override
+        public void latest(BarSeries series, double[] values) {
+            if (lookback == WHOLE_SERIES) {
+                AtrState state = new AtrState(period);
+                Recursive.run(series, values, i -> state.update(series.high()[i], series.low()[i], series.close()[i]));
+                return;
+            }
+            int size = series.size();
+            for (int i = 0; i < values.length; i++) {
+                int to = size - values.length + i + 1;
+                values[i] = to > 0 ? AverageTrueRange.latestAtr(period, series, lookback, to) : Double.NaN;
+            }
+        }
+
+        @Override
+        public int cost(int count) {
+            return tailCost(lookback, count);
+        }
+    }
+
+    private static int tailCost(int lookback, int count) {
+        if (lookback == WHOLE_SERIES) return WHOLE_SERIES;
+        return (int) Math.min((long) lookback * count, WHOLE_SERIES - 1);
+    }
+}
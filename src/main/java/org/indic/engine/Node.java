@@ -0,0 +1,178 @@
+package org.indic.engine;
+
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.BollingerBands;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.OnBalanceVolume;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.indicators.StochasticOscillator;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.MacdSeries;
+import org.indic.records.OscillatorSeries;
+
+import java.util.List;
+
+/**
+ * A computation in an {@link IndicatorPlan}. Nodes are value records, two nodes
+ * with the same parameters and inputs are equal and are only computed once per series.
+ * @param <R> The result type of the node
+ */
+public sealed interface Node<R> {
+
+    Column CLOSE = new Column(Field.CLOSE);
+    Column HIGH = new Column(Field.HIGH);
+    Column LOW = new Column(Field.LOW);
+    Column OPEN = new Column(Field.OPEN);
+
+    enum Field { OPEN, HIGH, LOW, CLOSE }
+
+    /**
+     * @return The nodes this node reads, in the order evaluate receives their values
+     */
+    default List<Node<?>> inputs() {
+        return List.of();
+    }
+
+    /**
+     * Computes the node.
+     * @param series The bars of the series
+     * @param inputs The values of {@link #inputs()}
+     * @return The result of the node
+     */
+    R evaluate(BarSeries series, Object[] inputs);
+
+    record Column(Field field) implements Node<double[]> {
+        @Override
+        public double[] evaluate(BarSeries series, Object[] inputs) {
+            return switch (field) {
+                case OPEN -> series.open();
+                case HIGH -> series.high();
+                case LOW -> series.low();
+                case CLOSE -> series.close();
+            };
+        }
+    }
+
+    record Sma(Node<double[]> source, int period) implements Node<double[]> {
+        @Override
+        public List<Node<?>> inputs() {
+            return List.of(source);
+        }
+
+        @Override
+        public double[] evaluate(BarSeries series, Object[] inputs) {
+            return IndicatorUtils.smaList((double[]) inputs[0], period);
+        }
+    }
+
+    record Ema(Node<double[]> source, int period) implements Node<double[]> {
+        @Override
+        public List<Node<?>> inputs() {
+            return List.of(source);
+        }
+
+        @Override
+        public double[] evaluate(BarSeries series, Object[] inputs) {
+            return IndicatorUtils.ema((double[]) inputs[0], period);
+        }
+    }
+
+    record StandardDeviation(Node<double[]> source, int period) implements Node<double[]> {
+        @Override
+        public List<Node<?>> inputs() {
+            return List.of(source);
+        }
+
+        @Override
+        public double[] evaluate(BarSeries series, Object[] inputs) {
+            return IndicatorUtils.rollingStandardDeviation((double[]) inputs[0], period);
+        }
+    }
+
+    record Rsi(Node<double[]> source, int period, RelativeStrengthIndex.Smoothing smoothing) implements Node<double[]> {
+        @Override
+        public List<Node<?>> inputs() {
+            return List.of(source);
+        }
+
+        @Override
+        public double[] evaluate(BarSeries series, Object[] inputs) {
+            return RelativeStrengthIndex.calculate(period, (double[]) inputs[0], smoothing);
+        }
+    }
+
+    record TrueRange() implements Node<double[]> {
+        @Override
+        public double[] evaluate(BarSeries series, Object[] inputs) {
+            return AverageTrueRange.calculateTR(series.close(), series.high(), series.low());
+        }
+    }
+
+    record Atr(int period) implements Node<double[]> {
+        @Override
+        public List<Node<?>> inputs() {
+            return List.of(new TrueRange());
+        }
+
+        @Override
+        public double[] evaluate(BarSeries series, Object[] inputs) {
+            return AverageTrueRange.calculateAtr(period, (double[]) inputs[0]);
+        }
+    }
+
+    /**
+     * Padded Macd over the closes, same as {@link org.indic.indicators.Macd#calculateResult(int, int, int, double[]) calculateResult}.
+     */
+    record Macd(int shortPeriod, int longPeriod, int signalPeriod) implements Node<MacdSeries> {
+        @Override
+        public List<Node<?>> inputs() {
+            return List.of(new Ema(CLOSE, shortPeriod), new Ema(CLOSE, longPeriod), new Sma(CLOSE, longPeriod));
+        }
+
+        @Override
+        public MacdSeries evaluate(BarSeries series, Object[] inputs) {
+            double[] longSmas = (double[]) inputs[2];
+            double longSma = IndicatorUtils.smaWithPeriodValues(longSmas, longSmas.length).orElse(Double.NaN);
+            return org.indic.indicators.Macd.fromEmas((double[]) inputs[0], (double[]) inputs[1], longSma, signalPeriod);
+        }
+    }
+
+    record Bollinger(int period, int width) implements Node<BandSeries> {
+        @Override
+        public List<Node<?>> inputs() {
+            return List.of(new Sma(CLOSE, period), new StandardDeviation(CLOSE, period));
+        }
+
+        @Override
+        public BandSeries evaluate(BarSeries series, Object[] inputs) {
+            return BollingerBands.fromDeviations((double[]) inputs[0], (double[]) inputs[1], width);
+        }
+    }
+
+    record Stochastic(int period) implements Node<OscillatorSeries> {
+        @Override
+        public OscillatorSeries evaluate(BarSeries series, Object[] inputs) {
+            return StochasticOscillator.calculate(period, series);
+        }
+    }
+
+    record Obv() implements Node<long[]> {
+        @Override
+        public long[] evaluate(BarSeries series, Object[] inputs) {
+            return OnBalanceVolume.calculate(series);
+        }
+    }
+
+    /**
+     * A spec the plan has no nodes for, e.g. a custom indicator. It is a leaf computed by
+     * {@link IndicatorSpec#compute(BarSeries) compute}, equal specs are still computed once.
+     * @param spec
+     */
+    record Custom<R>(IndicatorSpec<R> spec) implements Node<R> {
+        @Override
+        public R evaluate(BarSeries series, Object[] inputs) {
+            return spec.compute(series);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package org.indic.engine;
+
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.CompensatedSum;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.indicators.RelativeStrengthIndex.Smoothing;
+import org.indic.indicators.RollingStatistics;
+import org.indic.records.BandSweep;
+import org.indic.records.BarSeries;
+import org.indic.records.SweepMatrix;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates an indicator for every period of a range over the same series at once,
+ * e.g. for parameter optimization, into a {@link SweepMatrix}.
+ * Work shared by all periods (prefix sums, true ranges, close differences) is done once.
+ * The recurrences of ema, atr and rsi run over tiles of the input that stay in cache
+ * while every period of a block is advanced over it. Blocks of periods are calculated
+ * in parallel on a {@link ForkJoinPool}.
+ * Ema, atr, rsi, deviation and Bollinger match the single period methods exactly, the deviation
+ * rolls one {@link RollingStatistics} per period like the single period methods.
+ * Sma is calculated from compensated prefix sums in O(1) per value and matches
+ * {@link org.indic.indicators.IndicatorUtils#smaList(double[], int) smaList} to about 1e-12 relative.
+ */
+public class ParameterSweep implements AutoCloseable {
+
+    private static final int TILE = 2048;
+    private static final int BLOCK = 8;
+
+    private final int fromPeriod;
+    private final int toPeriod;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param fromPeriod First period, at least 1
+     * @param toPeriod Last period, inclusive
+     * @param parallelism Number of worker threads
+     */
+    public ParameterSweep(int fromPeriod, int toPeriod, int parallelism) {
+        if (fromPeriod < 1 || fromPeriod > toPeriod) throw new IllegalArgumentException("Invalid period range " + fromPeriod + " to " + toPeriod);
+        this.fromPeriod = fromPeriod;
+        this.toPeriod = toPeriod;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Uses one worker per available processor.
+     * @param fromPeriod First period, at least 1
+     * @param toPeriod Last period, inclusive
+     */
+    public ParameterSweep(int fromPeriod, int toPeriod) {
+        this(fromPeriod, toPeriod, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Rolling sma of every period, value t is the mean of prices[t - period + 1] to prices[t].
+     * @param prices
+     * @return The smas
+     */
+    public SweepMatrix sma(double[] prices) {
+        PrefixSums sums = new PrefixSums(prices);
+        SweepMatrix matrix = SweepMatrix.allocate(fromPeriod, toPeriod, prices.length);
+        run((first, last) -> {
+            for (int period = first; period <= last; period++) {
+                double[] values = matrix.values();
+                int offset = matrix.offset(period);
+                int ready = fillWarmUp(values, offset, period - 1, prices.length);
+                for (int t = ready; t < prices.length; t++) {
+                    values[offset + t] = sums.mean(t + 1 - period, t + 1);
+                }
+            }
+        });
+        return matrix;
+    }
+
+    /**
+     * Rolling population standard deviation of every period, the windows line up with {@link #sma(double[]) sma}.
+     * @param prices
+     * @return The standard deviations
+     */
+    public SweepMatrix standardDeviation(double[] prices) {
+        SweepMatrix matrix = SweepMatrix.allocate(fromPeriod, toPeriod, prices.length);
+        run((first, last) -> {
+            RollingStatistics[] windows = windows(first, last);
+            double[] values = matrix.values();
+            for (int tile = 0; tile < prices.length; tile += TILE) {
+                int end = Math.min(prices.length, tile + TILE);
+                for (int period = first; period <= last; period++) {
+                    RollingStatistics window = windows[period - first];
+                    int offset = matrix.offset(period);
+                    int ready = fillWarmUp(values, offset, period - 1, tile, end);
+                    for (int t = tile; t < end; t++) {
+                        window.add(prices[t]);
+                        if (t >= ready) values[offset + t] = window.standardDeviation();
+                    }
+                }
+            }
+        });
+        return matrix;
+    }
+
+    /**
+     * Bollinger Bands of every period, see {@link org.indic.indicators.BollingerBands#calculate(int, double[], int) calculate}.
+     * @param prices
+     * @param width The width, usually 2
+     * @return The lower, middle and upper bands
+     */
+    public BandSweep bollinger(double[] prices, int width) {
+        SweepMatrix lower = SweepMatrix.allocate(fromPeriod, toPeriod, prices.length);
+        SweepMatrix middle = SweepMatrix.allocate(fromPeriod, toPeriod, prices.length);
+        SweepMatrix upper = SweepMatrix.allocate(fromPeriod, toPeriod, prices.length);
+        run((first, last) -> {
+            RollingStatistics[] windows = windows(first, last);
+            for (int tile = 0; tile < prices.length; tile += TILE) {
+                int end = Math.min(prices.length, tile + TILE);
+                for (int period = first; period <= last; period++) {
+                    RollingStatistics window = windows[period - first];
+                    int offset = middle.offset(period);
+                    fillWarmUp(lower.values(), offset, period - 1, tile, end);
+                    fillWarmUp(upper.values(), offset, period - 1, tile, end);
+                    int ready = fillWarmUp(middle.values(), offset, period - 1, tile, end);
+                    for (int t = tile; t < end; t++) {
+                        window.add(prices[t]);
+                        if (t < ready) continue;
+                        double mean = window.mean();
+                        double deviation = window.standardDeviation();
+                        middle.values()[offset + t] = mean;
+                        upper.values()[offset + t] = mean + width * deviation;
+                        lower.values()[offset + t] = mean - width * deviation;
+                    }
+                }
+            }
+        });
+        return new BandSweep(lower, middle, upper);
+    }
+
+    /**
+     * Ema of every period, value t is {@link org.indic.indicators.IndicatorUtils#ema(double[], int) ema}
+     * index t - period + 1.
+     * @param prices
+     * @return The emas
+     */
+    public SweepMatrix ema(double[] prices) {
+        SweepMatrix matrix = SweepMatrix.allocate(fromPeriod, toPeriod, prices.length);
+        run((first, last) -> {
+            double[] emas = new double[last - first + 1];
+            double[] values = matrix.values();
+            for (int tile = 0; tile < prices.length; tile += TILE) {
+                int end = Math.min(prices.length, tile + TILE);
+                for (int period = first; period <= last; period++) {
+                    int offset = matrix.offset(period);
+                    int t = fillWarmUp(values, offset, period - 1, tile, end);
+                    if (t >= end) continue;
+
+                    double multiplier = 2.0 / (period + 1);
+                    double ema = emas[period - first];
+                    if (t == period - 1) {
+                        CompensatedSum initial = new CompensatedSum();
+                        for (int i = 0; i < period; i++) {
+                            initial.add(prices[i]);
+                        }
+                        ema = initial.sum() / period;
+                        values[offset + t++] = ema;
+                    }
+                    for (; t < end; t++) {
+                        ema = (prices[t] - ema) * multiplier + ema;
+                        values[offset + t] = ema;
+                    }
+                    emas[period - first] = ema;
+                }
+            }
+        });
+        return matrix;
+    }
+
+    /**
+     * Average True Range of every period, value t is
+     * {@link AverageTrueRange#calculateAtr(int, double[], double[], double[]) calculateAtr}
+     * index t - period + 1.
+     * @param series
+     * @return The atrs
+     */
+    public SweepMatrix atr(BarSeries series) {
+        double[] trValues = AverageTrueRange.calculateTR(series.close(), series.high(), series.low());
+        SweepMatrix matrix = SweepMatrix.allocate(fromPeriod, toPeriod, trValues.length);
+        run((first, last) -> {
+            double[] atrs = new double[last - first + 1];
+            double[] values = matrix.values();
+            for (int tile = 0; tile < trValues.length; tile += TILE) {
+                int end = Math.min(trValues.length, tile + TILE);
+                for (int period = first; period <= last; period++) {
+                    int offset = matrix.offset(period);
+                    int t = fillWarmUp(values, offset, period - 1, tile, end);
+                    if (t >= end) continue;
+
+                    double atr = atrs[period - first];
+                    if (t == period - 1) {
+                        double initial = 0.0;
+                        for (int i = 0; i < period; i++) {
+                            initial += trValues[i];
+                        }
+                        atr = initial / period;
+                        values[offset + t++] = atr;
+                    }
+                    for (; t < end; t++) {
+                        atr = ((atr * (period - 1)) + trValues[t]) / period;
+                        values[offset + t] = atr;
+                    }
+                    atrs[period - first] = atr;
+                }
+            }
+        });
+        return matrix;
+    }
+
+    /**
+     * Relative Strength Index of every period, value t is
+     * {@link RelativeStrengthIndex#calculate(int, double[], Smoothing) calculate}
+     * index t - period.
+     * @param closes
+     * @param smoothing How gains and losses are averaged
+     * @return The rsis
+     */
+    public SweepMatrix rsi(double[] closes, Smoothing smoothing) {
+        SweepMatrix matrix = SweepMatrix.allocate(fromPeriod, toPeriod, closes.length);
+        double[] gains = new double[closes.length];
+        double[] losses = new double[closes.length];
+        for (int i = 1; i < closes.length; i++) {
+            double diff = closes[i] - closes[i - 1];
+            gains[i] = diff > 0 ? diff : 0.0;
+            losses[i] = diff > 0 ? 0.0 : -diff;
+        }
+
+        if (smoothing == Smoothing.CUMULATIVE) {
+            // the cumulative averages do not depend on the period, only where they start
+            double[] rsi = new double[closes.length];
+            CompensatedSum gainSum = new CompensatedSum();
+            CompensatedSum lossSum = new CompensatedSum();
+            for (int i = 1; i < closes.length; i++) {
+                if (gains[i] > 0) {
+                    gainSum.add(gains[i]);
+                } else {
+                    lossSum.add(losses[i]);
+                }
+                rsi[i] = RelativeStrengthIndex.rsi(gainSum.sum() / i, lossSum.sum() / i);
+            }
+            run((first, last) -> {
+                for (int period = first; period <= last; period++) {
+                    int offset = matrix.offset(period);
+                    int ready = fillWarmUp(matrix.values(), offset, period, closes.length);
+                    System.arraycopy(rsi, ready, matrix.values(), offset + ready, closes.length - ready);
+                }
+            });
+            return matrix;
+        }
+
+        run((first, last) -> {
+            double[] avgGains = new double[last - first + 1];
+            double[] avgLosses = new double[last - first + 1];
+            double[] values = matrix.values();
+            for (int tile = 0; tile < closes.length; tile += TILE) {
+                int end = Math.min(closes.length, tile + TILE);
+                for (int period = first; period <= last; period++) {
+                    int offset = matrix.offset(period);
+                    int t = fillWarmUp(values, offset, period, tile, end);
+                    if (t >= end) continue;
+
+                    double avgGain = avgGains[period - first];
+                    double avgLoss = avgLosses[period - first];
+                    if (t == period) {
+                        CompensatedSum gainSum = new CompensatedSum();
+                        CompensatedSum lossSum = new CompensatedSum();
+                        for (int i = 1; i <= period; i++) {
+                            if (gains[i] > 0) {
+                                gainSum.add(gains[i]);
+                            } else {
+                                lossSum.add(losses[i]);
+                            }
+                        }
+                        avgGain = gainSum.sum() / period;
+                        avgLoss = lossSum.sum() / period;
+                        values[offset + t++] = RelativeStrengthIndex.rsi(avgGain, avgLoss);
+                    }
+                    for (; t < end; t++) {
+                        avgGain = (avgGain * (period - 1) + gains[t]) / period;
+                        avgLoss = (avgLoss * (period - 1) + losses[t]) / period;
+                        values[offset + t] = RelativeStrengthIndex.rsi(avgGain, avgLoss);
+                    }
+                    avgGains[period - first] = avgGain;
+                    avgLosses[period - first] = avgLoss;
+                }
+            }
+        });
+        return matrix;
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Fills the values before ready with NaN.
+     * @return The first index that is ready
+     */
+    private static int fillWarmUp(double[] values, int offset, int ready, int length) {
+        return fillWarmUp(values, offset, ready, 0, length);
+    }
+
+    /**
+     * Fills the values of the tile from to end before ready with NaN.
+     * @return The first index of the tile that is ready
+     */
+    private static int fillWarmUp(double[] values, int offset, int ready, int from, int end) {
+        int stop = Math.max(from, Math.min(ready, end));
+        Arrays.fill(values, offset + from, offset + stop, Double.NaN);
+        return stop;
+    }
+
+    private static RollingStatistics[] windows(int first, int last) {
+        RollingStatistics[] windows = new RollingStatistics[last - first + 1];
+        for (int period = first; period <= last; period++) {
+            windows[period - first] = new RollingStatistics(period);
+        }
+        return windows;
+    }
+
+    private void run(PeriodBlock block) {
+        pool.invoke(new BlockTask(block, fromPeriod, toPeriod));
+    }
+
+    @FunctionalInterface
+    private interface PeriodBlock {
+        void compute(int firstPeriod, int lastPeriod);
+    }
+
+    private static class BlockTask extends RecursiveAction {
+
+        private final PeriodBlock block;
+        private final int first;
+        private final int last;
+
+        BlockTask(PeriodBlock block, int first, int last) {
+            this.block = block;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first < BLOCK) {
+                block.compute(first, last);
+                return;
+            }
+            int middle = (first + last) >>> 1;
+            invokeAll(new BlockTask(block, first, middle), new BlockTask(block, middle + 1, last));
+        }
+    }
+
+    /**
+     * Prefix sums of the prices, each kept as a sum and its rounding error.
+     * The prices are shifted by the first price to keep the sums small.
+     */
+    private static final class PrefixSums {
+
+        private final double shift;
+        private final double[] sums;
+        private final double[] sumErrors;
+
+        PrefixSums(double[] prices) {
+            int n = prices.length;
+            this.shift = n > 0 ? prices[0] : 0.0;
+            this.sums = new double[n + 1];
+            this.sumErrors = new double[n + 1];
+            for (int i = 0; i < n; i++) {
+                double value = prices[i] - shift;
+                sums[i + 1] = sums[i] + value;
+                sumErrors[i + 1] = sumErrors[i] + twoSumError(sums[i], value, sums[i + 1]);
+            }
+        }
+
+        private static double twoSumError(double a, double b, double sum) {
+            double bVirtual = sum - a;
+            return (a - (sum - bVirtual)) + (b - bVirtual);
+        }
+
+        double mean(int from, int to) {
+            return ((sums[to] - sums[from]) + (sumErrors[to] - sumErrors[from])) / (to - from) + shift;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.indic.engine;
+
+import java.util.Map;
+
+/**
+ * The results of one {@link IndicatorPlan#execute(org.indic.records.BarSeries) execution}.
+ */
+public final class PlanResults {
+
+    private final Map<Node<?>, Integer> indices;
+    private final Object[] values;
+
+    PlanResults(Map<Node<?>, Integer> indices, Object[] values) {
+        this.indices = indices;
+        this.values = values;
+    }
+
+    /**
+     * @param node
+     * @return The result of the node, null if it is not part of the plan
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R get(Node<R> node) {
+        Integer index = indices.get(node);
+        return index == null ? null : (R) values[index];
+    }
+}
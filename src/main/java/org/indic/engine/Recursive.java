@@ -0,0 +1,30 @@
+package org.indic.engine;
+
+import org.indic.records.BarSeries;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Runs a streaming state over a whole series and keeps only the latest values.
+ */
+final class Recursive {
+
+    private Recursive() {
+    }
+
+    /**
+     * @param series
+     * @param values Receives the values of the last values.length bars, NaN before the first bar
+     * @param update Adds bar i to the state and returns the current value
+     */
+    static void run(BarSeries series, double[] values, IntToDoubleFunction update) {
+        int size = series.size();
+        int first = size - values.length;
+        Arrays.fill(values, 0, Math.max(0, Math.min(values.length, -first)), Double.NaN);
+        for (int i = 0; i < size; i++) {
+            double value = update.applyAsDouble(i);
+            if (i >= first) values[i - first] = value;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.indic.engine;
+
+import org.indic.records.BarSeries;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches indicator results by series id and {@link IndicatorSpec}, least recently used
+ * results are evicted once more than maxEntries results or maxBars bars in total are cached.
+ * When a series was only appended to since its result was cached, the result is extended by
+ * feeding just the new bars into the streaming state of the indicator. The extended result is
+ * the same as a recalculation, only the copy of the previous values is O(n).
+ * Results are treated as append only if the series is not shorter and its first bar and the
+ * last cached bar have the same timestamp and close, otherwise they are recalculated.
+ * Macd with sma padding and unknown specs are always recalculated when the series changed.
+ * Returned results are shared and must not be modified.
+ * Thread safe, results of different keys are calculated in parallel.
+ */
+public class ResultCache {
+
+    private final int maxEntries;
+    private final long maxBars;
+    private final LinkedHashMap<Key, Entry<?>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder extensions = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long bars;
+
+    /**
+     * @param maxEntries Maximum number of cached results
+     * @param maxBars Maximum number of bars covered by all cached results
+     */
+    public ResultCache(int maxEntries, long maxBars) {
+        if (maxEntries <= 0 || maxBars <= 0) throw new IllegalArgumentException("Limits must be positive");
+        this.maxEntries = maxEntries;
+        this.maxBars = maxBars;
+    }
+
+    /**
+     * @param maxEntries Maximum number of cached results
+     */
+    public ResultCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the cached result, extends it by the appended bars or calculates it.
+     * @param seriesId Identifies the series, e.g. symbol and timeframe
+     * @param series The current bars of the series
+     * @param spec
+     * @return The result for all bars of the series
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R get(String seriesId, BarSeries series, IndicatorSpec<R> spec) {
+        Key key = new Key(seriesId, spec);
+        Entry<R> entry;
+        synchronized (entries) {
+            entry = (Entry<R>) entries.computeIfAbsent(key, k -> new Entry<>(spec));
+        }
+
+        R result;
+        synchronized (entry) {
+            result = entry.resolve(series);
+        }
+
+        synchronized (entries) {
+            if (entries.get(key) == entry) {
+                bars += entry.length - entry.counted;
+                entry.counted = entry.length;
+                evict();
+            }
+        }
+        return result;
+    }
+
+    private void evict() {
+        Iterator<Entry<?>> iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || bars > maxBars) && iterator.hasNext()) {
+            Entry<?> eldest = iterator.next();
+            bars -= eldest.counted;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes all results of the series, e.g. after it was corrected.
+     * @param seriesId
+     */
+    public void invalidate(String seriesId) {
+        synchronized (entries) {
+            Iterator<Map.Entry<Key, Entry<?>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, Entry<?>> next = iterator.next();
+                if (next.getKey().seriesId().equals(seriesId)) {
+                    bars -= next.getValue().counted;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bars = 0;
+        }
+    }
+
+    /**
+     * @return The number of cached results
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return The number of bars covered by all cached results
+     */
+    public long bars() {
+        synchronized (entries) {
+            return bars;
+        }
+    }
+
+    /**
+     * @return Lookups answered without calculating anything
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Lookups answered by extending a cached result
+     */
+    public long extensions() {
+        return extensions.sum();
+    }
+
+    /**
+     * @return Lookups that calculated the result for the whole series
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    private record Key(String seriesId, IndicatorSpec<?> spec) {
+    }
+
+    private final class Entry<R> {
+
+        private final IndicatorSpec<R> spec;
+        private Extension<R> extension;
+        private R result;
+        private volatile int length;
+        private int counted;
+        private long firstTimestamp;
+        private long lastTimestamp;
+        private double lastClose;
+
+        Entry(IndicatorSpec<R> spec) {
+            this.spec = spec;
+        }
+
+        R resolve(BarSeries series) {
+            int size = series.size();
+            if (result != null && size == length && appendedTo(series)) {
+                hits.increment();
+                return result;
+            }
+
+            if (result != null && size > length && extension != null && appendedTo(series)) {
+                extensions.increment();
+                result = extension.extend(result, series, length, size);
+            } else {
+                misses.increment();
+                extension = Extension.of(spec);
+                result = extension != null ? extension.extend(extension.empty(), series, 0, size) : spec.compute(series);
+            }
+
+            length = size;
+            if (size > 0) {
+                firstTimestamp = series.timestamps()[0];
+                lastTimestamp = series.timestamps()[size - 1];
+                lastClose = series.close()[size - 1];
+            }
+            return result;
+        }
+
+        private boolean appendedTo(BarSeries series) {
+            if (length == 0) return series.size() == 0 || extension != null;
+            return series.size() >= length
+                    && series.timestamps()[0] == firstTimestamp
+                    && series.timestamps()[length - 1] == lastTimestamp
+                    && Double.compare(series.close()[length - 1], lastClose) == 0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.indic.engine;
+
+import org.indic.records.BarSeries;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Screens a universe of symbols for the symbols that meet all conditions, e.g.
+ * RSI(14) below 30, close below the lower bollinger band and %K rising.
+ * No indicator history is calculated, conditions only evaluate the latest values they need.
+ * The conditions are tested cheapest first (see {@link Condition#cost()}) and a symbol is
+ * dropped at the first condition it fails, so the expensive ones only run for the few
+ * symbols that got past the cheap ones. Symbols are screened in parallel on a {@link ForkJoinPool}.
+ */
+public class Screener implements AutoCloseable {
+
+    private final Condition[] conditions;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param conditions All have to hold for a symbol to match
+     * @param parallelism Number of worker threads
+     */
+    public Screener(List<Condition> conditions, int parallelism) {
+        List<Condition> sorted = new ArrayList<>(conditions);
+        sorted.sort(Comparator.comparingInt(Condition::cost));
+        this.conditions = sorted.toArray(new Condition[0]);
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Uses one worker per available processor.
+     * @param conditions All have to hold for a symbol to match
+     */
+    public Screener(List<Condition> conditions) {
+        this(conditions, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Tests the conditions on the calling thread, cheapest first.
+     * @param series
+     * @return true if the series meets all conditions
+     */
+    public boolean test(BarSeries series) {
+        for (Condition condition : conditions) {
+            if (!condition.test(series)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Screens every symbol of the universe in parallel.
+     * @param universe Series by symbol
+     * @return The matching symbols, sorted
+     */
+    public List<String> screen(Map<String, BarSeries> universe) {
+        return screen(universe.keySet(), universe::get);
+    }
+
+    /**
+     * Screens every symbol in parallel, the series are loaded by the workers,
+     * so a symbol is only held in memory while it is tested.
+     * @param symbols The symbols to screen
+     * @param loader Loads the series of a symbol, called from the worker threads
+     * @return The matching symbols, sorted
+     */
+    public List<String> screen(Collection<String> symbols, Function<String, BarSeries> loader) {
+        return pool.submit(() -> symbols.parallelStream()
+                .filter(symbol -> test(loader.apply(symbol)))
+                .sorted()
+                .toList()).join();
+    }
+
+    /**
+     * @return The conditions in the order they are tested
+     */
+    public List<Condition> conditions() {
+        return List.of(conditions);
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
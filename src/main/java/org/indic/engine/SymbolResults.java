@@ -0,0 +1,30 @@
+package org.indic.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The indicator results of one symbol, looked up by their spec.
+ */
+public final class SymbolResults {
+
+    private final Map<IndicatorSpec<?>, Object> results = new LinkedHashMap<>();
+
+    <R> void put(IndicatorSpec<R> spec, R result) {
+        results.put(spec, result);
+    }
+
+    /**
+     * @param spec
+     * @return The result of the spec, null if it was not calculated
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R get(IndicatorSpec<R> spec) {
+        return (R) results.get(spec);
+    }
+
+    public Set<IndicatorSpec<?>> specs() {
+        return results.keySet();
+    }
+}
@@ -0,0 +1,266 @@
+package org.indic.flow;
+
+import org.indic.records.BarSeries;
+import org.indic.streaming.BarConsumer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes a live bar feed as chunks of up to batchSize bars, e.g. to {@link IndicatorProcessor}s.
+ * Bars are collected until the chunk is full or {@link #flush()} is called, a batchSize of 1 publishes
+ * every bar right away. Chunks are offered without blocking: a subscriber whose buffer of
+ * bufferCapacity chunks is full misses the chunk (see {@link #dropped()}), so ingestion never waits
+ * for a slow subscriber. Subscribers that must see every chunk, like {@link IndicatorProcessor}s whose
+ * state a missed chunk would corrupt for good, subscribe with {@link #subscribeLossless(Flow.Subscriber)}:
+ * their chunks are queued without bound and delivered in order on the executor as they request them,
+ * a subscriber falling behind is reported as lagging (see {@link #lagged()}) instead of losing chunks.
+ * Bars may be added from several threads.
+ */
+public class BarPublisher extends SubmissionPublisher<BarSeries> implements BarConsumer {
+
+    private final int batchSize;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder lagged = new LongAdder();
+    private final List<QueuedSubscription> queued = new CopyOnWriteArrayList<>();
+    private BarSeries chunk;
+    private int count;
+
+    /**
+     * @param batchSize Number of bars per chunk
+     * @param executor Delivers the chunks, e.g. Executors.newVirtualThreadPerTaskExecutor()
+     * @param bufferCapacity Maximum number of buffered chunks per subscriber
+     */
+    public BarPublisher(int batchSize, Executor executor, int bufferCapacity) {
+        super(executor, bufferCapacity);
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive");
+        this.batchSize = batchSize;
+        this.chunk = BarSeries.allocate(batchSize);
+    }
+
+    /**
+     * Delivers on the common pool with the default buffer capacity.
+     * @param batchSize Number of bars per chunk
+     */
+    public BarPublisher(int batchSize) {
+        this(batchSize, ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    /**
+     * Adds a bar to the current chunk and publishes the chunk once it is full.
+     */
+    @Override
+    public synchronized void accept(long timestamp, double open, double high, double low, double close, long volume) {
+        chunk.timestamps()[count] = timestamp;
+        chunk.open()[count] = open;
+        chunk.high()[count] = high;
+        chunk.low()[count] = low;
+        chunk.close()[count] = close;
+        chunk.volume()[count] = volume;
+        if (++count == batchSize) {
+            offerChunk(chunk);
+            chunk = BarSeries.allocate(batchSize);
+            count = 0;
+        }
+    }
+
+    /**
+     * Publishes the bars collected so far, e.g. when a feed goes quiet.
+     * @return true if there were bars to publish
+     */
+    public synchronized boolean flush() {
+        if (count == 0) return false;
+        offerChunk(new BarSeries(
+                Arrays.copyOf(chunk.timestamps(), count),
+                Arrays.copyOf(chunk.open(), count),
+                Arrays.copyOf(chunk.high(), count),
+                Arrays.copyOf(chunk.low(), count),
+                Arrays.copyOf(chunk.close(), count),
+                Arrays.copyOf(chunk.volume(), count)));
+        count = 0;
+        return true;
+    }
+
+    /**
+     * Publishes already collected bars as one chunk, after the bars added before.
+     * The bars must not be modified afterwards.
+     * @param bars
+     */
+    public synchronized void publish(BarSeries bars) {
+        flush();
+        offerChunk(bars);
+    }
+
+    /**
+     * Subscribes the subscriber without ever dropping a chunk for it. Chunks are queued for the subscriber
+     * and delivered in order on the executor of this publisher, only as many as it requested. Publishing
+     * only appends to the queue, so a slow subscriber never stalls ingestion but its queue grows.
+     * @param subscriber
+     */
+    public void subscribeLossless(Flow.Subscriber<? super BarSeries> subscriber) {
+        QueuedSubscription subscription = new QueuedSubscription(subscriber);
+        synchronized (this) {
+            if (isClosed()) {
+                // signalled by the schedule after onSubscribe
+                subscription.error = getClosedException();
+                subscription.terminated = true;
+            } else {
+                queued.add(subscription);
+            }
+        }
+        subscriber.onSubscribe(subscription);
+        subscription.schedule();
+    }
+
+    private void offerChunk(BarSeries bars) {
+        for (QueuedSubscription subscription : queued) {
+            subscription.enqueue(bars);
+        }
+        offer(bars, (subscriber, chunk) -> {
+            dropped.increment();
+            return false;
+        });
+    }
+
+    /**
+     * @return The number of chunks subscribers missed because their buffer was full
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return The number of chunks queued for a lossless subscriber that already had bufferCapacity
+     * or more chunks waiting
+     */
+    public long lagged() {
+        return lagged.sum();
+    }
+
+    /**
+     * Publishes the remaining bars and completes the subscribers.
+     */
+    @Override
+    public synchronized void close() {
+        flush();
+        super.close();
+        for (QueuedSubscription subscription : queued) {
+            subscription.terminate(null);
+        }
+        queued.clear();
+    }
+
+    /**
+     * Fails the subscribers without publishing the remaining bars.
+     * @param error
+     */
+    @Override
+    public synchronized void closeExceptionally(Throwable error) {
+        super.closeExceptionally(error);
+        for (QueuedSubscription subscription : queued) {
+            subscription.terminate(error);
+        }
+        queued.clear();
+    }
+
+    /**
+     * The queue of a lossless subscriber. At most one drain task runs at a time, so the
+     * subscriber is called sequentially and sees the chunks in publishing order.
+     */
+    private final class QueuedSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super BarSeries> subscriber;
+        private final Queue<BarSeries> chunks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean done;
+        private volatile boolean terminated;
+        private volatile Throwable error;
+
+        QueuedSubscription(Flow.Subscriber<? super BarSeries> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void enqueue(BarSeries bars) {
+            if (size.getAndIncrement() >= getMaxBufferCapacity()) lagged.increment();
+            chunks.add(bars);
+            schedule();
+        }
+
+        /**
+         * Completes the subscriber once the queued chunks are delivered, or fails it right away.
+         * @param error null to complete
+         */
+        void terminate(Throwable error) {
+            if (error != null) {
+                chunks.clear();
+                size.set(0);
+            }
+            this.error = error;
+            this.terminated = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                terminate(new IllegalArgumentException("non-positive request " + n));
+                return;
+            }
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+            queued.remove(this);
+            chunks.clear();
+        }
+
+        void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                getExecutor().execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                while (!done && demand.get() > 0) {
+                    BarSeries bars = chunks.poll();
+                    if (bars == null) break;
+                    size.decrementAndGet();
+                    demand.decrementAndGet();
+                    try {
+                        subscriber.onNext(bars);
+                    } catch (Throwable t) {
+                        cancel();
+                        subscriber.onError(t);
+                    }
+                }
+                if (!done && terminated && (error != null || chunks.isEmpty())) {
+                    cancel();
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.indic.flow;
+
+import org.indic.engine.IndicatorSpec;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.MacdSeries;
+import org.indic.records.OscillatorSeries;
+import org.indic.streaming.AtrState;
+import org.indic.streaming.BollingerState;
+import org.indic.streaming.EmaState;
+import org.indic.streaming.MacdState;
+import org.indic.streaming.ObvState;
+import org.indic.streaming.RsiState;
+import org.indic.streaming.StochasticState;
+
+import java.util.function.Function;
+
+/**
+ * Feeds chunks of bars into the streaming state of a spec, the state carries over from chunk
+ * to chunk. Results have one value per bar of the chunk, NaN until the state is ready.
+ */
+final class ChunkUpdate {
+
+    private ChunkUpdate() {
+    }
+
+    @FunctionalInterface
+    private interface CloseUpdate {
+        double update(double close);
+    }
+
+    /**
+     * @param spec
+     * @return A stateful function from a chunk of bars to the values of the spec
+     * @throws IllegalArgumentException if the spec has no streaming state
+     */
+    @SuppressWarnings("unchecked")
+    static <R> Function<BarSeries, R> of(IndicatorSpec<R> spec) {
+        Function<BarSeries, ?> update = switch (spec) {
+            case IndicatorSpec.Sma sma -> closes(new BollingerState(sma.period(), 0)::update);
+            case IndicatorSpec.Ema ema -> closes(new EmaState(ema.period())::update);
+            case IndicatorSpec.Rsi rsi -> closes(new RsiState(rsi.period(), rsi.smoothing())::update);
+            case IndicatorSpec.Atr atr -> atr(new AtrState(atr.period()));
+            case IndicatorSpec.Macd macd -> macd(new MacdState(macd.shortPeriod(), macd.longPeriod(), macd.signalPeriod()));
+            case IndicatorSpec.Bollinger bollinger -> bands(new BollingerState(bollinger.period(), bollinger.width()), bollinger.width());
+            case IndicatorSpec.Stochastic stochastic -> stochastic(new StochasticState(stochastic.period()));
+            case IndicatorSpec.Obv obv -> obv(new ObvState());
+            default -> throw new IllegalArgumentException("No streaming state for " + spec);
+        };
+        return (Function<BarSeries, R>) update;
+    }
+
+    private static Function<BarSeries, double[]> atr(AtrState state) {
+        return bars -> {
+            double[] values = new double[bars.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = state.update(bars.high()[i], bars.low()[i], bars.close()[i]);
+            }
+            return values;
+        };
+    }
+
+    private static Function<BarSeries, MacdSeries> macd(MacdState state) {
+        return bars -> {
+            double[] line = new double[bars.size()];
+            double[] signal = new double[bars.size()];
+            for (int i = 0; i < line.length; i++) {
+                line[i] = state.update(bars.close()[i]);
+                signal[i] = state.signal();
+            }
+            return new MacdSeries(line, signal);
+        };
+    }
+
+    private static Function<BarSeries, BandSeries> bands(BollingerState state, int width) {
+        return bars -> {
+            double[] middle = new double[bars.size()];
+            double[] deviation = new double[bars.size()];
+            for (int i = 0; i < middle.length; i++) {
+                middle[i] = state.update(bars.close()[i]);
+                deviation[i] = state.deviation();
+            }
+            return new BandSeries(middle, deviation, width);
+        };
+    }
+
+    private static Function<BarSeries, OscillatorSeries> stochastic(StochasticState state) {
+        return bars -> {
+            double[] k = new double[bars.size()];
+            for (int i = 0; i < k.length; i++) {
+                k[i] = state.update(bars.close()[i], bars.high()[i], bars.low()[i]);
+            }
+            return new OscillatorSeries(k, state.d(), state.d3());
+        };
+    }
+
+    private static Function<BarSeries, long[]> obv(ObvState state) {
+        return bars -> {
+            long[] values = new long[bars.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = state.update(bars.close()[i], bars.volume()[i]);
+            }
+            return values;
+        };
+    }
+
+    private static Function<BarSeries, double[]> closes(CloseUpdate state) {
+        return bars -> {
+            double[] values = new double[bars.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = state.update(bars.close()[i]);
+            }
+            return values;
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package org.indic.flow;
+
+import org.indic.engine.IndicatorSpec;
+import org.indic.records.BarSeries;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Turns a stream of bar chunks (e.g. from a {@link BarPublisher}) into a stream of indicator values.
+ * Every chunk is fed into the streaming state of the spec and published as one result with one value
+ * per bar, NaN until the indicator is ready. The state carries over between chunks, so the values are
+ * the same however the bars are chunked. Result types are the ones of the spec, e.g. double[] for
+ * {@link IndicatorSpec#ema(int) ema} and {@link org.indic.records.MacdSeries} for
+ * {@link IndicatorSpec#macd(int, int, int) macd}. Macd is not padded (see {@link org.indic.indicators.Macd.Padding#NONE}),
+ * stochastic d and d_3 are the values after the chunk.
+ * At most bufferCapacity chunks are requested from upstream ahead of processing. A missed chunk would
+ * corrupt the state, subscribe the processor to a {@link BarPublisher} with
+ * {@link BarPublisher#subscribeLossless(Flow.Subscriber) subscribeLossless}, other publishers must not drop
+ * chunks either. Results are offered to
+ * the subscribers without blocking: a subscriber whose buffer of bufferCapacity results is full misses
+ * the result (see {@link #dropped()}), so a slow subscriber never stalls the feed.
+ * @param <R> The result type of the spec
+ */
+public class IndicatorProcessor<R> extends SubmissionPublisher<R> implements Flow.Processor<BarSeries, R> {
+
+    private final Function<BarSeries, R> update;
+    private final int bufferCapacity;
+    private final LongAdder dropped = new LongAdder();
+    private Flow.Subscription subscription;
+
+    /**
+     * @param spec The indicator
+     * @param executor Delivers the results, e.g. Executors.newVirtualThreadPerTaskExecutor()
+     * @param bufferCapacity Maximum number of requested chunks and of buffered results per subscriber
+     */
+    public IndicatorProcessor(IndicatorSpec<R> spec, Executor executor, int bufferCapacity) {
+        super(executor, bufferCapacity);
+        this.update = ChunkUpdate.of(spec);
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * Delivers on the common pool with the default buffer capacity.
+     * @param spec The indicator
+     */
+    public IndicatorProcessor(IndicatorSpec<R> spec) {
+        this(spec, ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(bufferCapacity);
+    }
+
+    @Override
+    public void onNext(BarSeries bars) {
+        offer(update.apply(bars), (subscriber, result) -> {
+            dropped.increment();
+            return false;
+        });
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        close();
+    }
+
+    /**
+     * @return The number of results subscribers missed because their buffer was full
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+}
@@ -1,8 +1,11 @@
 package org.indic.indicators;
 
+import org.indic.metrics.IndicatorMetrics;
+import org.indic.records.BarSeries;
+import org.indic.records.FloatBarSeries;
+
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
 
 public class AverageTrueRange {
 
@@ -17,6 +20,30 @@ public class AverageTrueRange {
         return Math.max(Math.max(high - low, Math.abs(high - yes_close)), Math.abs(low - yes_close));
     }
 
+    /**
+     * Calculates the true range for every bar, the first (0) value is just
+     * high[0] - low[0], since closes(-1) does not exist.
+     * Vectorized if available, see {@link ElementWise}.
+     * @param closes
+     * @param highs
+     * @param lows
+     * @return The true ranges, one per bar
+     */
+    public static double[] calculateTR(double[] closes, double[] highs, double[] lows) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("TrueRange", closes.length);
+        try {
+            return trueRanges(closes, highs, lows);
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    private static double[] trueRanges(double[] closes, double[] highs, double[] lows) {
+        double[] trValues = new double[closes.length];
+        ElementWise.get().trueRange(closes, highs, lows, trValues);
+        return trValues;
+    }
+
     /**
      * Calculates the Average True Range.
      * Starts from 0 to closes.size(), the first (0) value is just
@@ -29,24 +56,193 @@ public class AverageTrueRange {
      */
     public static List<Double> calculateAtr(int period, List<Double> closes, List<Double> highs, List<Double> lows) {
         if (closes.size() < period) return new ArrayList<>();
-        List<Double> trValues = IntStream.range(0, closes.size())
-                .mapToDouble((i) -> i > 0 ? calculateTR(highs.get(i), lows.get(i), closes.get(i - 1)) : highs.get(i) - lows.get(0))
-                .boxed()
-                .toList();
-
-        double initialATR = trValues.stream().limit(period).reduce(0.0, Double::sum) / period;
+        return IndicatorUtils.toList(calculateAtr(period, IndicatorUtils.toArray(closes), IndicatorUtils.toArray(highs), IndicatorUtils.toArray(lows)));
+    }
 
-        List<Double> atrValues = new ArrayList<>();
-        atrValues.add(initialATR);
+    /**
+     * See {@link #calculateAtr(int, List, List, List) calculateAtr}.
+     * @param period
+     * @param closes
+     * @param highs
+     * @param lows
+     * @return The Average True Range values, closes.length - period + 1 values
+     */
+    public static double[] calculateAtr(int period, double[] closes, double[] highs, double[] lows) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("AverageTrueRange", closes.length);
+        try {
+            if (closes.length < period) return new double[0];
+            double[] atrValues = new double[closes.length - period + 1];
+            atr(period, Columns.of(closes), Columns.of(highs), Columns.of(lows), closes.length, Columns.into(atrValues));
+            return atrValues;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
 
-        for (int i = period; i < trValues.size(); i++) {
-            double previousATR = atrValues.get(atrValues.size() - 1);
-            double currentTR = trValues.get(i);
-            double currentATR = ((previousATR * (period - 1)) + currentTR) / period;
-            atrValues.add(currentATR);
+    /**
+     * Calculates the Average True Range from already calculated true ranges,
+     * see {@link #calculateTR(double[], double[], double[]) calculateTR}.
+     * @param period
+     * @param trValues
+     * @return The Average True Range values, trValues.length - period + 1 values
+     */
+    public static double[] calculateAtr(int period, double[] trValues) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("AverageTrueRange", trValues.length);
+        try {
+            return atr(period, trValues);
+        } finally {
+            IndicatorMetrics.end(probe);
         }
+    }
+
+    private static double[] atr(int period, double[] trValues) {
+        if (trValues.length < period) return new double[0];
 
+        double[] atrValues = new double[trValues.length - period + 1];
+        Columns.Writer out = Columns.into(atrValues);
+        double atr = 0.0;
+        for (int i = 0; i < trValues.length; i++) {
+            atr = next(period, i, trValues[i], atr, out);
+        }
         return atrValues;
     }
 
+    /**
+     * Calculates the atr of the bars into out, length - period + 1 values. The true ranges are
+     * calculated block-wise with {@link ElementWise#trueRange(double[], double[], double[], double[]) trueRange}
+     * on double scratch arrays, every block starts with the bar before it for its previous close.
+     */
+    private static void atr(int period, Columns.Reader closes, Columns.Reader highs, Columns.Reader lows, int length, Columns.Writer out) {
+        double[] closeBlock = new double[0];
+        double[] highBlock = new double[0];
+        double[] lowBlock = new double[0];
+        double[] trBlock = new double[0];
+        double atr = 0.0;
+        for (int from = 0; from < length; from += Columns.BLOCK) {
+            int to = Math.min(length, from + Columns.BLOCK);
+            int start = Math.max(0, from - 1);
+            int size = to - start;
+            if (closeBlock.length != size) {
+                closeBlock = new double[size];
+                highBlock = new double[size];
+                lowBlock = new double[size];
+                trBlock = new double[size];
+            }
+            closes.copyTo(start, to, closeBlock, 0);
+            highs.copyTo(start, to, highBlock, 0);
+            lows.copyTo(start, to, lowBlock, 0);
+            ElementWise.get().trueRange(closeBlock, highBlock, lowBlock, trBlock);
+            for (int i = from - start; i < size; i++) {
+                atr = next(period, start + i, trBlock[i], atr, out);
+            }
+        }
+    }
+
+    /**
+     * One step of the atr: sums the first period true ranges and writes their average,
+     * then smooths with ((atr * (period - 1)) + tr) / period.
+     * @param t Index of the true range
+     * @return The sum before bar period - 1, the atr after it
+     */
+    private static double next(int period, int t, double tr, double atr, Columns.Writer out) {
+        if (t < period) {
+            atr += tr;
+            if (t == period - 1) {
+                atr /= period;
+                out.set(0, atr);
+            }
+            return atr;
+        }
+        atr = ((atr * (period - 1)) + tr) / period;
+        out.set(t - period + 1, atr);
+        return atr;
+    }
+
+    /**
+     * See {@link #calculateAtr(int, BarSeries) calculateAtr}, for float prices.
+     * Accumulates in double, the values are the double values rounded to float.
+     * @param period
+     * @param series
+     * @return The Average True Range values, series.size() - period + 1 values
+     */
+    public static float[] calculateAtr(int period, FloatBarSeries series) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("AverageTrueRange", series.size());
+        try {
+            if (series.size() < period) return new float[0];
+            float[] atrValues = new float[series.size() - period + 1];
+            atr(period, Columns.of(series.close()), Columns.of(series.high()), Columns.of(series.low()), series.size(), Columns.into(atrValues));
+            return atrValues;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * Calculates only the latest {@link #calculateAtr(int, BarSeries) atr} from the last lookback bars,
+     * so the cost does not depend on the length of the history and nothing is allocated.
+     * The true ranges of the tail are the same as in the full series (the close before the tail is
+     * used), only the initial atr is the average of the first period true ranges of the tail.
+     * Both initial values lie within the true ranges, the difference shrinks by 1 - 1 / period per bar:
+     * |latestAtr - atr| &lt;= (1 - 1 / period)^(lookback - period) * (max(tr) - min(tr)).
+     * With a lookback from {@link Lookback#atr(int, double) Lookback.atr(period, tolerance)}
+     * the error is at most tolerance times the range of the true ranges, with
+     * lookback &gt;= series.size() the value is the same as the last atr.
+     * @param period
+     * @param series
+     * @param lookback Number of latest bars to read, at least period
+     * @return The latest atr, NaN if there are less than period bars
+     */
+    public static double latestAtr(int period, BarSeries series, int lookback) {
+        return latestAtr(period, series, lookback, series.size());
+    }
+
+    /**
+     * See {@link #latestAtr(int, BarSeries, int) latestAtr}, the atr at bar to - 1.
+     * Only the lookback bars before to (and the close before them) are read.
+     * @param period
+     * @param series
+     * @param lookback Number of bars before to to read, at least period
+     * @param to exclusive end of the tail
+     * @return The atr at bar to - 1, NaN if there are less than period bars before to
+     */
+    public static double latestAtr(int period, BarSeries series, int lookback, int to) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("AverageTrueRange", to);
+        try {
+            double[] closes = series.close();
+            double[] highs = series.high();
+            double[] lows = series.low();
+            int from = Math.max(0, to - Math.max(lookback, period));
+            if (to - from < period) return Double.NaN;
+
+            double atr = 0.0;
+            for (int i = from; i < from + period; i++) {
+                atr += trueRange(closes, highs, lows, i);
+            }
+            atr /= period;
+            for (int i = from + period; i < to; i++) {
+                atr = ((atr * (period - 1)) + trueRange(closes, highs, lows, i)) / period;
+            }
+            return atr;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * The true range of bar i, high[0] - low[0] for the first bar.
+     */
+    static double trueRange(double[] closes, double[] highs, double[] lows, int i) {
+        return i == 0 ? highs[0] - lows[0] : calculateTR(highs[i], lows[i], closes[i - 1]);
+    }
+
+    /**
+     * See {@link #calculateAtr(int, List, List, List) calculateAtr}.
+     * @param period
+     * @param series
+     * @return The Average True Range values
+     */
+    public static double[] calculateAtr(int period, BarSeries series) {
+        return calculateAtr(period, series.close(), series.high(), series.low());
+    }
+
 }
@@ -1,32 +1,155 @@
 package org.indic.indicators;
 
+import org.indic.buffers.DoubleRing;
+import org.indic.metrics.IndicatorMetrics;
+import org.indic.records.BandSeries;
 import org.indic.records.Bands;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.IntStream;
 
 public class BollingerBands extends IndicatorUtils {
 
     /**
      * Calculates the Bollinger Bands. <br></br>
      * Middle band is calculated with {@link #smaList(List, int) smaList}
-     * Upper and lower are calculated with the
-     * {@link #standardDeviation(List, int) standardDeviation} and
-     * the width (usually 2).
+     * Upper and lower are calculated with the standard deviation
+     * of the same window as the middle value and the width (usually 2).
+     * The lists are read only views, lower and upper are calculated on access.
      * @param period Period where to start calculating from
      * @param prices List of Stock Prices
      * @param width The width, usually 2
      * @return The middle, lower and upper Bands
      */
     public static Bands calculate(int period, List<Double> prices, int width) {
-        double deviation = IndicatorUtils.standardDeviation(prices, period).orElse(0.0);
+        BandSeries bands = calculate(period, IndicatorUtils.toArray(prices), width);
+        return new Bands(DoubleListView.of(bands.size(), bands::lower), DoubleListView.of(bands.middle()), DoubleListView.of(bands.size(), bands::upper));
+    }
+
+    /**
+     * See {@link #calculate(int, List, int) calculate}.
+     * Mean and deviation are rolled over the prices in a single pass,
+     * lower and upper are derived from them.
+     * @param period Period where to start calculating from
+     * @param prices Stock Prices
+     * @param width The width, usually 2
+     * @return The middle, lower and upper Bands
+     */
+    public static BandSeries calculate(int period, double[] prices, int width) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("BollingerBands", prices.length);
+        try {
+            int size = Math.max(0, prices.length - period + 1);
+            double[] middle = new double[size];
+            double[] deviation = new double[size];
+
+            roll(period, Columns.of(prices), prices.length, Columns.into(middle), Columns.into(deviation));
+            return new BandSeries(middle, deviation, width);
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * See {@link #calculate(int, List, int) calculate}, for every window in the ring.
+     * @param period Period where to start calculating from
+     * @param prices The latest Stock Prices
+     * @param width The width, usually 2
+     * @return The middle, lower and upper Bands
+     */
+    public static BandSeries calculate(int period, DoubleRing prices, int width) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("BollingerBands", prices.size());
+        try {
+            int size = Math.max(0, prices.size() - period + 1);
+            double[] middle = new double[size];
+            double[] deviation = new double[size];
 
-        List<Double> middle = IndicatorUtils.smaList(prices, period);
-        List<Double> upper = middle.stream().mapToDouble((value) -> value + width * deviation).boxed().toList();
-        List<Double> lower = middle.stream().mapToDouble((value) -> value - width * deviation).boxed().toList();
+            roll(period, prices::get, prices.size(), Columns.into(middle), Columns.into(deviation));
+            return new BandSeries(middle, deviation, width);
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
 
-        return new Bands(lower, middle, upper);
+    /**
+     * Calculates only the latest bands from the last period prices in the ring
+     * into the given buffer, nothing is allocated.
+     * Middle and deviation are the same as {@link #smaWithPeriodValues(DoubleRing, int) smaWithPeriodValues}
+     * and {@link #standardDeviation(DoubleRing, int) standardDeviation}.
+     * @param period
+     * @param prices The latest Stock Prices
+     * @param width The width, usually 2
+     * @param bands Receives lower, middle and upper at index 0, 1 and 2
+     * @return false if the ring holds less than period prices
+     */
+    public static boolean latest(int period, DoubleRing prices, int width, double[] bands) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("BollingerBands", prices.size());
+        try {
+            if (prices.size() < period) return false;
+            double middle = smaWithPeriodValues(prices, period).getAsDouble();
+            double deviation = standardDeviation(prices, period).getAsDouble();
+            bands[0] = middle - width * deviation;
+            bands[1] = middle;
+            bands[2] = middle + width * deviation;
+            return true;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * See {@link #calculate(int, double[], int) calculate}, for float prices. Writes the middle band and
+     * the deviation, the bands are middle -/+ width * deviation.
+     * Accumulates in double, the values are the double values rounded to float.
+     * @param period Period where to start calculating from
+     * @param prices
+     * @param middle Receives the sma, at least prices.length - period + 1 values
+     * @param deviation Receives the standard deviation, at least prices.length - period + 1 values
+     * @return The number of values written
+     */
+    public static int calculate(int period, float[] prices, float[] middle, float[] deviation) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("BollingerBands", prices.length);
+        try {
+            int size = Math.max(0, prices.length - period + 1);
+            if (middle.length < size || deviation.length < size) {
+                throw new IllegalArgumentException("Buffers must hold at least " + size + " values");
+            }
+            roll(period, Columns.of(prices), prices.length, Columns.into(middle), Columns.into(deviation));
+            return size;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * Rolls mean and deviation over the prices, the single pass of all calculate methods.
+     */
+    private static void roll(int period, Columns.Reader prices, int length, Columns.Writer middle, Columns.Writer deviation) {
+        RollingStatistics window = new RollingStatistics(period);
+        for (int i = 0; i < length; i++) {
+            window.add(prices.get(i));
+            if (i < period - 1) continue;
+            middle.set(i - period + 1, window.mean());
+            deviation.set(i - period + 1, window.standardDeviation());
+        }
+    }
+
+    /**
+     * Builds the bands from already calculated
+     * {@link #smaList(double[], int) smaList} and
+     * {@link #rollingStandardDeviation(double[], int) rollingStandardDeviation} values
+     * of the same period.
+     * @param middle The sma values
+     * @param deviations The standard deviations, same size as middle
+     * @param width The width, usually 2
+     * @return The middle, lower and upper Bands
+     */
+    public static BandSeries fromDeviations(double[] middle, double[] deviations, int width) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("BollingerBands", middle.length);
+        try {
+            return new BandSeries(middle, deviations, width);
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
     }
 
     /**
@@ -40,12 +163,20 @@ public class BollingerBands extends IndicatorUtils {
             return Optional.empty();
         }
 
-        return Optional.of(IntStream.range(0, bands.middle().size())
-                .mapToDouble((i) -> (bands.upper().get(i) - bands.lower().get(i)) / bands.middle().get(i))
-                .boxed()
-                .toList());
+        double[] middle = IndicatorUtils.toArray(bands.middle());
+        double[] bandwidth = new double[middle.length];
+        ElementWise.get().bandwidth(IndicatorUtils.toArray(bands.lower()), middle, IndicatorUtils.toArray(bands.upper()), bandwidth);
+        return Optional.of(IndicatorUtils.toList(bandwidth));
     }
 
-}
-
+    /**
+     * See {@link #bandwidth(Bands) bandwidth}, the bands of a BandSeries always have the same size.
+     * Use {@link BandSeries#bandwidth(double[])} to reuse a buffer.
+     * @param bands
+     * @return The bandwidth as Optional<double[]>
+     */
+    public static Optional<double[]> bandwidth(BandSeries bands) {
+        return Optional.of(bands.bandwidth());
+    }
 
+}
@@ -0,0 +1,72 @@
+package org.indic.indicators;
+
+/**
+ * Read and write access to double and float columns, so a kernel is written once for both.
+ * Kernels built on the array based {@link ElementWise} kernels copy blocks of the columns into
+ * double scratch arrays with {@link Reader#copyTo(int, int, double[], int) copyTo}.
+ * Floats are widened to double on read and rounded on write, the arithmetic is always in double,
+ * so the float results are the double results rounded to float.
+ */
+final class Columns {
+
+    /**
+     * Values per scratch block, small enough to stay in the L1 cache.
+     */
+    static final int BLOCK = 1024;
+
+    private Columns() {
+    }
+
+    @FunctionalInterface
+    interface Reader {
+        double get(int index);
+
+        /**
+         * Copies the values from (inclusive) to to (exclusive) into the destination, widened to double.
+         */
+        default void copyTo(int from, int to, double[] destination, int offset) {
+            for (int i = from; i < to; i++) {
+                destination[offset + i - from] = get(i);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Writer {
+        void set(int index, double value);
+    }
+
+    static Reader of(double[] values) {
+        return new Reader() {
+            @Override
+            public double get(int index) {
+                return values[index];
+            }
+
+            @Override
+            public void copyTo(int from, int to, double[] destination, int offset) {
+                System.arraycopy(values, from, destination, offset, to - from);
+            }
+        };
+    }
+
+    static Reader of(float[] values) {
+        return i -> values[i];
+    }
+
+    /**
+     * @param values May be null
+     * @return A writer into the values, null if values is null
+     */
+    static Writer into(double[] values) {
+        return values == null ? null : (i, value) -> values[i] = value;
+    }
+
+    /**
+     * @param values May be null
+     * @return A writer rounding into the values, null if values is null
+     */
+    static Writer into(float[] values) {
+        return values == null ? null : (i, value) -> values[i] = (float) value;
+    }
+}
@@ -0,0 +1,62 @@
+package org.indic.indicators;
+
+/**
+ * Running sum with Kahan compensation, matching the summation
+ * DoubleStream.sum and DoubleStream.average use. Lets streaming
+ * code reproduce batch means bit for bit.
+ */
+public final class CompensatedSum {
+
+    private double sum;
+    private double compensation;
+    private double simpleSum;
+
+    /**
+     * Adds a value to the sum.
+     * @param value
+     */
+    public void add(double value) {
+        double tmp = value - compensation;
+        double velvel = sum + tmp;
+        compensation = (velvel - sum) - tmp;
+        sum = velvel;
+        simpleSum += value;
+    }
+
+    /**
+     * @return The compensated sum of all added values
+     */
+    public double sum() {
+        double total = sum - compensation;
+        if(Double.isNaN(total) && Double.isInfinite(simpleSum)) return simpleSum;
+        return total;
+    }
+
+    /**
+     * Returns the sum as if the value was added, without adding it.
+     * @param value
+     * @return The compensated sum including the value
+     */
+    public double peek(double value) {
+        double tmp = value - compensation;
+        double velvel = sum + tmp;
+        double total = velvel - ((velvel - sum) - tmp);
+        if(Double.isNaN(total) && Double.isInfinite(simpleSum + value)) return simpleSum + value;
+        return total;
+    }
+
+    void copyFrom(CompensatedSum other) {
+        sum = other.sum;
+        compensation = other.compensation;
+        simpleSum = other.simpleSum;
+    }
+
+    /**
+     * Resets the sum to 0.
+     */
+    public void reset() {
+        sum = 0.0;
+        compensation = 0.0;
+        simpleSum = 0.0;
+    }
+}
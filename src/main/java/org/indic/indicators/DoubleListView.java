@@ -0,0 +1,41 @@
+package org.indic.indicators;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Read only List view of primitive values, values are boxed on access only.
+ * Derived values (e.g. a band from middle and deviation) are calculated on access.
+ */
+final class DoubleListView extends AbstractList<Double> implements RandomAccess {
+
+    private final int size;
+    private final IntToDoubleFunction values;
+
+    private DoubleListView(int size, IntToDoubleFunction values) {
+        this.size = size;
+        this.values = values;
+    }
+
+    static List<Double> of(double[] values) {
+        return new DoubleListView(values.length, i -> values[i]);
+    }
+
+    static List<Double> of(int size, IntToDoubleFunction values) {
+        return new DoubleListView(size, values);
+    }
+
+    @Override
+    public Double get(int index) {
+        Objects.checkIndex(index, size);
+        return values.applyAsDouble(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,98 @@
+package org.indic.indicators;
+
+/**
+ * Element-wise kernels over primitive arrays. {@link #get()} returns the kernels using the
+ * incubating Vector API (jdk.incubator.vector) when the module was added to the jvm with
+ * {@code --add-modules jdk.incubator.vector}, otherwise plain scalar loops.
+ * Both give exactly the same results, every lane is calculated like the scalar code.
+ * Setting the system property {@code indic.vector=false} forces the scalar kernels.
+ */
+public abstract class ElementWise {
+
+    private static final ElementWise SCALAR = new ScalarElementWise();
+    private static final ElementWise BEST = loadVector();
+
+    ElementWise() {
+    }
+
+    private static ElementWise loadVector() {
+        if ("false".equals(System.getProperty("indic.vector"))) return SCALAR;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return SCALAR;
+        try {
+            return (ElementWise) Class.forName("org.indic.indicators.VectorElementWise").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+
+    /**
+     * @return The vectorized kernels if available, otherwise the scalar ones
+     */
+    public static ElementWise get() {
+        return BEST;
+    }
+
+    /**
+     * @return The scalar kernels
+     */
+    public static ElementWise scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * @return true if {@link #get()} returns vectorized kernels
+     */
+    public static boolean isVectorized() {
+        return BEST != SCALAR;
+    }
+
+    /**
+     * Calculates the true range of every bar, see
+     * {@link AverageTrueRange#calculateTR(double[], double[], double[]) calculateTR}.
+     * @param closes
+     * @param highs
+     * @param lows
+     * @param trValues Receives closes.length values
+     */
+    public abstract void trueRange(double[] closes, double[] highs, double[] lows, double[] trValues);
+
+    /**
+     * Calculates lower = middle - width * deviation and upper = middle + width * deviation,
+     * see {@link org.indic.records.BandSeries BandSeries}.
+     * @param middle
+     * @param deviations
+     * @param width
+     * @param lower Receives middle.length values, may be null
+     * @param upper Receives middle.length values, may be null
+     */
+    public abstract void bands(double[] middle, double[] deviations, double width, double[] lower, double[] upper);
+
+    /**
+     * Calculates (upper - lower) / middle.
+     * @param lower
+     * @param middle
+     * @param upper
+     * @param bandwidth Receives middle.length values
+     */
+    public abstract void bandwidth(double[] lower, double[] middle, double[] upper, double[] bandwidth);
+
+    /**
+     * Calculates a - b, e.g. the Macd histogram of a {@link org.indic.records.MacdSeries MacdSeries}.
+     * The result may be one of the inputs.
+     * @param a
+     * @param b
+     * @param result Receives a.length values
+     */
+    public abstract void subtract(double[] a, double[] b, double[] result);
+
+    /**
+     * Calculates the volume signed by the direction of the close, the summands of
+     * {@link OnBalanceVolume#calculate(double[], long[]) OnBalanceVolume}:
+     * +volumes[i] if closes[i] &gt; closes[i - 1], -volumes[i] if lower and 0 otherwise.
+     * The first value is volumes[0].
+     * @param closes
+     * @param volumes
+     * @param signed Receives closes.length values
+     */
+    public abstract void signedVolumes(double[] closes, long[] volumes, long[] signed);
+}
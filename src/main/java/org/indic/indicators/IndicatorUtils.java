@@ -1,10 +1,12 @@
 package org.indic.indicators;
 
+import org.indic.buffers.DoubleRing;
+import org.indic.metrics.IndicatorMetrics;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.OptionalDouble;
-import java.util.stream.IntStream;
 
 public class IndicatorUtils {
 
@@ -19,10 +21,42 @@ public class IndicatorUtils {
      * @return the sma as OptionalDouble
      */
     public static <T extends Number> OptionalDouble smaWithPeriodValues(List<T> prices, int period) {
+        return smaWithPeriodValues(toArray(prices), period);
+    }
+
+    /**
+     * See {@link #smaWithPeriodValues(List, int) smaWithPeriodValues}.
+     * @param prices
+     * @param period
+     * @return the sma as OptionalDouble
+     */
+    public static OptionalDouble smaWithPeriodValues(double[] prices, int period) {
+        return smaWithPeriodValues(prices, period, prices.length);
+    }
+
+    /**
+     * See {@link #smaWithPeriodValues(List, int) smaWithPeriodValues},
+     * takes the period prices before to, so only the window is read.
+     * @param prices
+     * @param period
+     * @param to exclusive end of the window
+     * @return the sma as OptionalDouble
+     */
+    public static OptionalDouble smaWithPeriodValues(double[] prices, int period, int to) {
+        if(to < period) return OptionalDouble.empty();
+        return OptionalDouble.of(mean(prices, to - period, to));
+    }
+
+    /**
+     * See {@link #smaWithPeriodValues(List, int) smaWithPeriodValues},
+     * reads the latest period values straight from the ring.
+     * @param prices
+     * @param period
+     * @return the sma as OptionalDouble
+     */
+    public static OptionalDouble smaWithPeriodValues(DoubleRing prices, int period) {
         if(prices.size() < period) return OptionalDouble.empty();
-        return IntStream.range(prices.size() - period, prices.size())
-                .mapToDouble((i) -> prices.get(i).doubleValue())
-                .average();
+        return OptionalDouble.of(mean(prices, prices.size() - period, prices.size()));
     }
 
     /**
@@ -35,11 +69,19 @@ public class IndicatorUtils {
      * @return The sma as OptionalDouble
      */
     public static <T extends Number> OptionalDouble sma(List<T> prices, int period) {
-        if(prices.size() < period) return OptionalDouble.empty();
-        return IntStream.rangeClosed(0, prices.size() - period)
-                .mapToDouble(i -> prices.subList(i, i + period).stream()
-                        .mapToDouble(Number::doubleValue).average().orElse(0.0))
-                .average();
+        return sma(toArray(prices), period);
+    }
+
+    /**
+     * See {@link #sma(List, int) sma}.
+     * @param prices
+     * @param period
+     * @return The sma as OptionalDouble
+     */
+    public static OptionalDouble sma(double[] prices, int period) {
+        if(prices.length < period) return OptionalDouble.empty();
+        double[] smaValues = smaList(prices, period);
+        return OptionalDouble.of(mean(smaValues, 0, smaValues.length));
     }
 
     /**
@@ -50,10 +92,34 @@ public class IndicatorUtils {
      */
     public static <T extends Number> List<Double> smaList(List<T> prices, int period) {
         if (prices.size() < period) return Collections.emptyList();
-        return IntStream.rangeClosed(0, prices.size() - period)
-                .mapToDouble(i -> prices.subList(i, i + period).stream().mapToDouble(Number::doubleValue).average().orElse(0.0))
-                .boxed()
-                .toList();
+        return toList(smaList(toArray(prices), period));
+    }
+
+    /**
+     * See {@link #smaList(List, int) smaList}.
+     * Uses a rolling sum, so it is linear in prices.length.
+     * @param prices
+     * @param period
+     * @return The sma values, prices.length - period + 1 values
+     */
+    public static double[] smaList(double[] prices, int period) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("Sma", prices.length);
+        try {
+            if (prices.length < period) return new double[0];
+            double[] smaValues = new double[prices.length - period + 1];
+            smaList(Columns.of(prices), prices.length, period, Columns.into(smaValues));
+            return smaValues;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    private static void smaList(Columns.Reader prices, int length, int period, Columns.Writer smaValues) {
+        RollingStatistics window = new RollingStatistics(period);
+        for(int i = 0; i < length; i++) {
+            window.add(prices.get(i));
+            if(i >= period - 1) smaValues.set(i - period + 1, window.mean());
+        }
     }
 
     /**
@@ -64,19 +130,121 @@ public class IndicatorUtils {
      * @return The ema values as list
      */
     public static <T extends Number> List<Double> ema(List<T> prices, int period) {
-        if(prices.size() < period) return new ArrayList<>();
+        return toList(ema(toArray(prices), period));
+    }
+
+    /**
+     * See {@link #ema(List, int) ema}.
+     * @param prices
+     * @param period
+     * @return The ema values, prices.length - period + 1 values
+     */
+    public static double[] ema(double[] prices, int period) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("Ema", prices.length);
+        try {
+            if(prices.length < period) return new double[0];
+
+            double[] emaValues = new double[prices.length - period + 1];
+            ema(Columns.of(prices), prices.length, period, Columns.into(emaValues));
+            return emaValues;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
 
-        List<Double> emaValues = new ArrayList<>();
-        double ema = sma(prices.subList(0, period), period).orElse(0.0);
-        emaValues.add(ema);
+    private static void ema(Columns.Reader prices, int length, int period, Columns.Writer emaValues) {
+        double ema = mean(prices, 0, period);
+        emaValues.set(0, ema);
         double multiplier = 2.0 / (period + 1);
 
-        for(int i = period; i < prices.size(); i++) {
-            ema = (prices.get(i).doubleValue() - ema) * multiplier + ema;
-            emaValues.add(ema);
+        for(int i = period; i < length; i++) {
+            ema = (prices.get(i) - ema) * multiplier + ema;
+            emaValues.set(i - period + 1, ema);
         }
+    }
 
-        return emaValues;
+    /**
+     * Calculates only the latest {@link #ema(double[], int) ema} from the last lookback prices,
+     * so the cost does not depend on the length of the history and nothing is allocated.
+     * The ema is seeded with the sma of the first period prices of the tail instead of the
+     * first period prices of the series. Both seeds lie within the prices, the difference
+     * shrinks by 1 - 2 / (period + 1) per price after the seed:
+     * |latestEma - ema| &lt;= (1 - 2 / (period + 1))^(lookback - period) * (max(prices) - min(prices)).
+     * With a lookback from {@link Lookback#ema(int, double) Lookback.ema(period, tolerance)}
+     * the error is at most tolerance times the price range, with lookback &gt;= prices.length
+     * the value is the same as the last ema.
+     * @param prices
+     * @param period
+     * @param lookback Number of latest prices to read, at least period
+     * @return The latest ema, NaN if there are less than period prices
+     */
+    public static double latestEma(double[] prices, int period, int lookback) {
+        return latestEma(prices, period, lookback, prices.length);
+    }
+
+    /**
+     * See {@link #latestEma(double[], int, int) latestEma}, the ema at prices[to - 1].
+     * Only the lookback prices before to are read.
+     * @param prices
+     * @param period
+     * @param lookback Number of prices before to to read, at least period
+     * @param to exclusive end of the tail
+     * @return The ema at prices[to - 1], NaN if there are less than period prices before to
+     */
+    public static double latestEma(double[] prices, int period, int lookback, int to) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("Ema", to);
+        try {
+            int from = Math.max(0, to - Math.max(lookback, period));
+            if (to - from < period) return Double.NaN;
+
+            double ema = mean(prices, from, from + period);
+            double multiplier = 2.0 / (period + 1);
+            for (int i = from + period; i < to; i++) {
+                ema = (prices[i] - ema) * multiplier + ema;
+            }
+            return ema;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * See {@link #smaList(double[], int) smaList}, for float prices.
+     * Accumulates in double, the values are the double values rounded to float.
+     * @param prices
+     * @param period
+     * @return The sma values, prices.length - period + 1 values
+     */
+    public static float[] smaList(float[] prices, int period) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("Sma", prices.length);
+        try {
+            if (prices.length < period) return new float[0];
+            float[] smaValues = new float[prices.length - period + 1];
+            smaList(Columns.of(prices), prices.length, period, Columns.into(smaValues));
+            return smaValues;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * See {@link #ema(double[], int) ema}, for float prices.
+     * Accumulates in double, the values are the double values rounded to float.
+     * @param prices
+     * @param period
+     * @return The ema values, prices.length - period + 1 values
+     */
+    public static float[] ema(float[] prices, int period) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("Ema", prices.length);
+        try {
+            if(prices.length < period) return new float[0];
+
+            float[] emaValues = new float[prices.length - period + 1];
+            ema(Columns.of(prices), prices.length, period, Columns.into(emaValues));
+            return emaValues;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
     }
 
     /**
@@ -87,19 +255,34 @@ public class IndicatorUtils {
      * @return The ema values as list
      */
     public static <T extends Number> List<Double> emaWithFirstPriceAsInitial(List<T> prices, int period) {
-        if(prices.size() < period) return new ArrayList<>();
+        return toList(emaWithFirstPriceAsInitial(toArray(prices), period));
+    }
 
-        List<Double> emaValues = new ArrayList<>();
-        double ema = prices.get(0).doubleValue();
-        emaValues.add(ema);
-        double multiplier = 2.0 / (period + 1);
+    /**
+     * See {@link #emaWithFirstPriceAsInitial(List, int) emaWithFirstPriceAsInitial}.
+     * @param prices
+     * @param period
+     * @return The ema values, prices.length - period + 1 values
+     */
+    public static double[] emaWithFirstPriceAsInitial(double[] prices, int period) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("Ema", prices.length);
+        try {
+            if(prices.length < period) return new double[0];
 
-        for(int i = period; i < prices.size(); i++) {
-            ema = (prices.get(i).doubleValue() - ema) * multiplier + ema;
-            emaValues.add(ema);
-        }
+            double[] emaValues = new double[prices.length - period + 1];
+            double ema = prices[0];
+            emaValues[0] = ema;
+            double multiplier = 2.0 / (period + 1);
+
+            for(int i = period; i < prices.length; i++) {
+                ema = (prices[i] - ema) * multiplier + ema;
+                emaValues[i - period + 1] = ema;
+            }
 
-        return emaValues;
+            return emaValues;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
     }
 
     /**
@@ -109,19 +292,179 @@ public class IndicatorUtils {
      * @return The standard deviation as OptionalDouble
      */
     public static OptionalDouble standardDeviation(List<Double> prices, int period) {
+        return standardDeviation(toArray(prices), period);
+    }
+
+    /**
+     * See {@link #standardDeviation(List, int) standardDeviation}.
+     * @param prices
+     * @param period
+     * @return The standard deviation as OptionalDouble
+     */
+    public static OptionalDouble standardDeviation(double[] prices, int period) {
+        return standardDeviation(prices, period, prices.length);
+    }
+
+    /**
+     * See {@link #standardDeviation(List, int) standardDeviation},
+     * takes the period prices before to, so only the window is read.
+     * @param prices
+     * @param period
+     * @param to exclusive end of the window
+     * @return The standard deviation as OptionalDouble
+     */
+    public static OptionalDouble standardDeviation(double[] prices, int period, int to) {
+        if (to < period) return OptionalDouble.empty();
+
+        int from = to - period;
+        double mean = mean(prices, from, to);
+        CompensatedSum squares = new CompensatedSum();
+        for(int i = from; i < to; i++) {
+            double diff = prices[i] - mean;
+            squares.add(diff * diff);
+        }
+
+        return OptionalDouble.of(Math.sqrt(squares.sum() / period));
+    }
+
+    /**
+     * See {@link #standardDeviation(List, int) standardDeviation},
+     * reads the latest period values straight from the ring.
+     * @param prices
+     * @param period
+     * @return The standard deviation as OptionalDouble
+     */
+    public static OptionalDouble standardDeviation(DoubleRing prices, int period) {
         if (prices.size() < period) return OptionalDouble.empty();
 
-        List<Double> subPrices = prices.subList(prices.size() - period, prices.size());
-        double mean = subPrices.stream().mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(0.0);
+        int from = prices.size() - period;
+        double mean = mean(prices, from, prices.size());
+        CompensatedSum squares = new CompensatedSum();
+        for(int i = from; i < prices.size(); i++) {
+            double diff = prices.get(i) - mean;
+            squares.add(diff * diff);
+        }
+
+        return OptionalDouble.of(Math.sqrt(squares.sum() / period));
+    }
+
+    /**
+     * Calculates the standard deviation of every window of period prices,
+     * the values line up with {@link #smaList(double[], int) smaList}.
+     * @param prices
+     * @param period
+     * @return The standard deviations, prices.length - period + 1 values
+     */
+    public static double[] rollingStandardDeviation(double[] prices, int period) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("StandardDeviation", prices.length);
+        try {
+            if (prices.length < period) return new double[0];
+            double[] deviations = new double[prices.length - period + 1];
+            rollingStandardDeviation(Columns.of(prices), prices.length, period, Columns.into(deviations));
+            return deviations;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * See {@link #rollingStandardDeviation(double[], int) rollingStandardDeviation}, for float prices.
+     * Accumulates in double, the values are the double values rounded to float.
+     * @param prices
+     * @param period
+     * @return The standard deviations, prices.length - period + 1 values
+     */
+    public static float[] rollingStandardDeviation(float[] prices, int period) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("StandardDeviation", prices.length);
+        try {
+            if (prices.length < period) return new float[0];
+            float[] deviations = new float[prices.length - period + 1];
+            rollingStandardDeviation(Columns.of(prices), prices.length, period, Columns.into(deviations));
+            return deviations;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    private static void rollingStandardDeviation(Columns.Reader prices, int length, int period, Columns.Writer deviations) {
+        RollingStatistics window = new RollingStatistics(period);
+        for(int i = 0; i < length; i++) {
+            window.add(prices.get(i));
+            if(i >= period - 1) deviations.set(i - period + 1, window.standardDeviation());
+        }
+    }
 
-        double variance = subPrices.stream()
-                .mapToDouble(price -> Math.pow(price - mean, 2))
-                .average()
-                .orElse(0.0);
+    /**
+     * Calculates the mean of values[from] to values[to - 1] with
+     * compensated (Kahan) summation, the same way DoubleStream.average does.
+     * @param values
+     * @param from inclusive
+     * @param to exclusive
+     * @return The mean
+     */
+    static double mean(double[] values, int from, int to) {
+        return mean(Columns.of(values), from, to);
+    }
 
-        return OptionalDouble.of(Math.sqrt(variance));
+    /**
+     * See {@link #mean(double[], int, int) mean}, for double and float columns.
+     */
+    static double mean(Columns.Reader values, int from, int to) {
+        CompensatedSum sum = new CompensatedSum();
+        for(int i = from; i < to; i++) {
+            sum.add(values.get(i));
+        }
+        return sum.sum() / (to - from);
+    }
+
+    /**
+     * See {@link #mean(double[], int, int) mean}.
+     */
+    static double mean(DoubleRing values, int from, int to) {
+        CompensatedSum sum = new CompensatedSum();
+        for(int i = from; i < to; i++) {
+            sum.add(values.get(i));
+        }
+        return sum.sum() / (to - from);
+    }
+
+    /**
+     * Copies the values into a primitive array.
+     * @param values
+     * @return The values as double[]
+     */
+    public static double[] toArray(List<? extends Number> values) {
+        double[] array = new double[values.size()];
+        for(int i = 0; i < array.length; i++) {
+            array[i] = values.get(i).doubleValue();
+        }
+        return array;
+    }
+
+    /**
+     * Copies the values into a primitive array.
+     * @param values
+     * @return The values as long[]
+     */
+    public static long[] toLongArray(List<? extends Number> values) {
+        long[] array = new long[values.size()];
+        for(int i = 0; i < array.length; i++) {
+            array[i] = values.get(i).longValue();
+        }
+        return array;
+    }
+
+    /**
+     * Boxes the values into a modifiable list.
+     * @param values
+     * @return The values as List
+     */
+    public static List<Double> toList(double[] values) {
+        List<Double> list = new ArrayList<>(values.length);
+        for(double value : values) {
+            list.add(value);
+        }
+        return list;
     }
 
 }
@@ -0,0 +1,62 @@
+package org.indic.indicators;
+
+/**
+ * Sizes the tail of a series the latest value methods read, e.g.
+ * {@link IndicatorUtils#latestEma(double[], int, int) latestEma}. A recursive smoother started
+ * on a tail forgets the difference to the full history by the decay factor per bar:
+ * 1 - 2 / (period + 1) for emas and 1 - 1 / period for wilder averages. After the seed window
+ * the remaining difference is at most decay^k times the range of the smoothed values, so
+ * the lookbacks are the seed window plus the smallest k with decay^k &lt;= tolerance.
+ * The exact bounds are documented at the latest value methods.
+ */
+public final class Lookback {
+
+    private Lookback() {
+    }
+
+    /**
+     * @param period
+     * @param tolerance Remaining share of the seed difference, between 0 and 1 (exclusive)
+     * @return The number of prices for {@link IndicatorUtils#latestEma(double[], int, int) latestEma}
+     */
+    public static int ema(int period, double tolerance) {
+        return period + steps(1 - 2.0 / (period + 1), tolerance);
+    }
+
+    /**
+     * @param period
+     * @param tolerance Remaining share of the seed difference, between 0 and 1 (exclusive)
+     * @return The number of bars for {@link AverageTrueRange#latestAtr(int, org.indic.records.BarSeries, int) latestAtr}
+     */
+    public static int atr(int period, double tolerance) {
+        return period + steps(1 - 1.0 / period, tolerance);
+    }
+
+    /**
+     * One more close than {@link #atr(int, double) atr}, the first close only gives the first difference.
+     * @param period
+     * @param tolerance Remaining share of the seed difference, between 0 and 1 (exclusive)
+     * @return The number of closes for {@link RelativeStrengthIndex#latest(int, double[], RelativeStrengthIndex.Smoothing, int) latest}
+     */
+    public static int rsi(int period, double tolerance) {
+        return atr(period, tolerance) + 1;
+    }
+
+    /**
+     * The long ema has to converge before the signal ema is started on the line.
+     * @param shortPeriod
+     * @param longPeriod
+     * @param signalPeriod
+     * @param tolerance Remaining share of the seed difference, between 0 and 1 (exclusive)
+     * @return The number of prices for {@link Macd#latest(int, int, int, double[], int, double[]) latest}
+     */
+    public static int macd(int shortPeriod, int longPeriod, int signalPeriod, double tolerance) {
+        return ema(Math.max(shortPeriod, longPeriod), tolerance) + ema(signalPeriod, tolerance);
+    }
+
+    private static int steps(double decay, double tolerance) {
+        if (!(tolerance > 0 && tolerance < 1)) throw new IllegalArgumentException("tolerance must be between 0 and 1");
+        if (decay <= 0) return 0;
+        return (int) Math.ceil(Math.log(tolerance) / Math.log(decay));
+    }
+}
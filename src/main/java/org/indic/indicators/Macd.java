@@ -1,12 +1,30 @@
 package org.indic.indicators;
 
+import org.indic.metrics.IndicatorMetrics;
 import org.indic.records.MacdResult;
+import org.indic.records.MacdSeries;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class Macd extends IndicatorUtils {
 
+    /**
+     * How the values before both emas are ready are filled.
+     */
+    public enum Padding {
+        /**
+         * The line starts once the long ema is ready, the first
+         * signalPeriod - 1 signal and histogram values are NaN.
+         */
+        NONE,
+        /**
+         * The line starts once the short ema is ready, the missing long ema values
+         * are filled with the {@link IndicatorUtils#sma(double[], int) sma} of the prices
+         * and the missing signal values with the sma of the line.
+         */
+        SMA
+    }
+
     /**
      * Calculates the moving average convergence/divergence Line.
      * If shortEma.size() > longEma.size(), fills up the
@@ -18,20 +36,19 @@ public class Macd extends IndicatorUtils {
      * @return The Macd Line
      */
     public static List<Double> calculateLine(int shortPeriod, int longPeriod, List<Double> prices) {
-        List<Double> shortEma = IndicatorUtils.ema(prices, shortPeriod);
-        List<Double> longEma = IndicatorUtils.ema(prices, longPeriod);
-
-        // fill missing values
-        double longSma = IndicatorUtils.sma(prices, longPeriod).orElse(longEma.getFirst());
-        while(shortEma.size() > longEma.size()) {
-            longEma.add(0, longSma);
-        }
-
-        List<Double> macdLine = new ArrayList<>();
-        for(int i = 0; i < shortEma.size(); i++) {
-            macdLine.add(shortEma.get(i) - longEma.get(i));
-        }
+        return IndicatorUtils.toList(calculateLine(shortPeriod, longPeriod, IndicatorUtils.toArray(prices)));
+    }
 
+    /**
+     * See {@link #calculateLine(int, int, List) calculateLine}.
+     * @param shortPeriod
+     * @param longPeriod
+     * @param prices
+     * @return The Macd Line
+     */
+    public static double[] calculateLine(int shortPeriod, int longPeriod, double[] prices) {
+        double[] macdLine = new double[length(shortPeriod, longPeriod, prices.length, Padding.SMA)];
+        calculate(shortPeriod, longPeriod, 1, prices, Padding.SMA, macdLine, null, null);
         return macdLine;
     }
 
@@ -46,15 +63,19 @@ public class Macd extends IndicatorUtils {
      * @return The Signal Line
      */
     public static List<Double> calculateSignal(int shortPeriod, int longPeriod, int signalPeriod, List<Double> prices) {
-        List<Double> macdLine = calculateLine(shortPeriod, longPeriod, prices);
-        List<Double> signalLine = IndicatorUtils.ema(macdLine, signalPeriod);
-
-        double signalSma = IndicatorUtils.sma(macdLine, signalPeriod).orElse(signalLine.getFirst());
-        while(signalLine.size() < macdLine.size()) {
-            signalLine.add(0, signalSma);
-        }
+        return IndicatorUtils.toList(calculateSignal(shortPeriod, longPeriod, signalPeriod, IndicatorUtils.toArray(prices)));
+    }
 
-        return signalLine;
+    /**
+     * See {@link #calculateSignal(int, int, int, List) calculateSignal}.
+     * @param shortPeriod
+     * @param longPeriod
+     * @param signalPeriod
+     * @param prices
+     * @return The Signal Line
+     */
+    public static double[] calculateSignal(int shortPeriod, int longPeriod, int signalPeriod, double[] prices) {
+        return calculateResult(shortPeriod, longPeriod, signalPeriod, prices).signal();
     }
 
     /**
@@ -66,21 +87,19 @@ public class Macd extends IndicatorUtils {
      * @return The Macd Histogram
      */
     public static List<Double> calculateHistogram(int shortPeriod, int longPeriod, int signalPeriod, List<Double> prices) {
-        List<Double> macdLine = calculateLine(shortPeriod, longPeriod, prices);
-        List<Double> signalLine = IndicatorUtils.ema(macdLine, signalPeriod);
-
-        double signalSma = IndicatorUtils.sma(macdLine, signalPeriod).orElse(signalLine.getFirst());
-        while(signalLine.size() < macdLine.size()) {
-            signalLine.add(0, signalSma);
-        }
-
-        List<Double> histogram = new ArrayList<>();
-
-        for(int i = 0; i < macdLine.size(); i++) {
-            histogram.add(macdLine.get(i) - signalLine.get(i));
-        }
+        return IndicatorUtils.toList(calculateHistogram(shortPeriod, longPeriod, signalPeriod, IndicatorUtils.toArray(prices)));
+    }
 
-        return histogram;
+    /**
+     * See {@link #calculateHistogram(int, int, int, List) calculateHistogram}.
+     * @param shortPeriod
+     * @param longPeriod
+     * @param signalPeriod
+     * @param prices
+     * @return The Macd Histogram
+     */
+    public static double[] calculateHistogram(int shortPeriod, int longPeriod, int signalPeriod, double[] prices) {
+        return calculateResult(shortPeriod, longPeriod, signalPeriod, prices).histogram();
     }
 
     /**
@@ -92,23 +111,306 @@ public class Macd extends IndicatorUtils {
      * @param longPeriod
      * @param signalPeriod
      * @param prices
+     * The lists are read only views, the histogram is calculated on access.
      * @return The Macd Line, Signal and Histogram as MacdResult.
      */
     public static MacdResult calculateResult(int shortPeriod, int longPeriod, int signalPeriod, List<Double> prices) {
-        List<Double> macdLine = calculateLine(shortPeriod, longPeriod, prices);
-        List<Double> signalLine = IndicatorUtils.ema(macdLine, signalPeriod);
-        List<Double> histogram = new ArrayList<>();
+        MacdSeries res = calculateResult(shortPeriod, longPeriod, signalPeriod, IndicatorUtils.toArray(prices));
+        return new MacdResult(DoubleListView.of(res.line()), DoubleListView.of(res.signal()), DoubleListView.of(res.size(), res::histogram));
+    }
 
-        double signalSma = IndicatorUtils.sma(macdLine, signalPeriod).orElse(signalLine.getFirst());
-        while(signalLine.size() < macdLine.size()) {
-            signalLine.add(0, signalSma);
+    /**
+     * See {@link #calculateResult(int, int, int, List) calculateResult}.
+     * @param shortPeriod
+     * @param longPeriod
+     * @param signalPeriod
+     * @param prices
+     * @return The Macd Line, Signal and Histogram as MacdSeries.
+     */
+    public static MacdSeries calculateResult(int shortPeriod, int longPeriod, int signalPeriod, double[] prices) {
+        return calculateResult(shortPeriod, longPeriod, signalPeriod, prices, Padding.SMA);
+    }
+
+    /**
+     * See {@link #calculate(int, int, int, double[], Padding, double[], double[], double[]) calculate}.
+     * @param shortPeriod
+     * @param longPeriod
+     * @param signalPeriod
+     * @param prices
+     * @param padding How missing values are filled
+     * @return The Macd Line, Signal and Histogram as MacdSeries.
+     */
+    public static MacdSeries calculateResult(int shortPeriod, int longPeriod, int signalPeriod, double[] prices, Padding padding) {
+        int size = length(shortPeriod, longPeriod, prices.length, padding);
+        double[] line = new double[size];
+        double[] signal = new double[size];
+        calculate(shortPeriod, longPeriod, signalPeriod, prices, padding, line, signal, null);
+        return new MacdSeries(line, signal);
+    }
+
+    /**
+     * Builds the padded Macd from already calculated emas, see
+     * {@link #calculateResult(int, int, int, List) calculateResult}.
+     * Gives the same result when the emas and sma come from
+     * {@link IndicatorUtils#ema(double[], int) ema} and
+     * {@link IndicatorUtils#sma(double[], int) sma} of the same prices.
+     * @param shortEma The short ema values
+     * @param longEma The long ema values
+     * @param longSma The sma of the prices over the long period
+     * @param signalPeriod
+     * @return The Macd Line, Signal and Histogram as MacdSeries.
+     */
+    public static MacdSeries fromEmas(double[] shortEma, double[] longEma, double longSma, int signalPeriod) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("Macd", shortEma.length);
+        try {
+            if (shortEma.length < longEma.length) throw new IllegalArgumentException("shortEma must not be shorter than longEma");
+            if (longEma.length == 0) return new MacdSeries(new double[0], new double[0]);
+
+            int missing = shortEma.length - longEma.length;
+            double[] line = new double[shortEma.length];
+            for (int i = 0; i < line.length; i++) {
+                line[i] = shortEma[i] - (i < missing ? longSma : longEma[i - missing]);
+            }
+
+            double[] signal = new double[line.length];
+            double[] signalEma = IndicatorUtils.ema(line, signalPeriod);
+            double signalSma = IndicatorUtils.sma(line, signalPeriod).orElse(Double.NaN);
+            int missingSignal = line.length - signalEma.length;
+            for (int i = 0; i < line.length; i++) {
+                signal[i] = signalEma.length == 0 || i < missingSignal ? signalSma : signalEma[i - missingSignal];
+            }
+            return new MacdSeries(line, signal);
+        } finally {
+            IndicatorMetrics.end(probe);
         }
+    }
 
-        for(int i = 0; i < macdLine.size(); i++) {
-            histogram.add(macdLine.get(i) - signalLine.get(i));
+    /**
+     * Number of values {@link #calculate(int, int, int, double[], Padding, double[], double[], double[]) calculate}
+     * writes for the given number of prices.
+     * @param shortPeriod
+     * @param longPeriod
+     * @param priceCount
+     * @param padding
+     * @return The number of line, signal and histogram values
+     */
+    public static int length(int shortPeriod, int longPeriod, int priceCount, Padding padding) {
+        if (priceCount < longPeriod) return 0;
+        return priceCount - (padding == Padding.SMA ? shortPeriod : longPeriod) + 1;
+    }
+
+    /**
+     * Calculates line, signal and histogram in a single pass over the prices
+     * into the given buffers. Both emas, the signal ema and the histogram
+     * are updated together for every price, apart from the signalPeriod window
+     * for {@link Padding#SMA} nothing else is allocated.
+     * With {@link Padding#SMA} the result is the same as
+     * {@link #calculateResult(int, int, int, List) calculateResult}, which needs one
+     * extra pass over the prices for the long sma.
+     * @param shortPeriod Must not be greater than longPeriod
+     * @param longPeriod
+     * @param signalPeriod
+     * @param prices
+     * @param padding How missing values are filled
+     * @param line Receives the line, at least {@link #length(int, int, int, Padding) length} values
+     * @param signal Receives the signal, may be null to skip signal and histogram
+     * @param histogram Receives the histogram, may be null
+     * @return The number of values written
+     */
+    public static int calculate(int shortPeriod, int longPeriod, int signalPeriod, double[] prices, Padding padding,
+                                double[] line, double[] signal, double[] histogram) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("Macd", prices.length);
+        try {
+            if (shortPeriod > longPeriod) throw new IllegalArgumentException("shortPeriod must not be greater than longPeriod");
+            int size = length(shortPeriod, longPeriod, prices.length, padding);
+            if (size == 0) return 0;
+            if (line.length < size || (signal != null && signal.length < size) || (histogram != null && histogram.length < size)) {
+                throw new IllegalArgumentException("Buffers must hold at least " + size + " values");
+            }
+            fused(shortPeriod, longPeriod, signalPeriod, Columns.of(prices), prices.length, size, padding,
+                    Columns.into(line), Columns.into(signal), Columns.into(histogram));
+            return size;
+        } finally {
+            IndicatorMetrics.end(probe);
         }
+    }
+
+    /**
+     * Calculates only the latest line, signal and histogram from the last lookback prices,
+     * so the cost does not depend on the length of the history and nothing is allocated.
+     * The tail is calculated like {@link Padding#NONE}: both emas are seeded with the sma of
+     * their first prices of the tail, the signal with the sma of the first signalPeriod line values.
+     * All values of the full and the tail calculation lie within the price range r, the differences
+     * shrink by the ema decay per price. With a lookback from
+     * {@link Lookback#macd(int, int, int, double) Lookback.macd(shortPeriod, longPeriod, signalPeriod, tolerance)}
+     * the line is within 2 * tolerance * r of the full result, the signal within 6 * tolerance * r
+     * and the histogram within 8 * tolerance * r, for both paddings.
+     * With lookback &gt;= prices.length the values are the same as the last values of
+     * {@link #calculate(int, int, int, double[], Padding, double[], double[], double[]) calculate}
+     * with {@link Padding#NONE}.
+     * @param shortPeriod Must not be greater than longPeriod
+     * @param longPeriod
+     * @param signalPeriod
+     * @param prices
+     * @param lookback Number of latest prices to read, at least longPeriod + signalPeriod - 1
+     * @param macd Receives line, signal and histogram
+     * @return false if there are less than longPeriod + signalPeriod - 1 prices
+     */
+    public static boolean latest(int shortPeriod, int longPeriod, int signalPeriod, double[] prices, int lookback, double[] macd) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("Macd", prices.length);
+        try {
+            if (shortPeriod > longPeriod) throw new IllegalArgumentException("shortPeriod must not be greater than longPeriod");
+            int minimum = longPeriod + signalPeriod - 1;
+            int from = Math.max(0, prices.length - Math.max(lookback, minimum));
+            if (prices.length - from < minimum) return false;
+
+            double shortMultiplier = 2.0 / (shortPeriod + 1);
+            double longMultiplier = 2.0 / (longPeriod + 1);
+            double signalMultiplier = 2.0 / (signalPeriod + 1);
+            double shortEma = mean(prices, from, from + shortPeriod);
+            for (int t = from + shortPeriod; t < from + longPeriod; t++) {
+                shortEma = (prices[t] - shortEma) * shortMultiplier + shortEma;
+            }
+            double longEma = mean(prices, from, from + longPeriod);
+
+            CompensatedSum signalInitial = new CompensatedSum();
+            double line = 0.0;
+            double signal = 0.0;
+            for (int t = from + longPeriod - 1; t < prices.length; t++) {
+                if (t >= from + longPeriod) {
+                    shortEma = (prices[t] - shortEma) * shortMultiplier + shortEma;
+                    longEma = (prices[t] - longEma) * longMultiplier + longEma;
+                }
+                line = shortEma - longEma;
+                int j = t - (from + longPeriod - 1);
+                if (j < signalPeriod) {
+                    signalInitial.add(line);
+                    if (j == signalPeriod - 1) signal = signalInitial.sum() / signalPeriod;
+                } else {
+                    signal = (line - signal) * signalMultiplier + signal;
+                }
+            }
 
-        return new MacdResult(macdLine, signalLine, histogram);
+            macd[0] = line;
+            macd[1] = signal;
+            macd[2] = line - signal;
+            return true;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
     }
-}
 
+    /**
+     * See {@link #calculate(int, int, int, double[], Padding, double[], double[], double[]) calculate},
+     * for float prices. Accumulates in double, the values are the double values rounded to float.
+     * @param shortPeriod Must not be greater than longPeriod
+     * @param longPeriod
+     * @param signalPeriod
+     * @param prices
+     * @param padding How missing values are filled
+     * @param line Receives the line, at least {@link #length(int, int, int, Padding) length} values
+     * @param signal Receives the signal, may be null to skip signal and histogram
+     * @param histogram Receives the histogram, may be null
+     * @return The number of values written
+     */
+    public static int calculate(int shortPeriod, int longPeriod, int signalPeriod, float[] prices, Padding padding,
+                                float[] line, float[] signal, float[] histogram) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("Macd", prices.length);
+        try {
+            if (shortPeriod > longPeriod) throw new IllegalArgumentException("shortPeriod must not be greater than longPeriod");
+            int size = length(shortPeriod, longPeriod, prices.length, padding);
+            if (size == 0) return 0;
+            if (line.length < size || (signal != null && signal.length < size) || (histogram != null && histogram.length < size)) {
+                throw new IllegalArgumentException("Buffers must hold at least " + size + " values");
+            }
+            fused(shortPeriod, longPeriod, signalPeriod, Columns.of(prices), prices.length, size, padding,
+                    Columns.into(line), Columns.into(signal), Columns.into(histogram));
+            return size;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * The fused single pass of both calculate methods, prices and buffers are read and written
+     * through {@link Columns}, so double and float prices share it.
+     */
+    private static void fused(int shortPeriod, int longPeriod, int signalPeriod, Columns.Reader prices, int length, int size,
+                              Padding padding, Columns.Writer line, Columns.Writer signal, Columns.Writer histogram) {
+        int start = length - size;
+        double longSma = padding == Padding.SMA ? averageOfSmas(prices, length, longPeriod) : Double.NaN;
+        double shortMultiplier = 2.0 / (shortPeriod + 1);
+        double longMultiplier = 2.0 / (longPeriod + 1);
+        double signalMultiplier = 2.0 / (signalPeriod + 1);
+
+        CompensatedSum shortInitial = new CompensatedSum();
+        CompensatedSum longInitial = new CompensatedSum();
+        CompensatedSum signalInitial = new CompensatedSum();
+        RollingStatistics signalWindow = padding == Padding.SMA && signal != null ? new RollingStatistics(signalPeriod) : null;
+        CompensatedSum signalSmas = new CompensatedSum();
+        // the first lines are kept in double until the missing signal values are known
+        double[] firstLines = new double[signal != null ? Math.min(signalPeriod - 1, size) : 0];
+        double shortEma = 0.0;
+        double longEma = 0.0;
+        double signalEma = 0.0;
+
+        for (int t = 0; t < length; t++) {
+            double price = prices.get(t);
+            if (t < shortPeriod) {
+                shortInitial.add(price);
+                if (t == shortPeriod - 1) shortEma = shortInitial.sum() / shortPeriod;
+            } else {
+                shortEma = (price - shortEma) * shortMultiplier + shortEma;
+            }
+            if (t < longPeriod) {
+                longInitial.add(price);
+                if (t == longPeriod - 1) longEma = longInitial.sum() / longPeriod;
+            } else {
+                longEma = (price - longEma) * longMultiplier + longEma;
+            }
+            if (t < start) continue;
+
+            int j = t - start;
+            double value = shortEma - (t < longPeriod - 1 ? longSma : longEma);
+            line.set(j, value);
+            if (j < firstLines.length) firstLines[j] = value;
+            if (signal == null) continue;
+
+            if (j < signalPeriod) {
+                signalInitial.add(value);
+                if (j == signalPeriod - 1) signalEma = signalInitial.sum() / signalPeriod;
+            } else {
+                signalEma = (value - signalEma) * signalMultiplier + signalEma;
+            }
+            if (j >= signalPeriod - 1) {
+                signal.set(j, signalEma);
+                if (histogram != null) histogram.set(j, value - signalEma);
+            }
+            if (signalWindow != null) {
+                signalWindow.add(value);
+                if (j >= signalPeriod - 1) signalSmas.add(signalWindow.mean());
+            }
+        }
+
+        if (signal != null) {
+            double missing = signalWindow != null && size >= signalPeriod ? signalSmas.sum() / (size - signalPeriod + 1) : Double.NaN;
+            for (int j = 0; j < firstLines.length; j++) {
+                signal.set(j, missing);
+                if (histogram != null) histogram.set(j, firstLines[j] - missing);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link IndicatorUtils#sma(double[], int) sma} without allocating the sma values.
+     */
+    private static double averageOfSmas(Columns.Reader prices, int length, int period) {
+        RollingStatistics window = new RollingStatistics(period);
+        CompensatedSum smas = new CompensatedSum();
+        for (int i = 0; i < length; i++) {
+            window.add(prices.get(i));
+            if (i >= period - 1) smas.add(window.mean());
+        }
+        return smas.sum() / (length - period + 1);
+    }
+}
@@ -1,5 +1,9 @@
 package org.indic.indicators;
 
+import org.indic.metrics.IndicatorMetrics;
+import org.indic.records.BarSeries;
+import org.indic.records.FloatBarSeries;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,22 +19,39 @@ public class OnBalanceVolume {
      */
     public static List<Double> calculate(int period, List<Double> closes, List<Integer> volumes) {
         if(closes.size() <= period) return new ArrayList<>();
+        return IndicatorUtils.toList(calculate(period, IndicatorUtils.toArray(closes), IndicatorUtils.toLongArray(volumes)));
+    }
+
+    /**
+     * See {@link #calculate(int, List, List) calculate}.
+     * @param closes - Closes with oldest (index 0)
+     * @param volumes - Volumes with oldest (index 0)
+     * @return obv values, period + 1 values starting with 0
+     */
+    public static double[] calculate(int period, double[] closes, long[] volumes) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("OnBalanceVolume", closes.length);
+        try {
+            if(closes.length <= period) return new double[0];
+
+            double[] obv = new double[period + 1];
+            int start = closes.length - period;
 
-        List<Double> obv = new ArrayList<>();
-        obv.add(0.0);
-
-        for(int i = closes.size() - period; i < closes.size(); i++) {
-            double diff = closes.get(i) - (i <= 0 ? 0.0 : closes.get(i - 1));
-            if(diff > 0) {
-                obv.add(obv.get(obv.size() - 1) + volumes.get(i));
-            } else if(diff < 0) {
-                obv.add(obv.get(obv.size() - 1) - volumes.get(i));
-            } else {
-                obv.add(obv.get(obv.size() - 1));
+            for(int i = start; i < closes.length; i++) {
+                double diff = closes[i] - (i <= 0 ? 0.0 : closes[i - 1]);
+                double previous = obv[i - start];
+                if(diff > 0) {
+                    obv[i - start + 1] = previous + volumes[i];
+                } else if(diff < 0) {
+                    obv[i - start + 1] = previous - volumes[i];
+                } else {
+                    obv[i - start + 1] = previous;
+                }
             }
-        }
 
-        return obv;
+            return obv;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
     }
 
     /**
@@ -41,21 +62,83 @@ public class OnBalanceVolume {
      * @return List with obv values
      */
     public static List<Integer> calculate(List<Double> closes, List<Integer> volumes) {
-        List<Integer> obv = new ArrayList<>();
-        obv.add(volumes.get(0));
-
-        for(int i = 1; i < closes.size(); i++) {
-            double diff = closes.get(i) - closes.get(i - 1);
-            if(diff > 0) {
-                obv.add(obv.get(obv.size() - 1) + volumes.get(i));
-            } else if(diff < 0) {
-                obv.add(obv.get(obv.size() - 1) - volumes.get(i));
-            } else {
-                obv.add(obv.get(obv.size() - 1));
-            }
+        long[] obv = calculate(IndicatorUtils.toArray(closes), IndicatorUtils.toLongArray(volumes));
+        List<Integer> result = new ArrayList<>(obv.length);
+        for(long value : obv) {
+            result.add((int) value);
+        }
+        return result;
+    }
+
+    /**
+     * See {@link #calculate(List, List) calculate}.
+     * @param closes - Closes with oldest (index 0)
+     * @param volumes - Volumes with oldest (index 0)
+     * @return obv values, one per close
+     */
+    public static long[] calculate(double[] closes, long[] volumes) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("OnBalanceVolume", closes.length);
+        try {
+            long[] obv = new long[closes.length];
+            accumulate(Columns.of(closes), volumes, closes.length, obv);
+            return obv;
+        } finally {
+            IndicatorMetrics.end(probe);
         }
+    }
+
+    /**
+     * See {@link #calculate(List, List) calculate}.
+     * @param series - Bars with oldest (index 0)
+     * @return obv values, one per bar
+     */
+    public static long[] calculate(BarSeries series) {
+        return calculate(series.close(), series.volume());
+    }
 
-        return obv;
+    /**
+     * See {@link #calculate(List, List) calculate}, for float closes.
+     * Closes that differ as doubles may be equal as floats, such bars add no volume.
+     * @param series - Bars with oldest (index 0)
+     * @return obv values, one per bar
+     */
+    public static long[] calculate(FloatBarSeries series) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("OnBalanceVolume", series.size());
+        try {
+            long[] obv = new long[series.size()];
+            accumulate(Columns.of(series.close()), series.volume(), series.size(), obv);
+            return obv;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
     }
 
+    /**
+     * Sums the {@link ElementWise#signedVolumes(double[], long[], long[]) signed volumes} of the bars
+     * into obv. The closes are copied block-wise into double scratch arrays for the kernel, every block
+     * starts with the close before it.
+     */
+    private static void accumulate(Columns.Reader closes, long[] volumes, int length, long[] obv) {
+        double[] closeBlock = new double[0];
+        long[] volumeBlock = new long[0];
+        long[] signed = new long[0];
+        long total = 0;
+        for (int from = 0; from < length; from += Columns.BLOCK) {
+            int to = Math.min(length, from + Columns.BLOCK);
+            int start = Math.max(0, from - 1);
+            int size = to - start;
+            if (closeBlock.length != size) {
+                closeBlock = new double[size];
+                volumeBlock = new long[size];
+                signed = new long[size];
+            }
+            closes.copyTo(start, to, closeBlock, 0);
+            System.arraycopy(volumes, start, volumeBlock, 0, size);
+            ElementWise.get().signedVolumes(closeBlock, volumeBlock, signed);
+            for (int i = from - start; i < size; i++) {
+                total += signed[i];
+                obv[start + i] = total;
+            }
+        }
+    }
 }
@@ -0,0 +1,225 @@
+package org.indic.indicators;
+
+import org.indic.records.BarSeries;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel versions of the recurrences that make the ema, the wilder atr and the obv sequential,
+ * for single series too long for one core, e.g. tick data with hundreds of millions of values.
+ * The ema and atr steps are affine, y[i] = a * y[i - 1] + b[i] with a constant a, so a block of
+ * values maps its start value y to a^length * y + z, where z is the block run from 0.
+ * The series is split into blocks, z is calculated for all blocks in parallel, the start values
+ * are carried over the blocks in order, then every block is run again in parallel with the same
+ * step as the sequential version from its start value.
+ * The obv is a prefix sum of longs and matches {@link OnBalanceVolume#calculate(BarSeries)} exactly.
+ * The ema and atr only differ from the sequential versions by rounding, both differ from the exact
+ * result by at most a few ulps of the largest input divided by 1 - a:
+ * |ema - {@link IndicatorUtils#ema(double[], int)}| &lt;= 4 * (period + 1) * ulp(1) * max(|prices|) and
+ * |atr - {@link AverageTrueRange#calculateAtr(int, BarSeries)}| &lt;= 8 * period * ulp(1) * max(true range).
+ * Series shorter than two blocks of {@value #MIN_BLOCK} values are calculated sequentially.
+ */
+public final class ParallelScan {
+
+    /**
+     * Smallest number of values a worker gets.
+     */
+    public static final int MIN_BLOCK = 1 << 16;
+
+    private ParallelScan() {
+    }
+
+    /**
+     * See {@link IndicatorUtils#ema(double[], int) ema}, uses the common pool.
+     * @param prices
+     * @param period
+     * @return The ema values, prices.length - period + 1 values
+     */
+    public static double[] ema(double[] prices, int period) {
+        return ema(prices, period, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * See {@link IndicatorUtils#ema(double[], int) ema}.
+     * @param prices
+     * @param period
+     * @param pool Runs the blocks
+     * @return The ema values, prices.length - period + 1 values
+     */
+    public static double[] ema(double[] prices, int period, ForkJoinPool pool) {
+        if (prices.length < period || blocks(prices.length - period, pool) < 2) return IndicatorUtils.ema(prices, period);
+
+        double[] ema = new double[prices.length - period + 1];
+        double multiplier = 2.0 / (period + 1);
+        ema[0] = IndicatorUtils.mean(prices, 0, period);
+        scan(pool, period, prices.length, ema[0], 1 - multiplier, new Recurrence() {
+            @Override
+            public double fromZero(int from, int to) {
+                double decay = 1 - multiplier;
+                double value = 0.0;
+                for (int i = from; i < to; i++) {
+                    value = decay * value + multiplier * prices[i];
+                }
+                return value;
+            }
+
+            @Override
+            public void run(int from, int to, double value) {
+                for (int i = from; i < to; i++) {
+                    value = (prices[i] - value) * multiplier + value;
+                    ema[i - period + 1] = value;
+                }
+            }
+        });
+        return ema;
+    }
+
+    /**
+     * See {@link AverageTrueRange#calculateAtr(int, BarSeries) calculateAtr}, uses the common pool.
+     * @param period
+     * @param series
+     * @return The Average True Range values, series.size() - period + 1 values
+     */
+    public static double[] atr(int period, BarSeries series) {
+        return atr(period, series, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * See {@link AverageTrueRange#calculateAtr(int, BarSeries) calculateAtr}, the true ranges are
+     * calculated in the blocks, so no true range array is allocated.
+     * @param period
+     * @param series
+     * @param pool Runs the blocks
+     * @return The Average True Range values, series.size() - period + 1 values
+     */
+    public static double[] atr(int period, BarSeries series, ForkJoinPool pool) {
+        int size = series.size();
+        if (size < period || blocks(size - period, pool) < 2) return AverageTrueRange.calculateAtr(period, series);
+
+        double[] closes = series.close();
+        double[] highs = series.high();
+        double[] lows = series.low();
+        double[] atr = new double[size - period + 1];
+        double initial = 0.0;
+        for (int i = 0; i < period; i++) {
+            initial += AverageTrueRange.trueRange(closes, highs, lows, i);
+        }
+        atr[0] = initial / period;
+
+        double decay = (period - 1) / (double) period;
+        scan(pool, period, size, atr[0], decay, new Recurrence() {
+            @Override
+            public double fromZero(int from, int to) {
+                double value = 0.0;
+                for (int i = from; i < to; i++) {
+                    value = decay * value + AverageTrueRange.trueRange(closes, highs, lows, i) / period;
+                }
+                return value;
+            }
+
+            @Override
+            public void run(int from, int to, double value) {
+                for (int i = from; i < to; i++) {
+                    value = ((value * (period - 1)) + AverageTrueRange.trueRange(closes, highs, lows, i)) / period;
+                    atr[i - period + 1] = value;
+                }
+            }
+        });
+        return atr;
+    }
+
+    /**
+     * See {@link OnBalanceVolume#calculate(BarSeries) calculate}, uses the common pool.
+     * @param series
+     * @return obv values, one per bar
+     */
+    public static long[] obv(BarSeries series) {
+        return obv(series.close(), series.volume(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * See {@link OnBalanceVolume#calculate(double[], long[]) calculate}, same values.
+     * @param closes
+     * @param volumes
+     * @param pool Runs the blocks
+     * @return obv values, one per close
+     */
+    public static long[] obv(double[] closes, long[] volumes, ForkJoinPool pool) {
+        int blocks = blocks(closes.length, pool);
+        if (blocks < 2) return OnBalanceVolume.calculate(closes, volumes);
+
+        long[] obv = new long[closes.length];
+        long[] sums = new long[blocks];
+        pool.submit(() -> IntStream.range(0, blocks - 1).parallel().forEach(k -> {
+            long sum = 0;
+            for (int i = bound(k, blocks, 0, closes.length); i < bound(k + 1, blocks, 0, closes.length); i++) {
+                sum += signedVolume(closes, volumes, i);
+            }
+            sums[k] = sum;
+        })).join();
+
+        long[] starts = new long[blocks];
+        for (int k = 1; k < blocks; k++) {
+            starts[k] = starts[k - 1] + sums[k - 1];
+        }
+
+        pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(k -> {
+            long value = starts[k];
+            for (int i = bound(k, blocks, 0, closes.length); i < bound(k + 1, blocks, 0, closes.length); i++) {
+                value += signedVolume(closes, volumes, i);
+                obv[i] = value;
+            }
+        })).join();
+        return obv;
+    }
+
+    private static long signedVolume(double[] closes, long[] volumes, int i) {
+        if (i == 0) return volumes[0];
+        double diff = closes[i] - closes[i - 1];
+        return diff > 0 ? volumes[i] : diff < 0 ? -volumes[i] : 0;
+    }
+
+    /**
+     * An affine step y[i] = decay * y[i - 1] + b[i].
+     */
+    private interface Recurrence {
+
+        /**
+         * @return y[to - 1] when starting with y[from - 1] = 0, calculated in the affine form
+         */
+        double fromZero(int from, int to);
+
+        /**
+         * Writes y[from] to y[to - 1] with the sequential step.
+         * @param value y[from - 1]
+         */
+        void run(int from, int to, double value);
+    }
+
+    private static void scan(ForkJoinPool pool, int from, int to, double seed, double decay, Recurrence recurrence) {
+        int blocks = blocks(to - from, pool);
+        double[] ends = new double[blocks];
+        pool.submit(() -> IntStream.range(0, blocks - 1).parallel()
+                .forEach(k -> ends[k] = recurrence.fromZero(bound(k, blocks, from, to), bound(k + 1, blocks, from, to)))).join();
+
+        double[] starts = new double[blocks];
+        double value = seed;
+        for (int k = 0; k < blocks; k++) {
+            starts[k] = value;
+            int length = bound(k + 1, blocks, from, to) - bound(k, blocks, from, to);
+            value = Math.pow(decay, length) * value + ends[k];
+        }
+
+        pool.submit(() -> IntStream.range(0, blocks).parallel()
+                .forEach(k -> recurrence.run(bound(k, blocks, from, to), bound(k + 1, blocks, from, to), starts[k]))).join();
+    }
+
+    private static int blocks(int length, ForkJoinPool pool) {
+        return Math.min(pool.getParallelism() * 4, length / MIN_BLOCK);
+    }
+
+    private static int bound(int block, int blocks, int from, int to) {
+        return from + (int) ((long) (to - from) * block / blocks);
+    }
+}
@@ -1,11 +1,26 @@
 package org.indic.indicators;
 
-import java.util.ArrayList;
+import org.indic.metrics.IndicatorMetrics;
+
 import java.util.List;
 
 public class RelativeStrengthIndex {
 
-    //TODO: Improve the method performance
+    /**
+     * How the average gains and losses are smoothed.
+     */
+    public enum Smoothing {
+        /**
+         * Averages over every close difference seen so far.
+         */
+        CUMULATIVE,
+        /**
+         * Starts with the average of the first period differences, then
+         * avg = (previousAvg * (period - 1) + current) / period.
+         */
+        WILDER
+    }
+
     /**
      * Calculates the Relative Strength Index.
      * Calculates the average loss and gain for the
@@ -14,51 +29,192 @@ public class RelativeStrengthIndex {
      * the other way around. After the initial period
      * calculates the averages, rs and rsi = 100 - (100 / (1 + rs)).
      * Calculation starts from closes[1] since we do closes[i] - closes[i -1].
+     * Uses {@link Smoothing#CUMULATIVE} averages.
      * @param period The index where to start calculating rsi values
      * @param closes The closes as List
      * @return The RS Indexes as List.
      */
     public static List<Double> calculate(int period, List<Double> closes) {
-        List<Double> rsi = new ArrayList<>();
-
-        double avgGains;
-        double avgLosses;
-
-        List<Double> gains = new ArrayList<>();
-        List<Double> losses = new ArrayList<>();
-
-        for (int i = 1; i < period; i++) {
-            double diff = closes.get(i) - closes.get(i - 1);
-            if (diff > 0) {
-                gains.add(diff);
-                losses.add(0.0);
-            } else {
-                losses.add(-diff);
-                gains.add(0.0);
+        return calculate(period, closes, Smoothing.CUMULATIVE);
+    }
+
+    /**
+     * See {@link #calculate(int, double[], Smoothing) calculate}.
+     * @param period The index where to start calculating rsi values
+     * @param closes The closes as List
+     * @param smoothing How gains and losses are averaged
+     * @return The RS Indexes as List.
+     */
+    public static List<Double> calculate(int period, List<Double> closes, Smoothing smoothing) {
+        return IndicatorUtils.toList(calculate(period, IndicatorUtils.toArray(closes), smoothing));
+    }
+
+    /**
+     * See {@link #calculate(int, List) calculate}.
+     * @param period The index where to start calculating rsi values
+     * @param closes The closes
+     * @return The RS Indexes, closes.length - period values
+     */
+    public static double[] calculate(int period, double[] closes) {
+        return calculate(period, closes, Smoothing.CUMULATIVE);
+    }
+
+    /**
+     * Calculates the Relative Strength Index in a single pass.
+     * The first rsi is calculated at closes[period] from the
+     * differences closes[1] - closes[0] to closes[period] - closes[period - 1],
+     * after that gains and losses are smoothed as given.
+     * Gains and losses are summed with Kahan compensation, so long cumulative
+     * averages do not pile up rounding errors.
+     * @param period The index where to start calculating rsi values
+     * @param closes The closes
+     * @param smoothing How gains and losses are averaged
+     * @return The RS Indexes, closes.length - period values
+     */
+    public static double[] calculate(int period, double[] closes, Smoothing smoothing) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("RelativeStrengthIndex", closes.length);
+        try {
+            if (closes.length <= period) return new double[0];
+
+            double[] rsi = new double[closes.length - period];
+            calculate(period, Columns.of(closes), closes.length, smoothing, Columns.into(rsi));
+            return rsi;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * See {@link #calculate(int, double[], Smoothing) calculate}, for float closes.
+     * Accumulates in double, the values are the double values rounded to float.
+     * @param period The index where to start calculating rsi values
+     * @param closes The closes
+     * @param smoothing How gains and losses are averaged
+     * @return The RS Indexes, closes.length - period values
+     */
+    public static float[] calculate(int period, float[] closes, Smoothing smoothing) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("RelativeStrengthIndex", closes.length);
+        try {
+            if (closes.length <= period) return new float[0];
+
+            float[] rsi = new float[closes.length - period];
+            calculate(period, Columns.of(closes), closes.length, smoothing, Columns.into(rsi));
+            return rsi;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    private static void calculate(int period, Columns.Reader closes, int length, Smoothing smoothing, Columns.Writer rsi) {
+        CompensatedSum gains = new CompensatedSum();
+        CompensatedSum losses = new CompensatedSum();
+        for (int i = 1; i <= period; i++) {
+            accumulate(closes.get(i) - closes.get(i - 1), gains, losses);
+        }
+
+        if (smoothing == Smoothing.WILDER) {
+            double avgGains = gains.sum() / period;
+            double avgLosses = losses.sum() / period;
+            rsi.set(0, rsi(avgGains, avgLosses));
+
+            for (int i = period + 1; i < length; i++) {
+                double diff = closes.get(i) - closes.get(i - 1);
+                avgGains = (avgGains * (period - 1) + (diff > 0 ? diff : 0.0)) / period;
+                avgLosses = (avgLosses * (period - 1) + (diff > 0 ? 0.0 : -diff)) / period;
+                rsi.set(i - period, rsi(avgGains, avgLosses));
             }
+            return;
+        }
+
+        rsi.set(0, rsi(gains.sum() / period, losses.sum() / period));
+        for (int i = period + 1; i < length; i++) {
+            accumulate(closes.get(i) - closes.get(i - 1), gains, losses);
+            rsi.set(i - period, rsi(gains.sum() / i, losses.sum() / i));
         }
+    }
+
+    /**
+     * Calculates only the latest {@link #calculate(int, double[], Smoothing) rsi}, no values are allocated.
+     * {@link Smoothing#WILDER} reads the last lookback closes, so the cost does not depend on the
+     * length of the history. The averages are seeded with the first period differences of the tail,
+     * both seeds lie within the differences and the difference shrinks by 1 - 1 / period per close:
+     * |avg - fullAvg| &lt;= d = (1 - 1 / period)^(lookback - 1 - period) * max(|closes[i] - closes[i - 1]|)
+     * for gains and losses, so |latest - rsi| &lt;= 100 * d / (avgGains + avgLosses) of the tail.
+     * With a lookback from {@link Lookback#rsi(int, double) Lookback.rsi(period, tolerance)}
+     * d is at most tolerance times the largest close difference.
+     * {@link Smoothing#CUMULATIVE} averages every difference, so it reads all closes and is exact.
+     * With lookback &gt;= closes.length the value is the same as the last rsi.
+     * @param period
+     * @param closes
+     * @param smoothing How gains and losses are averaged
+     * @param lookback Number of latest closes to read for {@link Smoothing#WILDER}, at least period + 1
+     * @return The latest rsi, NaN if there are not more than period closes
+     */
+    public static double latest(int period, double[] closes, Smoothing smoothing, int lookback) {
+        return latest(period, closes, smoothing, lookback, closes.length);
+    }
 
-        double rs;
+    /**
+     * See {@link #latest(int, double[], Smoothing, int) latest}, the rsi at closes[to - 1].
+     * {@link Smoothing#WILDER} only reads the lookback closes before to.
+     * @param period
+     * @param closes
+     * @param smoothing How gains and losses are averaged
+     * @param lookback Number of closes before to to read for {@link Smoothing#WILDER}, at least period + 1
+     * @param to exclusive end of the tail
+     * @return The rsi at closes[to - 1], NaN if there are not more than period closes before to
+     */
+    public static double latest(int period, double[] closes, Smoothing smoothing, int lookback, int to) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("RelativeStrengthIndex", to);
+        try {
+            int from = smoothing == Smoothing.WILDER ? Math.max(0, to - Math.max(lookback, period + 1)) : 0;
+            if (to - from <= period) return Double.NaN;
 
-        // Calculate RSI for the rest of the values
-        for (int i = period; i < closes.size(); i++) {
-            double diff = closes.get(i) - closes.get(i - 1);
+            CompensatedSum gains = new CompensatedSum();
+            CompensatedSum losses = new CompensatedSum();
+            for (int i = from + 1; i <= from + period; i++) {
+                accumulate(closes[i] - closes[i - 1], gains, losses);
+            }
 
-            if (diff > 0) {
-                gains.add(diff);
-                losses.add(0.0);
-            } else {
-                losses.add(-diff);
-                gains.add(0.0);
+            if (smoothing == Smoothing.WILDER) {
+                double avgGains = gains.sum() / period;
+                double avgLosses = losses.sum() / period;
+                for (int i = from + period + 1; i < to; i++) {
+                    double diff = closes[i] - closes[i - 1];
+                    avgGains = (avgGains * (period - 1) + (diff > 0 ? diff : 0.0)) / period;
+                    avgLosses = (avgLosses * (period - 1) + (diff > 0 ? 0.0 : -diff)) / period;
+                }
+                return rsi(avgGains, avgLosses);
             }
-            avgGains = gains.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-            avgLosses = losses.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
 
-            rs = avgGains / avgLosses;
-            rsi.add(100 - (100 / (1 + rs)));
+            for (int i = period + 1; i < to; i++) {
+                accumulate(closes[i] - closes[i - 1], gains, losses);
+            }
+            int count = Math.max(period, to - 1);
+            return rsi(gains.sum() / count, losses.sum() / count);
+        } finally {
+            IndicatorMetrics.end(probe);
         }
+    }
+
+    // gains and losses are summed with compensation like the DoubleStream averages of the list version
+    private static void accumulate(double diff, CompensatedSum gains, CompensatedSum losses) {
+        if (diff > 0) {
+            gains.add(diff);
+        } else {
+            losses.add(-diff);
+        }
+    }
 
-        return rsi;
+    /**
+     * Calculates rsi = 100 - (100 / (1 + rs)) with rs = avgGains / avgLosses.
+     * @param avgGains
+     * @param avgLosses
+     * @return The rsi
+     */
+    public static double rsi(double avgGains, double avgLosses) {
+        double rs = avgGains / avgLosses;
+        return 100 - (100 / (1 + rs));
     }
 
 }
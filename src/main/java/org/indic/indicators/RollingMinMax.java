@@ -0,0 +1,129 @@
+package org.indic.indicators;
+
+/**
+ * Minimum and maximum over the last period values in amortized O(1) per value.
+ * Keeps one monotonic deque for the lows and one for the highs, each entry
+ * is removed at most once. Can be used for channels (Donchian),
+ * Williams %R and the Stochastic Oscillator.
+ */
+public final class RollingMinMax {
+
+    private final int period;
+    private final double[] minValues;
+    private final long[] minIndices;
+    private final double[] maxValues;
+    private final long[] maxIndices;
+    private int minHead;
+    private int minSize;
+    private int maxHead;
+    private int maxSize;
+    private long count;
+
+    public RollingMinMax(int period) {
+        if (period <= 0) throw new IllegalArgumentException("period must be positive");
+        this.period = period;
+        this.minValues = new double[period];
+        this.minIndices = new long[period];
+        this.maxValues = new double[period];
+        this.maxIndices = new long[period];
+    }
+
+    /**
+     * Adds a value to both the min and max window.
+     * @param value
+     */
+    public void add(double value) {
+        add(value, value);
+    }
+
+    /**
+     * Adds a bar, the high goes into the max window and the low into the min window.
+     * @param high
+     * @param low
+     */
+    public void add(double high, double low) {
+        long index = count++;
+        long expired = index - period;
+
+        if (minSize > 0 && minIndices[minHead] <= expired) {
+            minHead = wrap(minHead + 1);
+            minSize--;
+        }
+        while (minSize > 0 && minValues[wrap(minHead + minSize - 1)] >= low) {
+            minSize--;
+        }
+        int minTail = wrap(minHead + minSize++);
+        minValues[minTail] = low;
+        minIndices[minTail] = index;
+
+        if (maxSize > 0 && maxIndices[maxHead] <= expired) {
+            maxHead = wrap(maxHead + 1);
+            maxSize--;
+        }
+        while (maxSize > 0 && maxValues[wrap(maxHead + maxSize - 1)] <= high) {
+            maxSize--;
+        }
+        int maxTail = wrap(maxHead + maxSize++);
+        maxValues[maxTail] = high;
+        maxIndices[maxTail] = index;
+    }
+
+    private int wrap(int index) {
+        return index >= period ? index - period : index;
+    }
+
+    /**
+     * @return The lowest value of the window
+     */
+    public double min() {
+        return minSize == 0 ? Double.NaN : minValues[minHead];
+    }
+
+    /**
+     * @return The highest value of the window
+     */
+    public double max() {
+        return maxSize == 0 ? Double.NaN : maxValues[maxHead];
+    }
+
+    /**
+     * @return True once period values were added
+     */
+    public boolean isFull() {
+        return count >= period;
+    }
+
+    /**
+     * Calculates the minimum of every window of period values.
+     * @param values
+     * @param period
+     * @return The minimums, values.length - period + 1 values
+     */
+    public static double[] rollingMin(double[] values, int period) {
+        if (values.length < period) return new double[0];
+        double[] result = new double[values.length - period + 1];
+        RollingMinMax window = new RollingMinMax(period);
+        for (int i = 0; i < values.length; i++) {
+            window.add(values[i]);
+            if (i >= period - 1) result[i - period + 1] = window.min();
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the maximum of every window of period values.
+     * @param values
+     * @param period
+     * @return The maximums, values.length - period + 1 values
+     */
+    public static double[] rollingMax(double[] values, int period) {
+        if (values.length < period) return new double[0];
+        double[] result = new double[values.length - period + 1];
+        RollingMinMax window = new RollingMinMax(period);
+        for (int i = 0; i < values.length; i++) {
+            window.add(values[i]);
+            if (i >= period - 1) result[i - period + 1] = window.max();
+        }
+        return result;
+    }
+}
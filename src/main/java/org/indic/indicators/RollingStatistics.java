@@ -0,0 +1,139 @@
+package org.indic.indicators;
+
+/**
+ * Mean and population variance over the last period values in O(1) per value.
+ * The sum is kept with Kahan compensation and the variance with a sliding
+ * Welford update. Once per full turn of the window sum and variance are
+ * recomputed from the window, so rounding errors can not pile up on long series
+ * and a NaN or infinite value only affects the windows containing it.
+ */
+public final class RollingStatistics {
+
+    private final int period;
+    private final double[] window;
+    private final CompensatedSum sum = new CompensatedSum();
+    private final CompensatedSum savedSum = new CompensatedSum();
+    private int count;
+    private int next;
+    private double m2;
+
+    public RollingStatistics(int period) {
+        if (period <= 0) throw new IllegalArgumentException("period must be positive");
+        this.period = period;
+        this.window = new double[period];
+    }
+
+    /**
+     * Adds a value, evicting the oldest one once period values were added.
+     * @param value
+     */
+    public void add(double value) {
+        double previousMean = count == 0 ? value : mean();
+        if (count < period) {
+            sum.add(value);
+            count++;
+            m2 += (value - previousMean) * (value - mean());
+        } else {
+            double old = window[next];
+            sum.add(value);
+            sum.add(-old);
+            m2 += (value - old) * (value - mean() + old - previousMean);
+            if (m2 < 0) m2 = 0;
+        }
+        window[next] = value;
+        if (++next == period) {
+            next = 0;
+            if (count == period) recompute();
+        }
+    }
+
+    private void recompute() {
+        sum.reset();
+        for (double value : window) {
+            sum.add(value);
+        }
+        double mean = mean();
+        double exact = 0.0;
+        for (double value : window) {
+            exact += (value - mean) * (value - mean);
+        }
+        m2 = exact;
+    }
+
+    /**
+     * @return The mean of the values in the window
+     */
+    public double mean() {
+        return sum.sum() / count;
+    }
+
+    /**
+     * @return The population variance of the values in the window
+     */
+    public double variance() {
+        return m2 / count;
+    }
+
+    /**
+     * @return The population standard deviation of the values in the window
+     */
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * Returns the mean as if the value was added, the statistics are not changed.
+     * @param value
+     * @return The mean including the value
+     */
+    public double peekMean(double value) {
+        return peek(value, false);
+    }
+
+    /**
+     * Returns the population standard deviation as if the value was added,
+     * the statistics are not changed.
+     * @param value
+     * @return The standard deviation including the value
+     */
+    public double peekStandardDeviation(double value) {
+        return peek(value, true);
+    }
+
+    // adds the value and rolls back, so the result is exactly the one of add
+    private double peek(double value, boolean deviation) {
+        savedSum.copyFrom(sum);
+        int savedCount = count;
+        int savedNext = next;
+        double savedM2 = m2;
+        double evicted = window[next];
+
+        add(value);
+        double result = deviation ? standardDeviation() : mean();
+
+        sum.copyFrom(savedSum);
+        count = savedCount;
+        next = savedNext;
+        m2 = savedM2;
+        window[next] = evicted;
+        return result;
+    }
+
+    /**
+     * @return The number of values in the window
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return True once period values were added
+     */
+    public boolean isFull() {
+        return count == period;
+    }
+
+    public int period() {
+        return period;
+    }
+}
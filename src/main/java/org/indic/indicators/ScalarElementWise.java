@@ -0,0 +1,49 @@
+package org.indic.indicators;
+
+/**
+ * Plain loops, see {@link ElementWise}.
+ */
+final class ScalarElementWise extends ElementWise {
+
+    @Override
+    public void trueRange(double[] closes, double[] highs, double[] lows, double[] trValues) {
+        if (closes.length == 0) return;
+        trValues[0] = highs[0] - lows[0];
+        for (int i = 1; i < closes.length; i++) {
+            trValues[i] = AverageTrueRange.calculateTR(highs[i], lows[i], closes[i - 1]);
+        }
+    }
+
+    @Override
+    public void bands(double[] middle, double[] deviations, double width, double[] lower, double[] upper) {
+        for (int i = 0; i < middle.length; i++) {
+            double offset = width * deviations[i];
+            if (upper != null) upper[i] = middle[i] + offset;
+            if (lower != null) lower[i] = middle[i] - offset;
+        }
+    }
+
+    @Override
+    public void bandwidth(double[] lower, double[] middle, double[] upper, double[] bandwidth) {
+        for (int i = 0; i < middle.length; i++) {
+            bandwidth[i] = (upper[i] - lower[i]) / middle[i];
+        }
+    }
+
+    @Override
+    public void subtract(double[] a, double[] b, double[] result) {
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] - b[i];
+        }
+    }
+
+    @Override
+    public void signedVolumes(double[] closes, long[] volumes, long[] signed) {
+        if (closes.length == 0) return;
+        signed[0] = volumes[0];
+        for (int i = 1; i < closes.length; i++) {
+            double diff = closes[i] - closes[i - 1];
+            signed[i] = diff > 0 ? volumes[i] : diff < 0 ? -volumes[i] : 0;
+        }
+    }
+}
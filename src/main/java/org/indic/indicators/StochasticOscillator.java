@@ -1,10 +1,14 @@
 package org.indic.indicators;
 
+import org.indic.buffers.BarRing;
+import org.indic.metrics.IndicatorMetrics;
+import org.indic.records.BarSeries;
+import org.indic.records.FloatBarSeries;
 import org.indic.records.OscillatorResult;
+import org.indic.records.OscillatorSeries;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
 
 public class StochasticOscillator {
 
@@ -13,7 +17,8 @@ public class StochasticOscillator {
      * fills closes until closes.size() == highs.size(), then calculates
      * k[i] = 100 * ((closes[i] - low) / (high - low))
      * starting from period and takes the
-     * high and low from the past i - period days
+     * high and low from the past i - period days.
+     * High and low are tracked with {@link RollingMinMax}, so it runs in linear time.
      * @param period - period to start calculating the SO from
      * @param closes - list of closes
      * @param highs - list of highs, should be same size as lows
@@ -25,27 +30,170 @@ public class StochasticOscillator {
             return new OscillatorResult(new ArrayList<>(), 0.0, 0.0);
         }
 
-        List<Double> fullCloses = new ArrayList<>();
+        OscillatorSeries res = calculate(period, IndicatorUtils.toArray(closes), IndicatorUtils.toArray(highs), IndicatorUtils.toArray(lows));
+        return new OscillatorResult(DoubleListView.of(res.k()), res.d(), res.d_3());
+    }
+
+    /**
+     * See {@link #calculate(int, List, List, List) calculate}.
+     * @param period - period to start calculating the SO from
+     * @param closes - closes, missing leading closes are treated as 0
+     * @param highs - highs, should be same size as lows
+     * @param lows - lows, should be same size as highs
+     * @return k = SO values, d = average of k, d_3 = three period average of k
+     */
+    public static OscillatorSeries calculate(int period, double[] closes, double[] highs, double[] lows) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("StochasticOscillator", highs.length);
+        try {
+            if (closes.length < period) {
+                return new OscillatorSeries(new double[0], 0.0, 0.0);
+            }
+
+            int offset = highs.length - closes.length;
+            double[] k = new double[Math.max(0, highs.length - period + 1)];
 
-        while(fullCloses.size() < highs.size() - closes.size()) {
-            fullCloses.addFirst(0.0);
+            Columns.Reader shifted = i -> i >= offset ? closes[i - offset] : 0.0;
+            k(period, shifted, Columns.of(highs), Columns.of(lows), highs.length, Columns.into(k));
+
+            return new OscillatorSeries(k, average(k, 0), average(k, k.length - 3));
+        } finally {
+            IndicatorMetrics.end(probe);
         }
+    }
+
+    /**
+     * See {@link #calculate(int, List, List, List) calculate}.
+     * @param period - period to start calculating the SO from
+     * @param series - bars to calculate the SO for
+     * @return k = SO values, d = average of k, d_3 = three period average of k
+     */
+    public static OscillatorSeries calculate(int period, BarSeries series) {
+        return calculate(period, series.close(), series.high(), series.low());
+    }
+
+    /**
+     * See {@link #calculate(int, BarSeries) calculate}, for float prices, writes the k values.
+     * Calculates in double, the values are the double values rounded to float.
+     * @param period - period to start calculating the SO from
+     * @param series - bars to calculate the SO for
+     * @param k - receives the SO values, at least series.size() - period + 1 values
+     * @return The number of values written
+     */
+    public static int calculate(int period, FloatBarSeries series, float[] k) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("StochasticOscillator", series.size());
+        try {
+            int size = Math.max(0, series.size() - period + 1);
+            if (k.length < size) throw new IllegalArgumentException("k must hold at least " + size + " values");
 
-        fullCloses.addAll(closes);
+            k(period, Columns.of(series.close()), Columns.of(series.high()), Columns.of(series.low()), series.size(), Columns.into(k));
+            return size;
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
 
-        List<Double> k = IntStream.range(period - 1, fullCloses.size())
-                .mapToDouble(i -> {
-                    double low = lows.subList(i - period + 1, i + 1).stream().min(Double::compare).orElse(Double.NaN);
-                    double high = highs.subList(i - period + 1, i + 1).stream().max(Double::compare).orElse(Double.NaN);
-                    return 100 * ((fullCloses.get(i) - low) / (high - low));
-                })
-                .boxed()
-                .toList();
+    /**
+     * See {@link #calculate(int, List, List, List) calculate}, for every window in the ring.
+     * @param period - period to start calculating the SO from
+     * @param bars - the latest bars
+     * @return k = SO values, d = average of k, d_3 = three period average of k
+     */
+    public static OscillatorSeries calculate(int period, BarRing bars) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("StochasticOscillator", bars.size());
+        try {
+            if (bars.size() < period) {
+                return new OscillatorSeries(new double[0], 0.0, 0.0);
+            }
 
-        double d = k.stream().reduce(0.0, Double::sum) / k.size();
-        double d_3 = k.subList(k.size() - 3, k.size()).stream().reduce(0.0, Double::sum) / 3;
+            double[] k = new double[bars.size() - period + 1];
+            k(period, bars.close()::get, bars.high()::get, bars.low()::get, bars.size(), Columns.into(k));
 
-        return new OscillatorResult(k, d, d_3);
+            return new OscillatorSeries(k, average(k, 0), average(k, k.length - 3));
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
     }
-}
 
+    /**
+     * Calculates only the latest k from the last period bars in the ring, nothing is allocated.
+     * @param period - period to calculate the SO for
+     * @param bars - the latest bars
+     * @return The latest k, NaN if the ring holds less than period bars
+     */
+    public static double latestK(int period, BarRing bars) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("StochasticOscillator", bars.size());
+        try {
+            int size = bars.size();
+            if (size < period) return Double.NaN;
+
+            double high = Double.NEGATIVE_INFINITY;
+            double low = Double.POSITIVE_INFINITY;
+            for (int i = size - period; i < size; i++) {
+                high = Math.max(high, bars.high().get(i));
+                low = Math.min(low, bars.low().get(i));
+            }
+            return 100 * ((bars.close().latest() - low) / (high - low));
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * Calculates only the k of the period bars before to, nothing is allocated.
+     * Same value as {@link #calculate(int, BarSeries) calculate} at index to - period.
+     * @param period - period to calculate the SO for
+     * @param series - bars to calculate the SO for
+     * @param to - exclusive end of the window
+     * @return The k, NaN if there are less than period bars before to
+     */
+    public static double latestK(int period, BarSeries series, int to) {
+        IndicatorMetrics.Probe probe = IndicatorMetrics.begin("StochasticOscillator", to);
+        try {
+            if (to < period) return Double.NaN;
+
+            double[] highs = series.high();
+            double[] lows = series.low();
+            double high = Double.NEGATIVE_INFINITY;
+            double low = Double.POSITIVE_INFINITY;
+            for (int i = to - period; i < to; i++) {
+                high = Math.max(high, highs[i]);
+                low = Math.min(low, lows[i]);
+            }
+            return 100 * ((series.close()[to - 1] - low) / (high - low));
+        } finally {
+            IndicatorMetrics.end(probe);
+        }
+    }
+
+    /**
+     * Calculates the rolling %D, the sma of k over dPeriod values (usually 3).
+     * @param k - SO values, see {@link #calculate(int, double[], double[], double[]) calculate}
+     * @param dPeriod - number of k values to average
+     * @return The %D values, k.length - dPeriod + 1 values
+     */
+    public static double[] calculateD(double[] k, int dPeriod) {
+        return IndicatorUtils.smaList(k, dPeriod);
+    }
+
+    /**
+     * Writes k for every window of period bars, length - period + 1 values.
+     */
+    private static void k(int period, Columns.Reader closes, Columns.Reader highs, Columns.Reader lows, int length, Columns.Writer k) {
+        RollingMinMax window = new RollingMinMax(period);
+        for (int i = 0; i < length; i++) {
+            window.add(highs.get(i), lows.get(i));
+            if (i < period - 1) continue;
+            double low = window.min();
+            k.set(i - period + 1, 100 * ((closes.get(i) - low) / (window.max() - low)));
+        }
+    }
+
+    private static double average(double[] values, int from) {
+        from = Math.max(0, from);
+        double sum = 0.0;
+        for (int i = from; i < values.length; i++) {
+            sum += values[i];
+        }
+        return sum / (values.length - from);
+    }
+}
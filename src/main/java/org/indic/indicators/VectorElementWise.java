@@ -0,0 +1,102 @@
+package org.indic.indicators;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API loops with a scalar tail, see {@link ElementWise}.
+ * Only loaded reflectively when jdk.incubator.vector is present.
+ */
+final class VectorElementWise extends ElementWise {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = VectorSpecies.of(long.class, DOUBLES.vectorShape());
+
+    private final ScalarElementWise scalar = new ScalarElementWise();
+
+    @Override
+    public void trueRange(double[] closes, double[] highs, double[] lows, double[] trValues) {
+        if (closes.length == 0) return;
+        trValues[0] = highs[0] - lows[0];
+        int i = 1;
+        for (int bound = 1 + DOUBLES.loopBound(closes.length - 1); i < bound; i += DOUBLES.length()) {
+            DoubleVector high = DoubleVector.fromArray(DOUBLES, highs, i);
+            DoubleVector low = DoubleVector.fromArray(DOUBLES, lows, i);
+            DoubleVector close = DoubleVector.fromArray(DOUBLES, closes, i - 1);
+            high.sub(low)
+                    .max(high.sub(close).abs())
+                    .max(low.sub(close).abs())
+                    .intoArray(trValues, i);
+        }
+        for (; i < closes.length; i++) {
+            trValues[i] = AverageTrueRange.calculateTR(highs[i], lows[i], closes[i - 1]);
+        }
+    }
+
+    @Override
+    public void bands(double[] middle, double[] deviations, double width, double[] lower, double[] upper) {
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(middle.length); i < bound; i += DOUBLES.length()) {
+            DoubleVector mid = DoubleVector.fromArray(DOUBLES, middle, i);
+            DoubleVector offset = DoubleVector.fromArray(DOUBLES, deviations, i).mul(width);
+            if (upper != null) mid.add(offset).intoArray(upper, i);
+            if (lower != null) mid.sub(offset).intoArray(lower, i);
+        }
+        for (; i < middle.length; i++) {
+            double offset = width * deviations[i];
+            if (upper != null) upper[i] = middle[i] + offset;
+            if (lower != null) lower[i] = middle[i] - offset;
+        }
+    }
+
+    @Override
+    public void bandwidth(double[] lower, double[] middle, double[] upper, double[] bandwidth) {
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(middle.length); i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, upper, i)
+                    .sub(DoubleVector.fromArray(DOUBLES, lower, i))
+                    .div(DoubleVector.fromArray(DOUBLES, middle, i))
+                    .intoArray(bandwidth, i);
+        }
+        for (; i < middle.length; i++) {
+            bandwidth[i] = (upper[i] - lower[i]) / middle[i];
+        }
+    }
+
+    @Override
+    public void subtract(double[] a, double[] b, double[] result) {
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(a.length); i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).sub(DoubleVector.fromArray(DOUBLES, b, i)).intoArray(result, i);
+        }
+        for (; i < a.length; i++) {
+            result[i] = a[i] - b[i];
+        }
+    }
+
+    @Override
+    public void signedVolumes(double[] closes, long[] volumes, long[] signed) {
+        if (DOUBLES.length() != LONGS.length()) {
+            scalar.signedVolumes(closes, volumes, signed);
+            return;
+        }
+        if (closes.length == 0) return;
+        signed[0] = volumes[0];
+        LongVector zero = LongVector.zero(LONGS);
+        int i = 1;
+        for (int bound = 1 + DOUBLES.loopBound(closes.length - 1); i < bound; i += DOUBLES.length()) {
+            DoubleVector diff = DoubleVector.fromArray(DOUBLES, closes, i).sub(DoubleVector.fromArray(DOUBLES, closes, i - 1));
+            VectorMask<Long> up = diff.compare(VectorOperators.GT, 0.0).cast(LONGS);
+            VectorMask<Long> down = diff.compare(VectorOperators.LT, 0.0).cast(LONGS);
+            LongVector volume = LongVector.fromArray(LONGS, volumes, i);
+            zero.blend(volume, up).blend(volume.neg(), down).intoArray(signed, i);
+        }
+        for (; i < closes.length; i++) {
+            double diff = closes[i] - closes[i - 1];
+            signed[i] = diff > 0 ? volumes[i] : diff < 0 ? -volumes[i] : 0;
+        }
+    }
+}
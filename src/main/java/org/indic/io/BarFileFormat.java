@@ -0,0 +1,38 @@
+package org.indic.io;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout of the binary bar file, all values little endian:
+ * <pre>
+ * header  64 bytes: magic "INDICBAR", int version, int column count, long bar count, padding
+ * columns count * 8 bytes each: timestamps (long), open, high, low, close (double), volume (long)
+ * </pre>
+ * Every column is stored contiguously, so a column can be read without touching the others.
+ */
+final class BarFileFormat {
+
+    static final long MAGIC = 0x5241_4243_4944_4E49L; // "INDICBAR" little endian
+    static final int VERSION = 1;
+    static final int COLUMNS = 6;
+    static final int HEADER_BYTES = 64;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    /**
+     * The most bars whose columns can be addressed with long file offsets.
+     */
+    static final long MAX_BARS = (Long.MAX_VALUE - HEADER_BYTES) / (COLUMNS * Long.BYTES);
+
+    static final int TIMESTAMP = 0;
+    static final int OPEN = 1;
+    static final int HIGH = 2;
+    static final int LOW = 3;
+    static final int CLOSE = 4;
+    static final int VOLUME = 5;
+
+    private BarFileFormat() {
+    }
+
+    static long columnOffset(int column, long count) {
+        return HEADER_BYTES + column * count * Long.BYTES;
+    }
+}
@@ -0,0 +1,232 @@
+package org.indic.io;
+
+import org.indic.records.BarSeries;
+import org.indic.streaming.BarConsumer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.indic.io.BarFileFormat.*;
+
+/**
+ * Memory maps a file written by {@link BarFileWriter}. Every column is mapped in segments
+ * of at most 2^27 values (1 GiB), so files larger than 2 GB are supported.
+ * Bars are read straight from the mapping, {@link #forEach(long, long, BarConsumer) forEach}
+ * feeds them into streaming indicator states without any copy, {@link #read(long, int) read}
+ * copies a range into primitive columns for the batch indicators.
+ * Timestamps must be ascending for the time range lookups.
+ */
+public class BarFileReader implements AutoCloseable {
+
+    /**
+     * Default number of values per mapped segment, 2^27.
+     */
+    public static final int DEFAULT_SEGMENT_SHIFT = 27;
+
+    private final FileChannel channel;
+    private final long count;
+    private final LongColumn timestamps;
+    private final DoubleColumn open;
+    private final DoubleColumn high;
+    private final DoubleColumn low;
+    private final DoubleColumn close;
+    private final LongColumn volume;
+
+    /**
+     * Opens and maps the file.
+     * @param path
+     * @throws IOException if the file can not be read or is not a bar file
+     */
+    public BarFileReader(Path path) throws IOException {
+        this(path, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    /**
+     * Opens and maps the file with segments of 2^segmentShift values.
+     * @param path
+     * @param segmentShift Log2 of the values per mapped segment, at most 27
+     * @throws IOException if the file can not be read or is not a bar file
+     */
+    public BarFileReader(Path path, int segmentShift) throws IOException {
+        if (segmentShift < 1 || segmentShift > DEFAULT_SEGMENT_SHIFT) {
+            throw new IllegalArgumentException("segmentShift must be between 1 and " + DEFAULT_SEGMENT_SHIFT);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getLong() != MAGIC) {
+                throw new IOException(path + " is not a bar file");
+            }
+            int version = header.getInt();
+            if (version != VERSION || header.getInt() != COLUMNS) {
+                throw new IOException("Unsupported bar file version " + version);
+            }
+            this.count = header.getLong();
+            if (count < 0 || count > MAX_BARS) {
+                throw new IOException(path + " has an invalid bar count " + count);
+            }
+            if (count > 0 && ((count - 1) >>> segmentShift) >= Integer.MAX_VALUE) {
+                throw new IOException(path + " has too many bars for segments of 2^" + segmentShift + " values");
+            }
+            if (channel.size() < columnOffset(COLUMNS, count)) {
+                throw new IOException(path + " is truncated");
+            }
+
+            this.timestamps = new LongColumn(mapLongs(TIMESTAMP, segmentShift), segmentShift, count);
+            this.open = new DoubleColumn(mapDoubles(OPEN, segmentShift), segmentShift, count);
+            this.high = new DoubleColumn(mapDoubles(HIGH, segmentShift), segmentShift, count);
+            this.low = new DoubleColumn(mapDoubles(LOW, segmentShift), segmentShift, count);
+            this.close = new DoubleColumn(mapDoubles(CLOSE, segmentShift), segmentShift, count);
+            this.volume = new LongColumn(mapLongs(VOLUME, segmentShift), segmentShift, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private MappedByteBuffer[] map(int column, int segmentShift) throws IOException {
+        long perSegment = 1L << segmentShift;
+        int segmentCount = (int) ((count + perSegment - 1) >>> segmentShift);
+        MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+        long offset = columnOffset(column, count);
+        for (int i = 0; i < segmentCount; i++) {
+            long values = Math.min(perSegment, count - i * perSegment);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + i * perSegment * Long.BYTES, values * Long.BYTES);
+            segments[i].order(ORDER);
+        }
+        return segments;
+    }
+
+    private DoubleBuffer[] mapDoubles(int column, int segmentShift) throws IOException {
+        MappedByteBuffer[] mapped = map(column, segmentShift);
+        DoubleBuffer[] segments = new DoubleBuffer[mapped.length];
+        for (int i = 0; i < mapped.length; i++) {
+            segments[i] = mapped[i].asDoubleBuffer();
+        }
+        return segments;
+    }
+
+    private LongBuffer[] mapLongs(int column, int segmentShift) throws IOException {
+        MappedByteBuffer[] mapped = map(column, segmentShift);
+        LongBuffer[] segments = new LongBuffer[mapped.length];
+        for (int i = 0; i < mapped.length; i++) {
+            segments[i] = mapped[i].asLongBuffer();
+        }
+        return segments;
+    }
+
+    /**
+     * @return The number of bars in the file
+     */
+    public long size() {
+        return count;
+    }
+
+    public LongColumn timestamps() {
+        return timestamps;
+    }
+
+    public DoubleColumn opens() {
+        return open;
+    }
+
+    public DoubleColumn highs() {
+        return high;
+    }
+
+    public DoubleColumn lows() {
+        return low;
+    }
+
+    public DoubleColumn closes() {
+        return close;
+    }
+
+    public LongColumn volumes() {
+        return volume;
+    }
+
+    /**
+     * Binary search over the timestamps.
+     * @param timestamp
+     * @return The index of the first bar at or after the timestamp, size() if there is none
+     */
+    public long indexOf(long timestamp) {
+        long low = 0;
+        long high = count;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (timestamps.get(middle) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copies count bars starting at from into a new series on the heap, the batch
+     * indicators take arrays. Use the columns or {@link #forEach(long, long, BarConsumer) forEach}
+     * to read without copying.
+     * @param from
+     * @param count
+     * @return The bars
+     */
+    public BarSeries read(long from, int count) {
+        if (from < 0 || count < 0 || from + count > this.count) {
+            throw new IndexOutOfBoundsException("Range " + from + " + " + count + " outside of " + this.count + " bars");
+        }
+        BarSeries series = BarSeries.allocate(count);
+        timestamps.copyTo(from, series.timestamps(), 0, count);
+        open.copyTo(from, series.open(), 0, count);
+        high.copyTo(from, series.high(), 0, count);
+        low.copyTo(from, series.low(), 0, count);
+        close.copyTo(from, series.close(), 0, count);
+        volume.copyTo(from, series.volume(), 0, count);
+        return series;
+    }
+
+    /**
+     * Copies the bars with fromTime &lt;= timestamp &lt; toTime into a new series.
+     * @param fromTime inclusive
+     * @param toTime exclusive
+     * @return The bars
+     */
+    public BarSeries readRange(long fromTime, long toTime) {
+        long from = indexOf(fromTime);
+        long to = Math.max(from, indexOf(toTime));
+        return read(from, Math.toIntExact(to - from));
+    }
+
+    /**
+     * Passes the bars from index from (inclusive) to to (exclusive) to the consumer,
+     * reading them straight from the mapping.
+     * @param from
+     * @param to
+     * @param consumer
+     */
+    public void forEach(long from, long to, BarConsumer consumer) {
+        for (long i = from; i < to; i++) {
+            consumer.accept(timestamps.get(i), open.get(i), high.get(i), low.get(i), close.get(i), volume.get(i));
+        }
+    }
+
+    /**
+     * Closes the file. The mappings stay valid until they are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
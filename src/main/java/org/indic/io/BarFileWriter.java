@@ -0,0 +1,127 @@
+package org.indic.io;
+
+import org.indic.records.BarSeries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.indic.io.BarFileFormat.*;
+
+/**
+ * Writes bars into the binary format read by {@link BarFileReader}.
+ * The total number of bars is fixed up front, so the columns can be laid out
+ * contiguously while the bars are appended in chunks. Files may hold more
+ * bars than fit into one array.
+ */
+public class BarFileWriter implements AutoCloseable {
+
+    private static final int BUFFER_VALUES = 8192;
+
+    private final FileChannel channel;
+    private final long count;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_VALUES * Long.BYTES).order(ORDER);
+    private long written;
+
+    /**
+     * Creates or truncates the file.
+     * @param path
+     * @param count The total number of bars that will be appended
+     * @throws IOException
+     */
+    public BarFileWriter(Path path, long count) throws IOException {
+        if (count < 0 || count > MAX_BARS) throw new IllegalArgumentException("Invalid bar count " + count);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ);
+        this.count = count;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+        header.putLong(MAGIC).putInt(VERSION).putInt(COLUMNS).putLong(count);
+        header.clear();
+        writeFully(header, 0);
+    }
+
+    /**
+     * Writes a whole series into a new file.
+     * @param path
+     * @param series
+     * @throws IOException
+     */
+    public static void write(Path path, BarSeries series) throws IOException {
+        try (BarFileWriter writer = new BarFileWriter(path, series.size())) {
+            writer.append(series);
+        }
+    }
+
+    /**
+     * Appends the bars after the ones already written.
+     * @param bars
+     * @throws IOException
+     */
+    public void append(BarSeries bars) throws IOException {
+        if (written + bars.size() > count) {
+            throw new IllegalStateException("File was created for " + count + " bars");
+        }
+        writeColumn(TIMESTAMP, bars.timestamps());
+        writeColumn(OPEN, bars.open());
+        writeColumn(HIGH, bars.high());
+        writeColumn(LOW, bars.low());
+        writeColumn(CLOSE, bars.close());
+        writeColumn(VOLUME, bars.volume());
+        written += bars.size();
+    }
+
+    private void writeColumn(int column, double[] values) throws IOException {
+        long position = columnOffset(column, count) + written * Double.BYTES;
+        for (int from = 0; from < values.length; from += BUFFER_VALUES) {
+            int length = Math.min(BUFFER_VALUES, values.length - from);
+            buffer.clear();
+            buffer.asDoubleBuffer().put(values, from, length);
+            buffer.limit(length * Double.BYTES);
+            writeFully(buffer, position);
+            position += (long) length * Double.BYTES;
+        }
+    }
+
+    private void writeColumn(int column, long[] values) throws IOException {
+        long position = columnOffset(column, count) + written * Long.BYTES;
+        for (int from = 0; from < values.length; from += BUFFER_VALUES) {
+            int length = Math.min(BUFFER_VALUES, values.length - from);
+            buffer.clear();
+            buffer.asLongBuffer().put(values, from, length);
+            buffer.limit(length * Long.BYTES);
+            writeFully(buffer, position);
+            position += (long) length * Long.BYTES;
+        }
+    }
+
+    private void writeFully(ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+
+    /**
+     * @return The number of bars appended so far
+     */
+    public long written() {
+        return written;
+    }
+
+    /**
+     * Closes the file.
+     * @throws IllegalStateException if fewer bars were appended than announced
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (written != count) {
+                throw new IllegalStateException("Expected " + count + " bars but " + written + " were appended");
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package org.indic.io;
+
+import org.indic.records.BarSeries;
+import org.indic.streaming.BarConsumer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Reads OHLCV bars from CSV with the columns timestamp, open, high, low, close, volume.
+ * The input is read in chunks and parsed byte by byte straight into primitives,
+ * no line or field strings are created for plain numbers, so the memory used does not
+ * depend on the file size. A header line is skipped. <br></br>
+ * Timestamps are epoch millis or ISO-8601 dates/date times (taken as UTC).
+ * Decimals with up to 15 significant digits are parsed without {@link Double#parseDouble(String)},
+ * the result is the same.
+ */
+public class CsvBarReader implements AutoCloseable {
+
+    private static final int CHUNK_BYTES = 1 << 16;
+    private static final int MAX_FIELD_BYTES = 64;
+    private static final int FIELDS = 6;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream in;
+    private final byte delimiter;
+    private final byte[] chunk = new byte[CHUNK_BYTES];
+
+    // state of the field being parsed
+    private final byte[] field = new byte[MAX_FIELD_BYTES];
+    private int fieldLength;
+    private long mantissa;
+    private int digits;
+    private int fractionDigits;
+    private boolean negative;
+    private boolean dot;
+    private boolean slow;
+
+    // state of the bar being parsed
+    private long timestamp;
+    private final double[] prices = new double[4];
+    private long volume;
+    private int fieldIndex;
+    private long line = 1;
+    private boolean skipLine;
+
+    /**
+     * Reads comma separated bars.
+     * @param in The csv, closed with this reader
+     */
+    public CsvBarReader(InputStream in) {
+        this(in, ',');
+    }
+
+    /**
+     * @param in The csv, closed with this reader
+     * @param delimiter The field delimiter, e.g. ';' or '\t'
+     */
+    public CsvBarReader(InputStream in, char delimiter) {
+        if (delimiter > 127 || Character.isLetterOrDigit(delimiter) || delimiter == '.' || delimiter == '-' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Invalid delimiter " + delimiter);
+        }
+        this.in = in;
+        this.delimiter = (byte) delimiter;
+    }
+
+    /**
+     * Opens a comma separated file.
+     * @param path
+     * @return The reader
+     * @throws IOException
+     */
+    public static CsvBarReader open(Path path) throws IOException {
+        return new CsvBarReader(Files.newInputStream(path));
+    }
+
+    /**
+     * Passes every bar to the consumer as soon as it is parsed.
+     * @param consumer
+     * @return The number of bars read
+     * @throws IOException if the input can not be read or a line is malformed
+     */
+    public long forEach(BarConsumer consumer) throws IOException {
+        long bars = 0;
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (accept(chunk[i])) {
+                    consumer.accept(timestamp, prices[0], prices[1], prices[2], prices[3], volume);
+                    bars++;
+                }
+            }
+        }
+        if (accept((byte) '\n')) {
+            consumer.accept(timestamp, prices[0], prices[1], prices[2], prices[3], volume);
+            bars++;
+        }
+        return bars;
+    }
+
+    /**
+     * Collects the bars into batches of batchSize and passes them to the consumer.
+     * The batch is reused for the next bars, so values that must outlive the
+     * call have to be copied. The last batch may be smaller.
+     * @param batchSize Number of bars per batch
+     * @param consumer
+     * @return The number of bars read
+     * @throws IOException if the input can not be read or a line is malformed
+     */
+    public long forEachBatch(int batchSize, Consumer<BarSeries> consumer) throws IOException {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be positive");
+        BarSeries batch = BarSeries.allocate(batchSize);
+        int[] size = new int[1];
+        long bars = forEach((timestamp, open, high, low, close, volume) -> {
+            int i = size[0]++;
+            batch.timestamps()[i] = timestamp;
+            batch.open()[i] = open;
+            batch.high()[i] = high;
+            batch.low()[i] = low;
+            batch.close()[i] = close;
+            batch.volume()[i] = volume;
+            if (size[0] == batchSize) {
+                consumer.accept(batch);
+                size[0] = 0;
+            }
+        });
+        if (size[0] > 0) {
+            consumer.accept(copyOf(batch, size[0]));
+        }
+        return bars;
+    }
+
+    /**
+     * Reads all bars into one series.
+     * @return The bars
+     * @throws IOException if the input can not be read or a line is malformed
+     */
+    public BarSeries readAll() throws IOException {
+        BarSeries[] all = {BarSeries.allocate(1024)};
+        int[] size = new int[1];
+        forEach((timestamp, open, high, low, close, volume) -> {
+            if (size[0] == all[0].size()) all[0] = copyOf(all[0], size[0] * 2);
+            int i = size[0]++;
+            all[0].timestamps()[i] = timestamp;
+            all[0].open()[i] = open;
+            all[0].high()[i] = high;
+            all[0].low()[i] = low;
+            all[0].close()[i] = close;
+            all[0].volume()[i] = volume;
+        });
+        return copyOf(all[0], size[0]);
+    }
+
+    private static BarSeries copyOf(BarSeries series, int size) {
+        return new BarSeries(Arrays.copyOf(series.timestamps(), size), Arrays.copyOf(series.open(), size),
+                Arrays.copyOf(series.high(), size), Arrays.copyOf(series.low(), size),
+                Arrays.copyOf(series.close(), size), Arrays.copyOf(series.volume(), size));
+    }
+
+    /**
+     * Feeds one byte into the parser.
+     * @return true if the byte completed a bar
+     */
+    private boolean accept(byte b) throws IOException {
+        if (b == '\n') {
+            boolean complete = endLine();
+            line++;
+            return complete;
+        }
+        if (skipLine || b == '\r') return false;
+        if (b == delimiter) {
+            endField();
+            return false;
+        }
+
+        if (fieldLength == MAX_FIELD_BYTES) throw malformed("field too long");
+        field[fieldLength++] = b;
+        if (b >= '0' && b <= '9') {
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (dot) fractionDigits++;
+            } else {
+                slow = true;
+            }
+        } else if (b == '.' && !dot) {
+            dot = true;
+        } else if (b == '-' && fieldLength == 1) {
+            negative = true;
+        } else {
+            slow = true;
+        }
+        return false;
+    }
+
+    private boolean endLine() throws IOException {
+        if (skipLine) {
+            skipLine = false;
+            resetField();
+            fieldIndex = 0;
+            return false;
+        }
+        if (fieldIndex == 0 && fieldLength == 0) return false;
+        endField();
+        if (skipLine) {
+            skipLine = false;
+            return false;
+        }
+        if (fieldIndex != FIELDS) throw malformed("expected " + FIELDS + " fields but got " + fieldIndex);
+        fieldIndex = 0;
+        return true;
+    }
+
+    private void endField() throws IOException {
+        if (fieldIndex == FIELDS) throw malformed("expected " + FIELDS + " fields");
+        try {
+            switch (fieldIndex) {
+                case 0 -> timestamp = parseTimestamp();
+                case 5 -> volume = parseVolume();
+                default -> prices[fieldIndex - 1] = parseDouble();
+            }
+            fieldIndex++;
+        } catch (RuntimeException e) {
+            if (line != 1) throw malformed(e.getMessage());
+            // the first line is a header
+            skipLine = true;
+            fieldIndex = 0;
+        } finally {
+            resetField();
+        }
+    }
+
+    private void resetField() {
+        fieldLength = 0;
+        mantissa = 0;
+        digits = 0;
+        fractionDigits = 0;
+        negative = false;
+        dot = false;
+        slow = false;
+    }
+
+    private double parseDouble() {
+        if (!slow && digits > 0 && digits <= 15) {
+            // both are exact, so the division is correctly rounded like parseDouble
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(fieldText());
+    }
+
+    private long parseVolume() {
+        if (!slow && !dot && digits > 0) return negative ? -mantissa : mantissa;
+        return (long) Double.parseDouble(fieldText());
+    }
+
+    private long parseTimestamp() {
+        if (!slow && !dot && digits > 0) return negative ? -mantissa : mantissa;
+        String text = fieldText();
+        if (text.length() == 10) return LocalDate.parse(text).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        if (text.endsWith("Z")) return Instant.parse(text).toEpochMilli();
+        return LocalDateTime.parse(text.replace(' ', 'T')).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private String fieldText() {
+        String text = new String(field, 0, fieldLength, StandardCharsets.ISO_8859_1).strip();
+        if (text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")) {
+            text = text.substring(1, text.length() - 1).strip();
+        }
+        return text;
+    }
+
+    private IOException malformed(String reason) {
+        return new IOException("Malformed bar at line " + line + ": " + reason);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
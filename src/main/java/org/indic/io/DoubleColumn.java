@@ -0,0 +1,66 @@
+package org.indic.io;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * A memory mapped column of doubles. Values are read straight from the
+ * mapped file, nothing is copied onto the heap unless asked for.
+ */
+public final class DoubleColumn {
+
+    private final DoubleBuffer[] segments;
+    private final int shift;
+    private final long mask;
+    private final long size;
+
+    DoubleColumn(DoubleBuffer[] segments, int shift, long size) {
+        this.segments = segments;
+        this.shift = shift;
+        this.mask = (1L << shift) - 1;
+        this.size = size;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public double get(long index) {
+        return segments[(int) (index >>> shift)].get((int) (index & mask));
+    }
+
+    /**
+     * Copies count values starting at from into the destination.
+     * @param from
+     * @param destination
+     * @param offset
+     * @param count
+     */
+    public void copyTo(long from, double[] destination, int offset, int count) {
+        while (count > 0) {
+            DoubleBuffer segment = segments[(int) (from >>> shift)];
+            int position = (int) (from & mask);
+            int length = Math.min(count, segment.limit() - position);
+            segment.get(position, destination, offset, length);
+            from += length;
+            offset += length;
+            count -= length;
+        }
+    }
+
+    /**
+     * A view of the values without copying, only possible inside one mapped segment.
+     * An empty range gives an empty buffer.
+     * @param from
+     * @param count
+     * @return The values as read only buffer
+     * @throws IllegalArgumentException if the range crosses a segment boundary
+     */
+    public DoubleBuffer view(long from, int count) {
+        if (count == 0) return DoubleBuffer.allocate(0).asReadOnlyBuffer();
+        if ((from >>> shift) != ((from + count - 1) >>> shift)) {
+            throw new IllegalArgumentException("Range crosses a segment boundary, use copyTo");
+        }
+        int position = (int) (from & mask);
+        return segments[(int) (from >>> shift)].slice(position, count);
+    }
+}
@@ -0,0 +1,104 @@
+package org.indic.metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Optional measurement of the indicator calculations. Disabled by default, then
+ * {@link #begin(String, int) begin} costs one volatile read and returns null.
+ * Once a {@link MetricsListener} is set, every calculation reports its input size,
+ * duration and the bytes allocated by the calculating thread.
+ * Nested calculations (e.g. the emas of a plan) are reported on their own.
+ * Thread allocation measurement is only switched on in the jvm while a listener is set,
+ * and only if it was off before.
+ */
+public final class IndicatorMetrics {
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+    private static volatile MetricsListener listener;
+    private static boolean allocationEnabledHere;
+
+    private IndicatorMetrics() {
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            return bean;
+        }
+        return null;
+    }
+
+    /**
+     * Enables the measurements.
+     * @param listener Receives every measured calculation
+     */
+    public static synchronized void enable(MetricsListener listener) {
+        if (THREADS != null && !THREADS.isThreadAllocatedMemoryEnabled()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+            allocationEnabledHere = true;
+        }
+        IndicatorMetrics.listener = listener;
+    }
+
+    /**
+     * Disables the measurements, switches allocation measurement off again if enable switched it on.
+     */
+    public static synchronized void disable() {
+        listener = null;
+        if (allocationEnabledHere) {
+            THREADS.setThreadAllocatedMemoryEnabled(false);
+            allocationEnabledHere = false;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return listener != null;
+    }
+
+    /**
+     * Starts measuring a calculation, the caller has to {@link #end(Probe) end} it.
+     * @param indicator Name of the indicator
+     * @param inputSize Number of input values
+     * @return The running measurement, null if disabled
+     */
+    public static Probe begin(String indicator, int inputSize) {
+        MetricsListener current = listener;
+        if (current == null) return null;
+        return new Probe(current, indicator, inputSize);
+    }
+
+    /**
+     * Ends a measurement and reports it.
+     * @param probe From {@link #begin(String, int) begin}, may be null
+     */
+    public static void end(Probe probe) {
+        if (probe != null) probe.end();
+    }
+
+    /**
+     * A running measurement.
+     */
+    public static final class Probe {
+
+        private final MetricsListener listener;
+        private final String indicator;
+        private final int inputSize;
+        private final long allocatedBytes;
+        private final long start;
+
+        private Probe(MetricsListener listener, String indicator, int inputSize) {
+            this.listener = listener;
+            this.indicator = indicator;
+            this.inputSize = inputSize;
+            this.allocatedBytes = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+            this.start = System.nanoTime();
+        }
+
+        private void end() {
+            long nanos = System.nanoTime() - start;
+            long allocated = allocatedBytes >= 0 ? THREADS.getCurrentThreadAllocatedBytes() - allocatedBytes : -1;
+            if (allocatedBytes >= 0 && allocated < 0) allocated = -1;
+            listener.record(indicator, inputSize, nanos, allocated);
+        }
+    }
+}
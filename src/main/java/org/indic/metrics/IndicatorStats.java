@@ -0,0 +1,99 @@
+package org.indic.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, input sizes, latency histogram and allocations of one indicator.
+ */
+public final class IndicatorStats implements IndicatorStatsMXBean {
+
+    private final String indicator;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder inputValues = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder allocationCalls = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    IndicatorStats(String indicator) {
+        this.indicator = indicator;
+    }
+
+    void record(int inputSize, long nanos, long allocated) {
+        calls.increment();
+        inputValues.add(inputSize);
+        latency.record(nanos);
+        if (allocated >= 0) {
+            allocatedBytes.add(allocated);
+            allocationCalls.increment();
+        }
+    }
+
+    public String indicator() {
+        return indicator;
+    }
+
+    /**
+     * @return The latencies in nanos
+     */
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public double getMeanInputSize() {
+        long count = calls.sum();
+        return count == 0 ? 0.0 : (double) inputValues.sum() / count;
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return latency.mean();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latency.percentile(50);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latency.percentile(99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return latency.percentile(99.9);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latency.max();
+    }
+
+    @Override
+    public double getMeanAllocatedBytes() {
+        long count = allocationCalls.sum();
+        return count == 0 ? -1 : (double) allocatedBytes.sum() / count;
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        inputValues.reset();
+        allocatedBytes.reset();
+        allocationCalls.reset();
+        latency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return indicator + ": " + getCalls() + " calls, mean input " + Math.round(getMeanInputSize())
+                + ", p50 " + getP50Nanos() + "ns, p99 " + getP99Nanos() + "ns, max " + getMaxNanos()
+                + "ns, " + Math.round(getMeanAllocatedBytes()) + " bytes per call";
+    }
+}
@@ -0,0 +1,29 @@
+package org.indic.metrics;
+
+/**
+ * Measurements of one indicator, registered by {@link MetricsRecorder#registerMBeans() registerMBeans}
+ * as org.indic:type=IndicatorMetrics,name=&lt;indicator&gt;.
+ */
+public interface IndicatorStatsMXBean {
+
+    long getCalls();
+
+    double getMeanInputSize();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+
+    /**
+     * @return The mean bytes allocated per call, -1 if not supported by the jvm
+     */
+    double getMeanAllocatedBytes();
+
+    void reset();
+}
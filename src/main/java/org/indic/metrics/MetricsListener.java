@@ -0,0 +1,17 @@
+package org.indic.metrics;
+
+/**
+ * Receives one record per measured indicator calculation, see {@link IndicatorMetrics}.
+ * Called on the calculating thread, so implementations must be thread safe and fast.
+ */
+@FunctionalInterface
+public interface MetricsListener {
+
+    /**
+     * @param indicator Name of the indicator, e.g. "Macd"
+     * @param inputSize Number of input values (bars or prices)
+     * @param nanos Wall clock duration of the calculation
+     * @param allocatedBytes Bytes allocated by the calculating thread, -1 if not supported by the jvm
+     */
+    void record(String indicator, int inputSize, long nanos, long allocatedBytes);
+}
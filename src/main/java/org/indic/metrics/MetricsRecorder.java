@@ -0,0 +1,105 @@
+package org.indic.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link MetricsListener} which aggregates the measurements per indicator,
+ * optionally exposed as JMX MBeans.
+ * <pre>
+ * MetricsRecorder recorder = new MetricsRecorder().registerMBeans();
+ * IndicatorMetrics.enable(recorder);
+ * </pre>
+ */
+public class MetricsRecorder implements MetricsListener, AutoCloseable {
+
+    static final String DOMAIN = "org.indic";
+
+    private final Map<String, IndicatorStats> stats = new ConcurrentHashMap<>();
+    private volatile boolean jmx;
+
+    @Override
+    public void record(String indicator, int inputSize, long nanos, long allocatedBytes) {
+        IndicatorStats indicatorStats = stats.get(indicator);
+        if (indicatorStats == null) {
+            indicatorStats = stats.computeIfAbsent(indicator, this::create);
+        }
+        indicatorStats.record(inputSize, nanos, allocatedBytes);
+    }
+
+    private IndicatorStats create(String indicator) {
+        IndicatorStats indicatorStats = new IndicatorStats(indicator);
+        if (jmx) register(indicatorStats);
+        return indicatorStats;
+    }
+
+    /**
+     * Registers the stats of every indicator with the platform MBean server,
+     * indicators measured later are registered when they are first seen.
+     * @return this
+     */
+    public MetricsRecorder registerMBeans() {
+        jmx = true;
+        stats.values().forEach(MetricsRecorder::register);
+        return this;
+    }
+
+    /**
+     * @param indicator
+     * @return The stats of the indicator, null if it was not measured
+     */
+    public IndicatorStats stats(String indicator) {
+        return stats.get(indicator);
+    }
+
+    /**
+     * @return The stats of every measured indicator
+     */
+    public Collection<IndicatorStats> all() {
+        return Collections.unmodifiableCollection(stats.values());
+    }
+
+    /**
+     * Resets the stats of every indicator.
+     */
+    public void reset() {
+        stats.values().forEach(IndicatorStats::reset);
+    }
+
+    static ObjectName objectName(String indicator) throws JMException {
+        return new ObjectName(DOMAIN + ":type=IndicatorMetrics,name=" + indicator);
+    }
+
+    private static void register(IndicatorStats indicatorStats) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = objectName(indicatorStats.indicator());
+            if (!server.isRegistered(name)) server.registerMBean(indicatorStats, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics of " + indicatorStats.indicator(), e);
+        }
+    }
+
+    /**
+     * Unregisters the MBeans of this recorder.
+     */
+    @Override
+    public void close() {
+        if (!jmx) return;
+        jmx = false;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (IndicatorStats indicatorStats : stats.values()) {
+            try {
+                server.unregisterMBean(objectName(indicatorStats.indicator()));
+            } catch (JMException ignored) {
+                // registered by another recorder or already gone
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.indic.records;
+
+/**
+ * Outcome of replaying a strategy over a series, amounts are in price units times position.
+ * @param bars Number of replayed bars
+ * @param trades Number of position changes
+ * @param barsInMarket Number of bars with an open position
+ * @param pnl Profit and loss, the open position is valued at the last close
+ * @param maxDrawdown Largest drop of the equity from a previous peak, starting equity is 0
+ * @param position The position after the last bar
+ */
+public record BacktestResult(long bars, int trades, long barsInMarket, double pnl, double maxDrawdown, double position) {
+}
@@ -0,0 +1,140 @@
+package org.indic.records;
+
+import org.indic.indicators.ElementWise;
+
+import java.util.Objects;
+
+/**
+ * Bollinger Bands backed by the middle band and the deviation of every window.
+ * Lower, upper and bandwidth are derived: by index, into a caller provided buffer
+ * or as arrays that are calculated on first access and kept.
+ * The derived values are the same as calculating them directly,
+ * lower = middle - width * deviation and upper = middle + width * deviation.
+ * Whole bands are derived with the {@link ElementWise} kernels, vectorized if available.
+ */
+public final class BandSeries {
+
+    private final double[] middle;
+    private final double[] deviation;
+    private final double width;
+    private volatile double[] lower;
+    private volatile double[] upper;
+
+    /**
+     * @param middle The middle band
+     * @param deviation The standard deviation of every window, same size as middle
+     * @param width The width, usually 2
+     */
+    public BandSeries(double[] middle, double[] deviation, double width) {
+        if (Objects.requireNonNull(middle, "middle").length != Objects.requireNonNull(deviation, "deviation").length) {
+            throw new IllegalArgumentException("middle and deviation must have the same length");
+        }
+        this.middle = middle;
+        this.deviation = deviation;
+        this.width = width;
+    }
+
+    public double[] middle() {
+        return middle;
+    }
+
+    public double[] deviation() {
+        return deviation;
+    }
+
+    public double width() {
+        return width;
+    }
+
+    public int size() {
+        return middle.length;
+    }
+
+    public double lower(int index) {
+        return middle[index] - width * deviation[index];
+    }
+
+    public double upper(int index) {
+        return middle[index] + width * deviation[index];
+    }
+
+    /**
+     * @param index
+     * @return (upper - lower) / middle
+     */
+    public double bandwidth(int index) {
+        return (upper(index) - lower(index)) / middle[index];
+    }
+
+    /**
+     * @return The lower band, calculated on first access
+     */
+    public double[] lower() {
+        double[] values = lower;
+        if (values == null) {
+            calculateBands();
+            values = lower;
+        }
+        return values;
+    }
+
+    /**
+     * @return The upper band, calculated on first access
+     */
+    public double[] upper() {
+        double[] values = upper;
+        if (values == null) {
+            calculateBands();
+            values = upper;
+        }
+        return values;
+    }
+
+    // both bands in one pass, threads racing here calculate equal arrays
+    private void calculateBands() {
+        double[] lowerValues = new double[middle.length];
+        double[] upperValues = new double[middle.length];
+        ElementWise.get().bands(middle, deviation, width, lowerValues, upperValues);
+        upper = upperValues;
+        lower = lowerValues;
+    }
+
+    /**
+     * Writes the lower band into the buffer.
+     * @param buffer At least size() values
+     * @return The buffer
+     */
+    public double[] lower(double[] buffer) {
+        ElementWise.get().bands(middle, deviation, width, buffer, null);
+        return buffer;
+    }
+
+    /**
+     * Writes the upper band into the buffer.
+     * @param buffer At least size() values
+     * @return The buffer
+     */
+    public double[] upper(double[] buffer) {
+        ElementWise.get().bands(middle, deviation, width, null, buffer);
+        return buffer;
+    }
+
+    /**
+     * Writes the bandwidth into the buffer, see {@link #bandwidth(int) bandwidth}.
+     * @param buffer At least size() values
+     * @return The buffer
+     */
+    public double[] bandwidth(double[] buffer) {
+        for (int i = 0; i < middle.length; i++) {
+            buffer[i] = bandwidth(i);
+        }
+        return buffer;
+    }
+
+    /**
+     * @return The bandwidth as new array
+     */
+    public double[] bandwidth() {
+        return bandwidth(new double[middle.length]);
+    }
+}
@@ -0,0 +1,7 @@
+package org.indic.records;
+
+/**
+ * Bollinger Bands for a range of periods, see {@link SweepMatrix}.
+ */
+public record BandSweep(SweepMatrix lower, SweepMatrix middle, SweepMatrix upper) {
+}
@@ -0,0 +1,43 @@
+package org.indic.records;
+
+import java.util.Objects;
+
+/**
+ * Columnar OHLCV series, index 0 is the oldest bar.
+ * All columns must have the same length.
+ * @param timestamps Bar timestamps, usually epoch millis
+ * @param open Opens
+ * @param high Highs
+ * @param low Lows
+ * @param close Closes
+ * @param volume Volumes
+ */
+public record BarSeries(long[] timestamps, double[] open, double[] high, double[] low, double[] close, long[] volume) {
+
+    public BarSeries {
+        int size = Objects.requireNonNull(close, "close").length;
+        if (Objects.requireNonNull(timestamps, "timestamps").length != size
+                || Objects.requireNonNull(open, "open").length != size
+                || Objects.requireNonNull(high, "high").length != size
+                || Objects.requireNonNull(low, "low").length != size
+                || Objects.requireNonNull(volume, "volume").length != size) {
+            throw new IllegalArgumentException("All columns must have the same length");
+        }
+    }
+
+    /**
+     * Allocates an empty series with room for size bars.
+     * @param size Number of bars
+     * @return The zero filled series
+     */
+    public static BarSeries allocate(int size) {
+        return new BarSeries(new long[size], new double[size], new double[size], new double[size], new double[size], new long[size]);
+    }
+
+    /**
+     * @return The number of bars
+     */
+    public int size() {
+        return close.length;
+    }
+}
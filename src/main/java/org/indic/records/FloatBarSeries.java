@@ -0,0 +1,79 @@
+package org.indic.records;
+
+import java.util.Objects;
+
+/**
+ * Columnar OHLCV series with float prices, half the memory of a {@link BarSeries}.
+ * Floats keep about 7 significant digits, e.g. cents up to 100,000. The float overloads of the
+ * indicators accumulate in double, so their results are the double results of the widened prices
+ * rounded to float. Index 0 is the oldest bar, all columns must have the same length.
+ * @param timestamps Bar timestamps, usually epoch millis
+ * @param open Opens
+ * @param high Highs
+ * @param low Lows
+ * @param close Closes
+ * @param volume Volumes
+ */
+public record FloatBarSeries(long[] timestamps, float[] open, float[] high, float[] low, float[] close, long[] volume) {
+
+    public FloatBarSeries {
+        int size = Objects.requireNonNull(close, "close").length;
+        if (Objects.requireNonNull(timestamps, "timestamps").length != size
+                || Objects.requireNonNull(open, "open").length != size
+                || Objects.requireNonNull(high, "high").length != size
+                || Objects.requireNonNull(low, "low").length != size
+                || Objects.requireNonNull(volume, "volume").length != size) {
+            throw new IllegalArgumentException("All columns must have the same length");
+        }
+    }
+
+    /**
+     * Allocates an empty series with room for size bars.
+     * @param size Number of bars
+     * @return The zero filled series
+     */
+    public static FloatBarSeries allocate(int size) {
+        return new FloatBarSeries(new long[size], new float[size], new float[size], new float[size], new float[size], new long[size]);
+    }
+
+    /**
+     * Rounds the prices of the series to float, timestamps and volumes are shared.
+     * @param series
+     * @return The float series
+     */
+    public static FloatBarSeries of(BarSeries series) {
+        return new FloatBarSeries(series.timestamps(), toFloats(series.open()), toFloats(series.high()),
+                toFloats(series.low()), toFloats(series.close()), series.volume());
+    }
+
+    /**
+     * Widens the prices to double, exactly. Timestamps and volumes are shared.
+     * @return The double series
+     */
+    public BarSeries toBarSeries() {
+        return new BarSeries(timestamps, toDoubles(open), toDoubles(high), toDoubles(low), toDoubles(close), volume);
+    }
+
+    /**
+     * @return The number of bars
+     */
+    public int size() {
+        return close.length;
+    }
+
+    public static float[] toFloats(double[] values) {
+        float[] floats = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            floats[i] = (float) values[i];
+        }
+        return floats;
+    }
+
+    public static double[] toDoubles(float[] values) {
+        double[] doubles = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            doubles[i] = values[i];
+        }
+        return doubles;
+    }
+}
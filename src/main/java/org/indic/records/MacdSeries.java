@@ -0,0 +1,66 @@
+package org.indic.records;
+
+import org.indic.indicators.ElementWise;
+
+import java.util.Objects;
+
+/**
+ * Macd line and signal, the histogram line - signal is derived:
+ * by index, into a caller provided buffer or as array calculated on first access and kept.
+ * The whole histogram is derived with the {@link ElementWise} kernels, vectorized if available.
+ */
+public final class MacdSeries {
+
+    private final double[] line;
+    private final double[] signal;
+    private volatile double[] histogram;
+
+    /**
+     * @param line The Macd line
+     * @param signal The signal line, same size as line
+     */
+    public MacdSeries(double[] line, double[] signal) {
+        if (Objects.requireNonNull(line, "line").length != Objects.requireNonNull(signal, "signal").length) {
+            throw new IllegalArgumentException("line and signal must have the same length");
+        }
+        this.line = line;
+        this.signal = signal;
+    }
+
+    public double[] line() {
+        return line;
+    }
+
+    public double[] signal() {
+        return signal;
+    }
+
+    public int size() {
+        return line.length;
+    }
+
+    public double histogram(int index) {
+        return line[index] - signal[index];
+    }
+
+    /**
+     * @return The histogram, calculated on first access
+     */
+    public double[] histogram() {
+        double[] values = histogram;
+        if (values == null) {
+            histogram = values = histogram(new double[line.length]);
+        }
+        return values;
+    }
+
+    /**
+     * Writes the histogram into the buffer.
+     * @param buffer At least size() values
+     * @return The buffer
+     */
+    public double[] histogram(double[] buffer) {
+        ElementWise.get().subtract(line, signal, buffer);
+        return buffer;
+    }
+}
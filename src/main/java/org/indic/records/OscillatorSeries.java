@@ -0,0 +1,4 @@
+package org.indic.records;
+
+public record OscillatorSeries(double[] k, double d, double d_3) {
+}
@@ -0,0 +1,68 @@
+package org.indic.records;
+
+import java.util.Arrays;
+
+/**
+ * Indicator values for a range of periods over the same series, one row per period.
+ * Rows are stored one after another, column t belongs to input index t,
+ * values before an indicator is ready are NaN.
+ * @param fromPeriod First period (row 0)
+ * @param toPeriod Last period, inclusive
+ * @param length Number of columns, the length of the input
+ * @param values The rows
+ */
+public record SweepMatrix(int fromPeriod, int toPeriod, int length, double[] values) {
+
+    public SweepMatrix {
+        if (fromPeriod > toPeriod) throw new IllegalArgumentException("fromPeriod must not be greater than toPeriod");
+        if (values.length != (long) (toPeriod - fromPeriod + 1) * length) {
+            throw new IllegalArgumentException("values must hold one row of length values per period");
+        }
+    }
+
+    /**
+     * Allocates a matrix for the periods fromPeriod to toPeriod.
+     * @param fromPeriod
+     * @param toPeriod
+     * @param length
+     * @return The zero filled matrix
+     * @throws ArithmeticException if the matrix does not fit into one array
+     */
+    public static SweepMatrix allocate(int fromPeriod, int toPeriod, int length) {
+        return new SweepMatrix(fromPeriod, toPeriod, length, new double[Math.multiplyExact(toPeriod - fromPeriod + 1, length)]);
+    }
+
+    /**
+     * @param period
+     * @return The index of the first value of the period in values
+     */
+    public int offset(int period) {
+        if (period < fromPeriod || period > toPeriod) throw new IndexOutOfBoundsException("period " + period);
+        return (period - fromPeriod) * length;
+    }
+
+    /**
+     * @param period
+     * @param index The input index
+     * @return The value, NaN while the indicator is not ready
+     */
+    public double get(int period, int index) {
+        return values[offset(period) + index];
+    }
+
+    /**
+     * @param period
+     * @return A copy of the values of the period
+     */
+    public double[] row(int period) {
+        int offset = offset(period);
+        return Arrays.copyOfRange(values, offset, offset + length);
+    }
+
+    /**
+     * @return The number of periods
+     */
+    public int periods() {
+        return toPeriod - fromPeriod + 1;
+    }
+}
@@ -0,0 +1,86 @@
+package org.indic.streaming;
+
+import org.indic.indicators.AverageTrueRange;
+
+/**
+ * Streaming counterpart of {@link AverageTrueRange#calculateAtr(int, double[], double[], double[]) calculateAtr}.
+ * The first true range is high - low, the initial atr is the average of
+ * the first period true ranges, after that Wilder smoothing is applied.
+ */
+public class AtrState {
+
+    private final int period;
+    private int count;
+    private double initial;
+    private double previousClose;
+    private double atr = Double.NaN;
+
+    public AtrState(int period) {
+        if (period <= 0) throw new IllegalArgumentException("period must be positive");
+        this.period = period;
+    }
+
+    /**
+     * Creates a state and feeds it with the given history.
+     * @param period
+     * @param closes
+     * @param highs
+     * @param lows
+     * @return The seeded state
+     */
+    public static AtrState seeded(int period, double[] closes, double[] highs, double[] lows) {
+        AtrState state = new AtrState(period);
+        for (int i = 0; i < closes.length; i++) {
+            state.update(highs[i], lows[i], closes[i]);
+        }
+        return state;
+    }
+
+    /**
+     * Adds the next bar.
+     * @param high
+     * @param low
+     * @param close
+     * @return The current atr, NaN until period bars were added
+     */
+    public double update(double high, double low, double close) {
+        double tr = count == 0 ? high - low : AverageTrueRange.calculateTR(high, low, previousClose);
+        previousClose = close;
+
+        if (count < period) {
+            initial += tr;
+            if (++count == period) {
+                atr = initial / period;
+            }
+            return atr;
+        }
+        atr = ((atr * (period - 1)) + tr) / period;
+        return atr;
+    }
+
+    /**
+     * Returns the atr as if the bar was added, e.g. a bar that is not completed yet.
+     * The state is not changed.
+     * @param high
+     * @param low
+     * @param close
+     * @return The atr including the bar, NaN if it would not be ready
+     */
+    public double peek(double high, double low, double close) {
+        if (count < period - 1) return Double.NaN;
+        double tr = count == 0 ? high - low : AverageTrueRange.calculateTR(high, low, previousClose);
+        if (count == period - 1) return (initial + tr) / period;
+        return ((atr * (period - 1)) + tr) / period;
+    }
+
+    /**
+     * @return The current atr, NaN until period bars were added
+     */
+    public double value() {
+        return atr;
+    }
+
+    public boolean isReady() {
+        return count >= period;
+    }
+}
@@ -0,0 +1,102 @@
+package org.indic.streaming;
+
+import java.time.Duration;
+
+/**
+ * Aggregates trades (timestamp, price, size) into OHLCV bars and passes every completed
+ * bar to a {@link BarConsumer}, e.g. one that updates indicator states.
+ * Only the bar being built is kept, a tick costs a few comparisons and no allocation.
+ * <ul>
+ *     <li>Time bars cover [start, start + interval), start is a multiple of the interval
+ *     and the bar timestamp. A bar is completed by the first tick of a later interval,
+ *     intervals without ticks produce no bar. Late ticks go into the current bar, ticks of an
+ *     interval that was already completed, e.g. by {@link #flush()}, into the bar after it.</li>
+ *     <li>Volume bars are completed by the tick that brings their volume to at least
+ *     volumePerBar, ticks are not split. The bar timestamp is the time of its first tick.</li>
+ * </ul>
+ */
+public final class BarAggregator {
+
+    private final BarBuilder bar;
+    private final long volumePerBar;
+    private final BarConsumer consumer;
+
+    private BarAggregator(long interval, long volumePerBar, BarConsumer consumer) {
+        this.bar = new BarBuilder(interval);
+        this.volumePerBar = volumePerBar;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Creates an aggregator for time bars, e.g. Duration.ofMinutes(5).
+     * @param interval The bar length, at least one milli
+     * @param consumer Receives the completed bars
+     * @return The aggregator
+     */
+    public static BarAggregator timeBars(Duration interval, BarConsumer consumer) {
+        return timeBars(interval.toMillis(), consumer);
+    }
+
+    /**
+     * Creates an aggregator for time bars.
+     * @param intervalMillis The bar length in the unit of the tick timestamps, usually millis
+     * @param consumer Receives the completed bars
+     * @return The aggregator
+     */
+    public static BarAggregator timeBars(long intervalMillis, BarConsumer consumer) {
+        if (intervalMillis <= 0) throw new IllegalArgumentException("interval must be positive");
+        return new BarAggregator(intervalMillis, 0, consumer);
+    }
+
+    /**
+     * Creates an aggregator for volume bars.
+     * @param volumePerBar The volume after which a bar is completed
+     * @param consumer Receives the completed bars
+     * @return The aggregator
+     */
+    public static BarAggregator volumeBars(long volumePerBar, BarConsumer consumer) {
+        if (volumePerBar <= 0) throw new IllegalArgumentException("volumePerBar must be positive");
+        return new BarAggregator(0, volumePerBar, consumer);
+    }
+
+    /**
+     * Adds a trade.
+     * @param timestamp
+     * @param price
+     * @param size
+     */
+    public void tick(long timestamp, double price, long size) {
+        if (bar.endsBefore(timestamp)) {
+            bar.emit(consumer);
+        }
+        bar.add(timestamp, price, price, price, price, size);
+        if (volumePerBar > 0 && bar.volume() >= volumePerBar) {
+            bar.emit(consumer);
+        }
+    }
+
+    /**
+     * Completes the current bar even if its interval or volume is not reached,
+     * e.g. at the end of the feed.
+     * @return true if a bar was emitted
+     */
+    public boolean flush() {
+        if (!bar.isOpen()) return false;
+        bar.emit(consumer);
+        return true;
+    }
+
+    /**
+     * @return true if ticks were added since the last completed bar
+     */
+    public boolean hasOpenBar() {
+        return bar.isOpen();
+    }
+
+    /**
+     * @return The number of completed bars
+     */
+    public long bars() {
+        return bar.bars();
+    }
+}
@@ -0,0 +1,115 @@
+package org.indic.streaming;
+
+/**
+ * The bar that is being built by a {@link BarAggregator} or a {@link Timeframe}.
+ * With an interval, bars cover [start, start + interval), start is a multiple of the
+ * interval and the bar timestamp. Without one the bar timestamp is the time of its first value.
+ * Values added after the bar was started are merged into it, late ones included.
+ * A late value never reopens a completed interval, it starts the bar after it.
+ * The owner decides when the bar is completed.
+ */
+final class BarBuilder {
+
+    private final long interval;
+
+    private boolean open;
+    private long timestamp;
+    private long end = Long.MIN_VALUE;
+    private double openPrice;
+    private double high;
+    private double low;
+    private double close;
+    private long volume;
+    private long bars;
+
+    /**
+     * @param interval The bar length, 0 for bars that are not bounded by time
+     */
+    BarBuilder(long interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * @param timestamp
+     * @return true if a bar is open and the timestamp lies in a later interval
+     */
+    boolean endsBefore(long timestamp) {
+        return open && interval > 0 && timestamp >= end;
+    }
+
+    /**
+     * Starts a bar with the values if none is open, otherwise merges them into the open bar.
+     */
+    void add(long timestamp, double open, double high, double low, double close, long volume) {
+        if (!this.open) {
+            this.open = true;
+            if (interval > 0) {
+                this.timestamp = Math.max(Math.floorDiv(timestamp, interval) * interval, end);
+                this.end = this.timestamp + interval;
+            } else {
+                this.timestamp = timestamp;
+            }
+            this.openPrice = open;
+            this.high = high;
+            this.low = low;
+            this.volume = 0;
+        } else {
+            if (high > this.high) this.high = high;
+            if (low < this.low) this.low = low;
+        }
+        this.close = close;
+        this.volume += volume;
+    }
+
+    /**
+     * Completes the open bar and passes it to the consumer.
+     * @param consumer
+     */
+    void emit(BarConsumer consumer) {
+        open = false;
+        bars++;
+        consumer.accept(timestamp, openPrice, high, low, close, volume);
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+
+    long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return The end of the interval of the open bar, exclusive
+     */
+    long end() {
+        return end;
+    }
+
+    double open() {
+        return openPrice;
+    }
+
+    double high() {
+        return high;
+    }
+
+    double low() {
+        return low;
+    }
+
+    double close() {
+        return close;
+    }
+
+    long volume() {
+        return volume;
+    }
+
+    /**
+     * @return The number of completed bars
+     */
+    long bars() {
+        return bars;
+    }
+}
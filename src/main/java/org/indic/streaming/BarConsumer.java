@@ -0,0 +1,10 @@
+package org.indic.streaming;
+
+/**
+ * Receives bars one at a time, e.g. to feed them into indicator states.
+ */
+@FunctionalInterface
+public interface BarConsumer {
+
+    void accept(long timestamp, double open, double high, double low, double close, long volume);
+}
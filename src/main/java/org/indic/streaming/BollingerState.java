@@ -0,0 +1,87 @@
+package org.indic.streaming;
+
+import org.indic.indicators.RollingStatistics;
+
+/**
+ * Streaming counterpart of {@link org.indic.indicators.BollingerBands#calculate(int, double[], int) calculate}.
+ * Uses the same {@link RollingStatistics} window as the batch calculation,
+ * so the bands match it exactly.
+ */
+public class BollingerState {
+
+    private final int width;
+    private final RollingStatistics window;
+
+    public BollingerState(int period, int width) {
+        this.width = width;
+        this.window = new RollingStatistics(period);
+    }
+
+    /**
+     * Creates a state and feeds it with the given history.
+     * @param period
+     * @param prices
+     * @param width
+     * @return The seeded state
+     */
+    public static BollingerState seeded(int period, double[] prices, int width) {
+        BollingerState state = new BollingerState(period, width);
+        for (double price : prices) {
+            state.update(price);
+        }
+        return state;
+    }
+
+    /**
+     * Adds the next price.
+     * @param price
+     * @return The current middle band, NaN until period prices were added
+     */
+    public double update(double price) {
+        window.add(price);
+        return middle();
+    }
+
+    /**
+     * Returns the middle band as if the price was added, e.g. the close of a bar that is not
+     * completed yet. The state is not changed.
+     * @param price
+     * @return The middle band including the price, NaN if it would not be ready
+     */
+    public double peekMiddle(double price) {
+        return readyAfterPeek() ? window.peekMean(price) : Double.NaN;
+    }
+
+    /**
+     * Returns the standard deviation as if the price was added. The state is not changed.
+     * @param price
+     * @return The standard deviation including the price, NaN if it would not be ready
+     */
+    public double peekDeviation(double price) {
+        return readyAfterPeek() ? window.peekStandardDeviation(price) : Double.NaN;
+    }
+
+    private boolean readyAfterPeek() {
+        return window.count() >= window.period() - 1;
+    }
+
+    public double middle() {
+        return isReady() ? window.mean() : Double.NaN;
+    }
+
+    public double deviation() {
+        return isReady() ? window.standardDeviation() : Double.NaN;
+    }
+
+    public double upper() {
+        return middle() + width * deviation();
+    }
+
+    public double lower() {
+        return middle() - width * deviation();
+    }
+
+    public boolean isReady() {
+        return window.isFull();
+    }
+}
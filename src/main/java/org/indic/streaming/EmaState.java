@@ -0,0 +1,81 @@
+package org.indic.streaming;
+
+import org.indic.indicators.CompensatedSum;
+
+/**
+ * Streaming counterpart of {@link org.indic.indicators.IndicatorUtils#ema(double[], int) ema}.
+ * The first period prices build the initial sma, after that every
+ * update is ema = (price - ema) * 2 / (period + 1) + ema.
+ */
+public class EmaState {
+
+    private final int period;
+    private final double multiplier;
+    private final CompensatedSum initial = new CompensatedSum();
+    private int count;
+    private double ema = Double.NaN;
+
+    public EmaState(int period) {
+        if (period <= 0) throw new IllegalArgumentException("period must be positive");
+        this.period = period;
+        this.multiplier = 2.0 / (period + 1);
+    }
+
+    /**
+     * Creates a state and feeds it with the given history.
+     * @param period
+     * @param prices History with oldest (index 0)
+     * @return The seeded state
+     */
+    public static EmaState seeded(int period, double[] prices) {
+        EmaState state = new EmaState(period);
+        for (double price : prices) {
+            state.update(price);
+        }
+        return state;
+    }
+
+    /**
+     * Adds the next price.
+     * @param price
+     * @return The current ema, NaN until period prices were added
+     */
+    public double update(double price) {
+        if (count < period) {
+            initial.add(price);
+            if (++count == period) {
+                ema = initial.sum() / period;
+            }
+            return ema;
+        }
+        ema = (price - ema) * multiplier + ema;
+        return ema;
+    }
+
+    /**
+     * Returns the ema as if the price was added, e.g. the close of a bar that is not
+     * completed yet. The state is not changed.
+     * @param price
+     * @return The ema including the price, NaN if it would not be ready
+     */
+    public double peek(double price) {
+        if (count < period - 1) return Double.NaN;
+        if (count == period - 1) return initial.peek(price) / period;
+        return (price - ema) * multiplier + ema;
+    }
+
+    /**
+     * @return The current ema, NaN until period prices were added
+     */
+    public double value() {
+        return ema;
+    }
+
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    public int period() {
+        return period;
+    }
+}
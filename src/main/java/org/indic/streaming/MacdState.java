@@ -0,0 +1,90 @@
+package org.indic.streaming;
+
+/**
+ * Streaming moving average convergence/divergence.<br></br>
+ * Unlike {@link org.indic.indicators.Macd#calculateLine(int, int, double[]) calculateLine}
+ * the line is not padded with the sma of the whole history, since that
+ * would need future prices. The line starts once both emas are ready
+ * and the signal is the ema of the line from there on.
+ */
+public class MacdState {
+
+    private final EmaState shortEma;
+    private final EmaState longEma;
+    private final EmaState signalEma;
+    private double line = Double.NaN;
+    private double signal = Double.NaN;
+
+    public MacdState(int shortPeriod, int longPeriod, int signalPeriod) {
+        this.shortEma = new EmaState(shortPeriod);
+        this.longEma = new EmaState(longPeriod);
+        this.signalEma = new EmaState(signalPeriod);
+    }
+
+    /**
+     * Creates a state and feeds it with the given history.
+     * @param shortPeriod
+     * @param longPeriod
+     * @param signalPeriod
+     * @param prices
+     * @return The seeded state
+     */
+    public static MacdState seeded(int shortPeriod, int longPeriod, int signalPeriod, double[] prices) {
+        MacdState state = new MacdState(shortPeriod, longPeriod, signalPeriod);
+        for (double price : prices) {
+            state.update(price);
+        }
+        return state;
+    }
+
+    /**
+     * Adds the next price.
+     * @param price
+     * @return The current macd line, NaN until both emas are ready
+     */
+    public double update(double price) {
+        double shortValue = shortEma.update(price);
+        double longValue = longEma.update(price);
+        if (shortEma.isReady() && longEma.isReady()) {
+            line = shortValue - longValue;
+            signal = signalEma.update(line);
+        }
+        return line;
+    }
+
+    /**
+     * Returns the macd line as if the price was added, e.g. the close of a bar that is not
+     * completed yet. The state is not changed.
+     * @param price
+     * @return The macd line including the price, NaN if it would not be ready
+     */
+    public double peek(double price) {
+        return shortEma.peek(price) - longEma.peek(price);
+    }
+
+    /**
+     * Returns the signal line as if the price was added. The state is not changed.
+     * @param price
+     * @return The signal line including the price, NaN if it would not be ready
+     */
+    public double peekSignal(double price) {
+        double peekedLine = peek(price);
+        return Double.isNaN(peekedLine) ? signal : signalEma.peek(peekedLine);
+    }
+
+    public double line() {
+        return line;
+    }
+
+    public double signal() {
+        return signal;
+    }
+
+    public double histogram() {
+        return line - signal;
+    }
+
+    public boolean isReady() {
+        return signalEma.isReady();
+    }
+}
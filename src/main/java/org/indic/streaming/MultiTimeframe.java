@@ -0,0 +1,106 @@
+package org.indic.streaming;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes indicators on several timeframes from one stream of base bars, e.g. 5m, 15m
+ * and 1h indicators from 1m bars. Every base bar is added to all timeframes in a single
+ * pass, each timeframe only keeps the bar it is building and updates its indicator states
+ * once that bar is completed, so no higher timeframe series is resampled or recalculated.
+ * <pre>{@code
+ * MultiTimeframe feed = new MultiTimeframe(Duration.ofMinutes(1));
+ * Timeframe hour = feed.timeframe(Duration.ofHours(1));
+ * RsiState rsi = hour.rsi(14);
+ * reader.forEach(feed);
+ * double current = hour.hasPartialBar() ? rsi.peek(hour.partialClose()) : rsi.value();
+ * }</pre>
+ * Not thread safe.
+ */
+public final class MultiTimeframe implements BarConsumer {
+
+    private final long baseInterval;
+    private final Map<Long, Timeframe> timeframes = new LinkedHashMap<>();
+    private Timeframe[] order = new Timeframe[0];
+
+    /**
+     * @param baseInterval The length of the base bars, at least one milli
+     */
+    public MultiTimeframe(Duration baseInterval) {
+        this(baseInterval.toMillis());
+    }
+
+    /**
+     * @param baseInterval The length of the base bars in the unit of their timestamps, usually millis
+     */
+    public MultiTimeframe(long baseInterval) {
+        if (baseInterval <= 0) throw new IllegalArgumentException("interval must be positive");
+        this.baseInterval = baseInterval;
+    }
+
+    /**
+     * Returns the timeframe of the interval, it is created on first use and only
+     * receives the base bars added after that.
+     * @param interval A multiple of the base interval
+     * @return The timeframe
+     */
+    public Timeframe timeframe(Duration interval) {
+        return timeframe(interval.toMillis());
+    }
+
+    /**
+     * Returns the timeframe of the interval, it is created on first use and only
+     * receives the base bars added after that.
+     * @param interval A multiple of the base interval in the unit of the timestamps
+     * @return The timeframe
+     */
+    public Timeframe timeframe(long interval) {
+        if (interval <= 0 || interval % baseInterval != 0) {
+            throw new IllegalArgumentException("interval must be a multiple of the base interval");
+        }
+        Timeframe timeframe = timeframes.get(interval);
+        if (timeframe == null) {
+            timeframe = new Timeframe(interval, baseInterval);
+            timeframes.put(interval, timeframe);
+            order = timeframes.values().toArray(new Timeframe[0]);
+        }
+        return timeframe;
+    }
+
+    /**
+     * Adds the next base bar to every timeframe.
+     * @param timestamp The start of the base bar
+     */
+    @Override
+    public void accept(long timestamp, double open, double high, double low, double close, long volume) {
+        for (Timeframe timeframe : order) {
+            timeframe.add(timestamp, open, high, low, close, volume);
+        }
+    }
+
+    /**
+     * Completes the partial bars of all timeframes, e.g. at the end of the feed.
+     * @return The number of emitted bars
+     */
+    public int flush() {
+        int emitted = 0;
+        for (Timeframe timeframe : order) {
+            if (timeframe.flush()) emitted++;
+        }
+        return emitted;
+    }
+
+    /**
+     * @return The timeframes in the order they were created
+     */
+    public List<Timeframe> timeframes() {
+        return new ArrayList<>(timeframes.values());
+    }
+
+    public long baseInterval() {
+        return baseInterval;
+    }
+}
@@ -0,0 +1,52 @@
+package org.indic.streaming;
+
+/**
+ * Streaming counterpart of {@link org.indic.indicators.OnBalanceVolume#calculate(double[], long[]) calculate}.
+ * The first volume is the initial obv.
+ */
+public class ObvState {
+
+    private boolean started;
+    private double previousClose;
+    private long obv;
+
+    /**
+     * Creates a state and feeds it with the given history.
+     * @param closes
+     * @param volumes
+     * @return The seeded state
+     */
+    public static ObvState seeded(double[] closes, long[] volumes) {
+        ObvState state = new ObvState();
+        for (int i = 0; i < closes.length; i++) {
+            state.update(closes[i], volumes[i]);
+        }
+        return state;
+    }
+
+    /**
+     * Adds the next bar.
+     * @param close
+     * @param volume
+     * @return The current obv
+     */
+    public long update(double close, long volume) {
+        if (!started) {
+            started = true;
+            obv = volume;
+        } else {
+            double diff = close - previousClose;
+            if (diff > 0) {
+                obv += volume;
+            } else if (diff < 0) {
+                obv -= volume;
+            }
+        }
+        previousClose = close;
+        return obv;
+    }
+
+    public long value() {
+        return obv;
+    }
+}
@@ -0,0 +1,134 @@
+package org.indic.streaming;
+
+import org.indic.indicators.CompensatedSum;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.indicators.RelativeStrengthIndex.Smoothing;
+
+/**
+ * Streaming counterpart of {@link RelativeStrengthIndex#calculate(int, double[], Smoothing) calculate}.
+ * The first rsi is emitted with the close at index period.
+ */
+public class RsiState {
+
+    private final int period;
+    private final Smoothing smoothing;
+    private long count;
+    private double previousClose;
+    private final CompensatedSum gainSum = new CompensatedSum();
+    private final CompensatedSum lossSum = new CompensatedSum();
+    private double gains;
+    private double losses;
+    private double rsi = Double.NaN;
+
+    /**
+     * Creates a state with {@link Smoothing#CUMULATIVE} averages.
+     * @param period
+     */
+    public RsiState(int period) {
+        this(period, Smoothing.CUMULATIVE);
+    }
+
+    public RsiState(int period, Smoothing smoothing) {
+        if (period <= 0) throw new IllegalArgumentException("period must be positive");
+        this.period = period;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Creates a state and feeds it with the given history.
+     * @param period
+     * @param closes
+     * @return The seeded state
+     */
+    public static RsiState seeded(int period, double[] closes) {
+        return seeded(period, closes, Smoothing.CUMULATIVE);
+    }
+
+    /**
+     * Creates a state and feeds it with the given history.
+     * @param period
+     * @param closes
+     * @param smoothing
+     * @return The seeded state
+     */
+    public static RsiState seeded(int period, double[] closes, Smoothing smoothing) {
+        RsiState state = new RsiState(period, smoothing);
+        for (double close : closes) {
+            state.update(close);
+        }
+        return state;
+    }
+
+    /**
+     * Adds the next close.
+     * @param close
+     * @return The current rsi, NaN until period + 1 closes were added
+     */
+    public double update(double close) {
+        long index = count++;
+        if (index == 0) {
+            previousClose = close;
+            return rsi;
+        }
+
+        double diff = close - previousClose;
+        previousClose = close;
+
+        if (index > period && smoothing == Smoothing.WILDER) {
+            // gains and losses hold the smoothed averages from here on
+            gains = (gains * (period - 1) + (diff > 0 ? diff : 0.0)) / period;
+            losses = (losses * (period - 1) + (diff > 0 ? 0.0 : -diff)) / period;
+            rsi = RelativeStrengthIndex.rsi(gains, losses);
+            return rsi;
+        }
+
+        if (diff > 0) {
+            gainSum.add(diff);
+        } else {
+            lossSum.add(-diff);
+        }
+
+        if (index >= period) {
+            if (smoothing == Smoothing.WILDER) {
+                gains = gainSum.sum() / period;
+                losses = lossSum.sum() / period;
+                rsi = RelativeStrengthIndex.rsi(gains, losses);
+            } else {
+                rsi = RelativeStrengthIndex.rsi(gainSum.sum() / index, lossSum.sum() / index);
+            }
+        }
+        return rsi;
+    }
+
+    /**
+     * Returns the rsi as if the close was added, e.g. the close of a bar that is not
+     * completed yet. The state is not changed.
+     * @param close
+     * @return The rsi including the close, NaN if it would not be ready
+     */
+    public double peek(double close) {
+        if (count < period) return Double.NaN;
+
+        double diff = close - previousClose;
+        if (smoothing == Smoothing.WILDER && count > period) {
+            double gain = diff > 0 ? diff : 0.0;
+            double loss = diff > 0 ? 0.0 : -diff;
+            return RelativeStrengthIndex.rsi((gains * (period - 1) + gain) / period, (losses * (period - 1) + loss) / period);
+        }
+        double gainTotal = diff > 0 ? gainSum.peek(diff) : gainSum.sum();
+        double lossTotal = diff > 0 ? lossSum.sum() : lossSum.peek(-diff);
+        long divisor = smoothing == Smoothing.WILDER ? period : count;
+        return RelativeStrengthIndex.rsi(gainTotal / divisor, lossTotal / divisor);
+    }
+
+    /**
+     * @return The current rsi, NaN until period + 1 closes were added
+     */
+    public double value() {
+        return rsi;
+    }
+
+    public boolean isReady() {
+        return count > period;
+    }
+}
@@ -0,0 +1,83 @@
+package org.indic.streaming;
+
+import org.indic.indicators.RollingMinMax;
+
+/**
+ * Streaming counterpart of {@link org.indic.indicators.StochasticOscillator#calculate(int, double[], double[], double[]) calculate}.
+ * High and low of the last period bars are tracked with a {@link RollingMinMax},
+ * k is emitted once period bars were added.
+ */
+public class StochasticState {
+
+    private final RollingMinMax window;
+    private double k = Double.NaN;
+    private long kCount;
+    private double kSum;
+    private double k1 = Double.NaN;
+    private double k2 = Double.NaN;
+
+    public StochasticState(int period) {
+        this.window = new RollingMinMax(period);
+    }
+
+    /**
+     * Creates a state and feeds it with the given history.
+     * @param period
+     * @param closes
+     * @param highs
+     * @param lows
+     * @return The seeded state
+     */
+    public static StochasticState seeded(int period, double[] closes, double[] highs, double[] lows) {
+        StochasticState state = new StochasticState(period);
+        for (int i = 0; i < closes.length; i++) {
+            state.update(closes[i], highs[i], lows[i]);
+        }
+        return state;
+    }
+
+    /**
+     * Adds the next bar.
+     * @param close
+     * @param high
+     * @param low
+     * @return The current k, NaN until period bars were added
+     */
+    public double update(double close, double high, double low) {
+        window.add(high, low);
+        if (!window.isFull()) return k;
+
+        double lowest = window.min();
+        k2 = k1;
+        k1 = k;
+        k = 100 * ((close - lowest) / (window.max() - lowest));
+        kSum += k;
+        kCount++;
+        return k;
+    }
+
+    /**
+     * @return The current k, NaN until period bars were added
+     */
+    public double k() {
+        return k;
+    }
+
+    /**
+     * @return The average of all k values
+     */
+    public double d() {
+        return kSum / kCount;
+    }
+
+    /**
+     * @return The average of the last three k values, NaN until three k values exist
+     */
+    public double d3() {
+        return (k2 + k1 + k) / 3;
+    }
+
+    public boolean isReady() {
+        return window.isFull();
+    }
+}
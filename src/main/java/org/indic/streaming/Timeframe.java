@@ -0,0 +1,195 @@
+package org.indic.streaming;
+
+import org.indic.indicators.RelativeStrengthIndex.Smoothing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One timeframe of a {@link MultiTimeframe}, it builds its bars from the base bars and
+ * feeds every completed bar into its indicator states and consumers.
+ * The bar that is still forming is available through the partial accessors, pass its
+ * values to the peek methods of the states to get the indicators as if it closed now,
+ * e.g. {@code rsi.peek(timeframe.partialClose())}.
+ */
+public final class Timeframe {
+
+    private final long interval;
+    private final long baseInterval;
+    private final List<BarConsumer> consumers = new ArrayList<>();
+    private final BarBuilder bar;
+    private final BarConsumer publisher = this::publish;
+
+    Timeframe(long interval, long baseInterval) {
+        this.interval = interval;
+        this.baseInterval = baseInterval;
+        this.bar = new BarBuilder(interval);
+    }
+
+    /**
+     * Adds a base bar. Base bars are timestamped with the start of their interval, the
+     * bar is completed by its last base bar, or by the first base bar of a later interval
+     * if base bars are missing. Late base bars go into the current bar, or into the next one
+     * if their bar was already completed. Bars are built like the time bars of a {@link BarAggregator}.
+     */
+    void add(long timestamp, double open, double high, double low, double close, long volume) {
+        if (bar.endsBefore(timestamp)) {
+            bar.emit(publisher);
+        }
+        bar.add(timestamp, open, high, low, close, volume);
+        if (timestamp + baseInterval >= bar.end()) {
+            bar.emit(publisher);
+        }
+    }
+
+    /**
+     * Completes the partial bar, e.g. at the end of the feed.
+     * @return true if a bar was emitted
+     */
+    boolean flush() {
+        if (!bar.isOpen()) return false;
+        bar.emit(publisher);
+        return true;
+    }
+
+    private void publish(long timestamp, double open, double high, double low, double close, long volume) {
+        for (BarConsumer consumer : consumers) {
+            consumer.accept(timestamp, open, high, low, close, volume);
+        }
+    }
+
+    /**
+     * Adds a consumer that receives every completed bar of this timeframe,
+     * after the consumers that were added before.
+     * @param consumer
+     */
+    public void addConsumer(BarConsumer consumer) {
+        consumers.add(consumer);
+    }
+
+    /**
+     * @param period
+     * @return A new ema state that is updated with the close of every completed bar
+     */
+    public EmaState ema(int period) {
+        EmaState state = new EmaState(period);
+        addConsumer((t, o, h, l, c, v) -> state.update(c));
+        return state;
+    }
+
+    /**
+     * @param period
+     * @return A new rsi state with {@link Smoothing#CUMULATIVE} averages that is updated
+     * with the close of every completed bar
+     */
+    public RsiState rsi(int period) {
+        return rsi(period, Smoothing.CUMULATIVE);
+    }
+
+    /**
+     * @param period
+     * @param smoothing
+     * @return A new rsi state that is updated with the close of every completed bar
+     */
+    public RsiState rsi(int period, Smoothing smoothing) {
+        RsiState state = new RsiState(period, smoothing);
+        addConsumer((t, o, h, l, c, v) -> state.update(c));
+        return state;
+    }
+
+    /**
+     * @param shortPeriod
+     * @param longPeriod
+     * @param signalPeriod
+     * @return A new macd state that is updated with the close of every completed bar
+     */
+    public MacdState macd(int shortPeriod, int longPeriod, int signalPeriod) {
+        MacdState state = new MacdState(shortPeriod, longPeriod, signalPeriod);
+        addConsumer((t, o, h, l, c, v) -> state.update(c));
+        return state;
+    }
+
+    /**
+     * @param period
+     * @param width
+     * @return A new bollinger state that is updated with the close of every completed bar
+     */
+    public BollingerState bollinger(int period, int width) {
+        BollingerState state = new BollingerState(period, width);
+        addConsumer((t, o, h, l, c, v) -> state.update(c));
+        return state;
+    }
+
+    /**
+     * @param period
+     * @return A new atr state that is updated with every completed bar
+     */
+    public AtrState atr(int period) {
+        AtrState state = new AtrState(period);
+        addConsumer((t, o, h, l, c, v) -> state.update(h, l, c));
+        return state;
+    }
+
+    /**
+     * @return The bar length in the unit of the timestamps
+     */
+    public long interval() {
+        return interval;
+    }
+
+    /**
+     * @return The number of completed bars
+     */
+    public long bars() {
+        return bar.bars();
+    }
+
+    /**
+     * @return true if base bars were added since the last completed bar
+     */
+    public boolean hasPartialBar() {
+        return bar.isOpen();
+    }
+
+    /**
+     * @return The start of the partial bar, only valid if {@link #hasPartialBar()}
+     */
+    public long partialTimestamp() {
+        return bar.timestamp();
+    }
+
+    /**
+     * @return The open of the partial bar, only valid if {@link #hasPartialBar()}
+     */
+    public double partialOpen() {
+        return bar.open();
+    }
+
+    /**
+     * @return The high of the partial bar so far, only valid if {@link #hasPartialBar()}
+     */
+    public double partialHigh() {
+        return bar.high();
+    }
+
+    /**
+     * @return The low of the partial bar so far, only valid if {@link #hasPartialBar()}
+     */
+    public double partialLow() {
+        return bar.low();
+    }
+
+    /**
+     * @return The latest close of the partial bar, only valid if {@link #hasPartialBar()}
+     */
+    public double partialClose() {
+        return bar.close();
+    }
+
+    /**
+     * @return The volume of the partial bar so far, only valid if {@link #hasPartialBar()}
+     */
+    public long partialVolume() {
+        return bar.volume();
+    }
+}
@@ -0,0 +1,100 @@
+import org.indic.backtest.Backtest;
+import org.indic.backtest.Strategy;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.records.BacktestResult;
+import org.indic.records.BarSeries;
+import org.indic.streaming.EmaState;
+import org.indic.streaming.RsiState;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BacktestTest {
+
+    @Test
+    void accountingTest() {
+        BarSeries series = BarSeries.allocate(4);
+        double[] opens = {10, 11, 13, 12};
+        double[] closes = {11, 12, 10, 14};
+        for (int i = 0; i < 4; i++) {
+            series.timestamps()[i] = i;
+            series.open()[i] = opens[i];
+            series.high()[i] = Math.max(opens[i], closes[i]);
+            series.low()[i] = Math.min(opens[i], closes[i]);
+            series.close()[i] = closes[i];
+        }
+
+        // long from the open of bar 1, flat from the open of bar 3
+        double[] targets = {1, 1, 0, -1};
+        int[] bar = {0};
+        BacktestResult result = Backtest.run(series, (timestamp, open, high, low, close, volume) -> targets[bar[0]++]);
+
+        assertEquals(4, result.bars());
+        assertEquals(2, result.trades());
+        assertEquals(2, result.barsInMarket());
+        assertEquals(12 - 11, result.pnl());
+        assertEquals(2, result.maxDrawdown());
+        assertEquals(0, result.position());
+    }
+
+    @Test
+    void replayMatchesBatchTest() {
+        BarSeries series = BatchEngineTest.randomSeries(5_000, 61);
+        double[] ema = IndicatorUtils.ema(series.close(), 20);
+        double[] rsi = RelativeStrengthIndex.calculate(14, series.close());
+
+        EmaState emaState = new EmaState(20);
+        RsiState rsiState = new RsiState(14);
+        int[] index = {0};
+        Backtest.run(series, (timestamp, open, high, low, close, volume) -> {
+            int i = index[0]++;
+            double emaValue = emaState.update(close);
+            double rsiValue = rsiState.update(close);
+            if (i >= 19) assertEquals(ema[i - 19], emaValue);
+            if (i >= 14) assertEquals(rsi[i - 14], rsiValue);
+            return 0;
+        });
+        assertEquals(5_000, index[0]);
+    }
+
+    @Test
+    void parallelRunsTest() {
+        BarSeries series = BatchEngineTest.randomSeries(10_000, 67);
+        List<int[]> parameters = List.of(new int[]{5, 20}, new int[]{10, 50}, new int[]{20, 100}, new int[]{50, 200});
+        Map<String, BarSeries> universe = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            universe.put("S" + i, BatchEngineTest.randomSeries(2_000 + i, i));
+        }
+
+        try (Backtest backtest = new Backtest(4)) {
+            List<BacktestResult> results = backtest.run(series, parameters, p -> crossover(p[0], p[1]));
+            assertEquals(parameters.size(), results.size());
+            for (int i = 0; i < parameters.size(); i++) {
+                assertEquals(Backtest.run(series, crossover(parameters.get(i)[0], parameters.get(i)[1])), results.get(i));
+                assertTrue(results.get(i).trades() > 0);
+            }
+
+            Map<String, BacktestResult> bySymbol = backtest.run(universe, () -> crossover(10, 50));
+            assertEquals(universe.keySet(), bySymbol.keySet());
+            for (Map.Entry<String, BarSeries> entry : universe.entrySet()) {
+                assertEquals(Backtest.run(entry.getValue(), crossover(10, 50)), bySymbol.get(entry.getKey()));
+            }
+        }
+    }
+
+    static Strategy crossover(int fast, int slow) {
+        EmaState fastEma = new EmaState(fast);
+        EmaState slowEma = new EmaState(slow);
+        return (timestamp, open, high, low, close, volume) -> {
+            double f = fastEma.update(close);
+            double s = slowEma.update(close);
+            if (!slowEma.isReady()) return 0;
+            return f > s ? 1 : -1;
+        };
+    }
+}
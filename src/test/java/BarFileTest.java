@@ -0,0 +1,107 @@
+import org.indic.indicators.IndicatorUtils;
+import org.indic.io.BarFileReader;
+import org.indic.io.BarFileWriter;
+import org.indic.records.BarSeries;
+import org.indic.streaming.EmaState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BarFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeAndReadTest() throws IOException {
+        BarSeries series = BatchEngineTest.randomSeries(1_000, 21);
+        Path file = directory.resolve("bars.bin");
+        try (BarFileWriter writer = new BarFileWriter(file, series.size())) {
+            writer.append(slice(series, 0, 400));
+            writer.append(slice(series, 400, 1_000));
+        }
+
+        // 2^6 values per segment, so columns span several mappings
+        try (BarFileReader reader = new BarFileReader(file, 6)) {
+            assertEquals(1_000, reader.size());
+            BarSeries read = reader.read(0, 1_000);
+            assertArrayEquals(series.timestamps(), read.timestamps());
+            assertArrayEquals(series.close(), read.close());
+            assertArrayEquals(series.high(), read.high());
+            assertArrayEquals(series.volume(), read.volume());
+            assertEquals(series.low()[777], reader.lows().get(777));
+            assertEquals(10, reader.closes().view(64, 10).remaining());
+            assertEquals(0, reader.closes().view(1_000, 0).remaining());
+            assertEquals(0, reader.timestamps().view(64, 0).remaining());
+        }
+    }
+
+    @Test
+    void timeRangeTest() throws IOException {
+        BarSeries series = BatchEngineTest.randomSeries(500, 22);
+        Path file = directory.resolve("range.bin");
+        BarFileWriter.write(file, series);
+
+        try (BarFileReader reader = new BarFileReader(file)) {
+            assertEquals(100, reader.indexOf(100 * 60_000L));
+            assertEquals(101, reader.indexOf(100 * 60_000L + 1));
+            assertEquals(500, reader.indexOf(Long.MAX_VALUE));
+
+            BarSeries range = reader.readRange(100 * 60_000L, 200 * 60_000L);
+            assertEquals(100, range.size());
+            assertArrayEquals(Arrays.copyOfRange(series.close(), 100, 200), range.close());
+        }
+    }
+
+    @Test
+    void feedStatesFromMappingTest() throws IOException {
+        BarSeries series = BatchEngineTest.randomSeries(300, 23);
+        Path file = directory.resolve("feed.bin");
+        BarFileWriter.write(file, series);
+
+        EmaState ema = new EmaState(12);
+        try (BarFileReader reader = new BarFileReader(file)) {
+            reader.forEach(0, reader.size(), (timestamp, open, high, low, close, volume) -> ema.update(close));
+        }
+        double[] expected = IndicatorUtils.ema(series.close(), 12);
+        assertEquals(expected[expected.length - 1], ema.value());
+    }
+
+    @Test
+    void invalidFileTest() throws IOException {
+        Path file = directory.resolve("invalid.bin");
+        Files.write(file, new byte[100]);
+        assertThrows(IOException.class, () -> new BarFileReader(file));
+
+        for (long count : new long[]{-1, Long.MAX_VALUE / 8}) {
+            Path header = directory.resolve("count" + count + ".bin");
+            BarFileWriter.write(header, BatchEngineTest.randomSeries(2, 1));
+            try (FileChannel channel = FileChannel.open(header, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, count), 16);
+            }
+            assertThrows(IOException.class, () -> new BarFileReader(header));
+        }
+
+        assertThrows(IllegalStateException.class, () -> {
+            try (BarFileWriter writer = new BarFileWriter(directory.resolve("short.bin"), 10)) {
+                writer.append(BatchEngineTest.randomSeries(5, 1));
+            }
+        });
+    }
+
+    private static BarSeries slice(BarSeries series, int from, int to) {
+        return new BarSeries(Arrays.copyOfRange(series.timestamps(), from, to), Arrays.copyOfRange(series.open(), from, to),
+                Arrays.copyOfRange(series.high(), from, to), Arrays.copyOfRange(series.low(), from, to),
+                Arrays.copyOfRange(series.close(), from, to), Arrays.copyOfRange(series.volume(), from, to));
+    }
+}
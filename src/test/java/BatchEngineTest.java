@@ -0,0 +1,106 @@
+import org.indic.engine.BatchEngine;
+import org.indic.engine.IndicatorSpec;
+import org.indic.engine.SymbolResults;
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.Macd;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.MacdSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchEngineTest {
+
+    private static final IndicatorSpec<double[]> RSI = IndicatorSpec.rsi(14);
+    private static final IndicatorSpec<MacdSeries> MACD = IndicatorSpec.macd(12, 26, 9);
+    private static final IndicatorSpec<double[]> ATR = IndicatorSpec.atr(14);
+    private static final IndicatorSpec<BandSeries> BOLLINGER = IndicatorSpec.bollinger(20, 2);
+
+    static BarSeries randomSeries(int size, long seed) {
+        Random random = new Random(seed);
+        BarSeries series = BarSeries.allocate(size);
+        double close = 100.0;
+        for (int i = 0; i < size; i++) {
+            close += random.nextGaussian();
+            series.timestamps()[i] = i * 60_000L;
+            series.open()[i] = close;
+            series.close()[i] = close;
+            series.high()[i] = close + random.nextDouble();
+            series.low()[i] = close - random.nextDouble();
+            series.volume()[i] = 1_000 + random.nextInt(1_000);
+        }
+        return series;
+    }
+
+    private static Map<String, BarSeries> universe() {
+        Map<String, BarSeries> universe = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            universe.put("S" + i, randomSeries(100 + i * 37, i));
+        }
+        return universe;
+    }
+
+    @Test
+    void computeUniverseTest() {
+        Map<String, BarSeries> universe = universe();
+        try (BatchEngine engine = new BatchEngine(List.of(RSI, MACD, ATR, BOLLINGER), 4)) {
+            Map<String, SymbolResults> results = engine.compute(universe);
+            assertEquals(universe.keySet(), results.keySet());
+
+            BarSeries series = universe.get("S7");
+            SymbolResults res = results.get("S7");
+            assertArrayEquals(RelativeStrengthIndex.calculate(14, series.close()), res.get(RSI));
+            assertArrayEquals(Macd.calculateResult(12, 26, 9, series.close()).histogram(), res.get(MACD).histogram());
+            assertArrayEquals(AverageTrueRange.calculateAtr(14, series), res.get(ATR));
+            assertNotNull(res.get(BOLLINGER));
+            assertNull(res.get(IndicatorSpec.ema(3)));
+        }
+    }
+
+    @Test
+    void specsAreValuesTest() {
+        assertEquals(IndicatorSpec.macd(12, 26, 9), MACD);
+        assertNotEquals(IndicatorSpec.rsi(14, RelativeStrengthIndex.Smoothing.WILDER), RSI);
+    }
+
+    @Test
+    void computeWithLoaderTest() {
+        Map<String, BarSeries> universe = universe();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Map<String, SymbolResults> results = new ConcurrentHashMap<>();
+
+        try (BatchEngine engine = new BatchEngine(List.of(RSI), 4)) {
+            engine.compute(universe.keySet(), symbol -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return universe.get(symbol);
+            }, (symbol, res) -> {
+                results.put(symbol, res);
+                inFlight.decrementAndGet();
+            }, 2);
+        }
+        assertEquals(universe.size(), results.size());
+        assertTrue(maxInFlight.get() <= 2);
+    }
+
+    @Test
+    void computeWithLoaderFailureTest() {
+        try (BatchEngine engine = new BatchEngine(List.of(RSI), 2)) {
+            assertThrows(CompletionException.class, () -> engine.compute(List.of("A", "B"), symbol -> {
+                throw new IllegalStateException("no data for " + symbol);
+            }, (symbol, res) -> { }, 1));
+            assertThrows(IllegalArgumentException.class, () -> engine.compute(List.of("A"), symbol -> randomSeries(10, 1),
+                    (symbol, res) -> { }, 0));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+import org.indic.indicators.IndicatorUtils;
+import org.indic.io.CsvBarReader;
+import org.indic.records.BarSeries;
+import org.indic.streaming.EmaState;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvBarReaderTest {
+
+    @Test
+    void readAllTest() throws IOException {
+        String csv = "timestamp,open,high,low,close,volume\r\n"
+                + "1700000000000,53.30,53.72,53.10,53.32,1200\r\n"
+                + "\r\n"
+                + "2023-11-15,-0.5,1e2,\"3.25\", 54.19 ,1300.0\r\n"
+                + "2023-11-15T10:30:00,1,2,0.5,1.5,7";
+
+        BarSeries bars = reader(csv, ',').readAll();
+
+        assertEquals(3, bars.size());
+        assertArrayEquals(new long[]{1700000000000L, 1700006400000L, 1700044200000L}, bars.timestamps());
+        assertArrayEquals(new double[]{53.30, -0.5, 1}, bars.open());
+        assertArrayEquals(new double[]{53.72, 100, 2}, bars.high());
+        assertArrayEquals(new double[]{53.10, 3.25, 0.5}, bars.low());
+        assertArrayEquals(new double[]{53.32, 54.19, 1.5}, bars.close());
+        assertArrayEquals(new long[]{1200, 1300, 7}, bars.volume());
+    }
+
+    @Test
+    void parseLikeParseDoubleTest() throws IOException {
+        Random random = new Random(11);
+        StringBuilder csv = new StringBuilder();
+        List<String> closes = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String close = switch (i % 4) {
+                case 0 -> Double.toString(random.nextDouble() * 1000);
+                case 1 -> String.format(Locale.ROOT, "%.2f", random.nextGaussian() * 100);
+                case 2 -> String.format(Locale.ROOT, "%.6f", random.nextDouble());
+                default -> Long.toString(random.nextInt(100_000)) + "." + random.nextInt(10_000);
+            };
+            closes.add(close);
+            csv.append(i).append(";1;1;1;").append(close).append(";1\n");
+        }
+
+        BarSeries bars = reader(csv.toString(), ';').readAll();
+        for (int i = 0; i < closes.size(); i++) {
+            assertEquals(Double.parseDouble(closes.get(i)), bars.close()[i], closes.get(i));
+        }
+    }
+
+    @Test
+    void batchesTest() throws IOException {
+        BarSeries series = BatchEngineTest.randomSeries(1_000, 31);
+        StringBuilder csv = new StringBuilder("time,o,h,l,c,v\n");
+        for (int i = 0; i < series.size(); i++) {
+            csv.append(series.timestamps()[i]).append(',').append(series.open()[i]).append(',').append(series.high()[i]).append(',')
+                    .append(series.low()[i]).append(',').append(series.close()[i]).append(',').append(series.volume()[i]).append('\n');
+        }
+
+        List<Integer> sizes = new ArrayList<>();
+        double[] closes = new double[series.size()];
+        long bars = reader(csv.toString(), ',').forEachBatch(256, batch -> {
+            System.arraycopy(batch.close(), 0, closes, sizes.stream().mapToInt(Integer::intValue).sum(), batch.size());
+            sizes.add(batch.size());
+        });
+
+        assertEquals(1_000, bars);
+        assertEquals(List.of(256, 256, 256, 232), sizes);
+        assertArrayEquals(series.close(), closes);
+
+        EmaState ema = new EmaState(12);
+        reader(csv.toString(), ',').forEach((timestamp, open, high, low, close, volume) -> ema.update(close));
+        double[] expected = IndicatorUtils.ema(series.close(), 12);
+        assertEquals(expected[expected.length - 1], ema.value());
+    }
+
+    @Test
+    void malformedTest() {
+        IOException e = assertThrows(IOException.class, () -> reader("1,2,3,4,5,6\n2,2,x,4,5,6\n", ',').readAll());
+        assertTrue(e.getMessage().contains("line 2"));
+
+        assertThrows(IOException.class, () -> reader("1,2,3,4,5,6\n2,2,3,4,5\n", ',').readAll());
+        assertThrows(IOException.class, () -> reader("1,2,3,4,5,6\n2,2,3,4,5,6,7\n", ',').readAll());
+    }
+
+    private static CsvBarReader reader(String csv, char delimiter) {
+        return new CsvBarReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.US_ASCII)), delimiter);
+    }
+}
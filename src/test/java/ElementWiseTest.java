@@ -0,0 +1,63 @@
+import org.indic.indicators.ElementWise;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ElementWiseTest {
+
+    private final ElementWise vector = ElementWise.get();
+    private final ElementWise scalar = ElementWise.scalar();
+
+    @Test
+    void sameAsScalarTest() {
+        // the build adds jdk.incubator.vector, without it both kernels are the scalar ones
+        assumeTrue(ElementWise.isVectorized(), "jdk.incubator.vector is not available");
+        assertNotSame(scalar, vector);
+        for (int size : new int[]{0, 1, 2, 7, 8, 9, 1_001}) {
+            Random random = new Random(size);
+            double[] closes = new double[size];
+            double[] highs = new double[size];
+            double[] lows = new double[size];
+            long[] volumes = new long[size];
+            for (int i = 0; i < size; i++) {
+                closes[i] = i % 5 == 0 && i > 0 ? closes[i - 1] : 100 + random.nextGaussian();
+                highs[i] = closes[i] + random.nextDouble();
+                lows[i] = closes[i] - random.nextDouble();
+                volumes[i] = random.nextInt(10_000);
+            }
+            if (size > 3) closes[3] = Double.NaN;
+
+            double[] expected = new double[size];
+            double[] actual = new double[size];
+            scalar.trueRange(closes, highs, lows, expected);
+            vector.trueRange(closes, highs, lows, actual);
+            assertArrayEquals(expected, actual);
+
+            double[] expectedUpper = new double[size];
+            double[] upper = new double[size];
+            scalar.bands(closes, highs, 2, expected, expectedUpper);
+            vector.bands(closes, highs, 2, actual, upper);
+            assertArrayEquals(expected, actual);
+            assertArrayEquals(expectedUpper, upper);
+            vector.bands(closes, highs, 2, null, upper);
+            assertArrayEquals(expectedUpper, upper);
+
+            scalar.bandwidth(lows, closes, highs, expected);
+            vector.bandwidth(lows, closes, highs, actual);
+            assertArrayEquals(expected, actual);
+
+            scalar.subtract(highs, lows, expected);
+            vector.subtract(highs, lows, actual);
+            assertArrayEquals(expected, actual);
+
+            long[] expectedSigned = new long[size];
+            long[] signed = new long[size];
+            scalar.signedVolumes(closes, volumes, expectedSigned);
+            vector.signedVolumes(closes, volumes, signed);
+            assertArrayEquals(expectedSigned, signed);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.BollingerBands;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.Macd;
+import org.indic.indicators.OnBalanceVolume;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.indicators.StochasticOscillator;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.FloatBarSeries;
+import org.indic.records.MacdSeries;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Float results must be the double results of the widened prices rounded to float,
+ * and close to the double results of the original prices.
+ */
+public class FloatSeriesTest {
+
+    private static final BarSeries SERIES = BatchEngineTest.randomSeries(20_000, 91);
+    private static final FloatBarSeries FLOATS = FloatBarSeries.of(SERIES);
+    private static final BarSeries WIDENED = FLOATS.toBarSeries();
+    // prices around 100, float keeps about 7 digits
+    private static final double PRICE_TOLERANCE = 1e-4;
+
+    @Test
+    void seriesTest() {
+        assertEquals(SERIES.size(), FLOATS.size());
+        assertSame(SERIES.volume(), FLOATS.volume());
+        assertEquals((float) SERIES.close()[5], FLOATS.close()[5]);
+        assertEquals(FLOATS.close()[5], WIDENED.close()[5]);
+        assertThrows(IllegalArgumentException.class, () -> new FloatBarSeries(new long[1], new float[1], new float[1], new float[1], new float[2], new long[1]));
+    }
+
+    @Test
+    void movingAveragesTest() {
+        assertRounded(IndicatorUtils.smaList(WIDENED.close(), 20), IndicatorUtils.smaList(FLOATS.close(), 20));
+        assertRounded(IndicatorUtils.ema(WIDENED.close(), 20), IndicatorUtils.ema(FLOATS.close(), 20));
+        assertRounded(IndicatorUtils.rollingStandardDeviation(WIDENED.close(), 20), IndicatorUtils.rollingStandardDeviation(FLOATS.close(), 20));
+
+        assertClose(IndicatorUtils.smaList(SERIES.close(), 20), IndicatorUtils.smaList(FLOATS.close(), 20), PRICE_TOLERANCE);
+        assertClose(IndicatorUtils.ema(SERIES.close(), 20), IndicatorUtils.ema(FLOATS.close(), 20), PRICE_TOLERANCE);
+        assertClose(IndicatorUtils.rollingStandardDeviation(SERIES.close(), 20), IndicatorUtils.rollingStandardDeviation(FLOATS.close(), 20), PRICE_TOLERANCE);
+    }
+
+    @Test
+    void atrTest() {
+        assertRounded(AverageTrueRange.calculateAtr(14, WIDENED), AverageTrueRange.calculateAtr(14, FLOATS));
+        assertClose(AverageTrueRange.calculateAtr(14, SERIES), AverageTrueRange.calculateAtr(14, FLOATS), PRICE_TOLERANCE);
+    }
+
+    @Test
+    void rsiTest() {
+        for (RelativeStrengthIndex.Smoothing smoothing : RelativeStrengthIndex.Smoothing.values()) {
+            assertRounded(RelativeStrengthIndex.calculate(14, WIDENED.close(), smoothing), RelativeStrengthIndex.calculate(14, FLOATS.close(), smoothing));
+            assertClose(RelativeStrengthIndex.calculate(14, SERIES.close(), smoothing), RelativeStrengthIndex.calculate(14, FLOATS.close(), smoothing), 1e-2);
+        }
+    }
+
+    @Test
+    void macdTest() {
+        for (Macd.Padding padding : Macd.Padding.values()) {
+            MacdSeries widened = Macd.calculateResult(12, 26, 9, WIDENED.close(), padding);
+            int size = Macd.length(12, 26, FLOATS.size(), padding);
+            float[] line = new float[size];
+            float[] signal = new float[size];
+            float[] histogram = new float[size];
+            assertEquals(size, Macd.calculate(12, 26, 9, FLOATS.close(), padding, line, signal, histogram));
+
+            assertRounded(widened.line(), line);
+            assertRounded(widened.signal(), signal);
+            assertRounded(widened.histogram(), histogram);
+
+            MacdSeries original = Macd.calculateResult(12, 26, 9, SERIES.close(), padding);
+            assertClose(original.line(), line, PRICE_TOLERANCE);
+            assertClose(original.histogram(), histogram, PRICE_TOLERANCE);
+        }
+    }
+
+    @Test
+    void bollingerTest() {
+        BandSeries widened = BollingerBands.calculate(20, WIDENED.close(), 2);
+        float[] middle = new float[widened.size()];
+        float[] deviation = new float[widened.size()];
+        assertEquals(widened.size(), BollingerBands.calculate(20, FLOATS.close(), middle, deviation));
+        assertRounded(widened.middle(), middle);
+        assertRounded(widened.deviation(), deviation);
+        assertClose(BollingerBands.calculate(20, SERIES.close(), 2).deviation(), deviation, PRICE_TOLERANCE);
+    }
+
+    @Test
+    void stochasticTest() {
+        double[] widened = StochasticOscillator.calculate(14, WIDENED).k();
+        float[] k = new float[widened.length];
+        assertEquals(widened.length, StochasticOscillator.calculate(14, FLOATS, k));
+        assertRounded(widened, k);
+        assertClose(StochasticOscillator.calculate(14, SERIES).k(), k, 1e-2);
+    }
+
+    @Test
+    void obvTest() {
+        assertArrayEquals(OnBalanceVolume.calculate(WIDENED), OnBalanceVolume.calculate(FLOATS));
+        assertArrayEquals(OnBalanceVolume.calculate(SERIES), OnBalanceVolume.calculate(FLOATS));
+    }
+
+    private static void assertRounded(double[] expected, float[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals((float) expected[i], actual[i], "index " + i);
+        }
+    }
+
+    private static void assertClose(double[] expected, float[] actual, double tolerance) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], tolerance, "index " + i);
+        }
+    }
+}
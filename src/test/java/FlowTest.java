@@ -0,0 +1,213 @@
+import org.indic.engine.IndicatorSpec;
+import org.indic.flow.BarPublisher;
+import org.indic.flow.IndicatorProcessor;
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.BollingerBands;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.Macd;
+import org.indic.indicators.OnBalanceVolume;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.MacdSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlowTest {
+
+    @Test
+    void processorsMatchBatchTest() throws Exception {
+        BarSeries series = BatchEngineTest.randomSeries(1_000, 71);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            BarPublisher publisher = new BarPublisher(7, executor, 1_024);
+            IndicatorProcessor<double[]> ema = new IndicatorProcessor<>(IndicatorSpec.ema(12), executor, 1_024);
+            IndicatorProcessor<MacdSeries> macd = new IndicatorProcessor<>(IndicatorSpec.macd(12, 26, 9), executor, 1_024);
+            IndicatorProcessor<BandSeries> bands = new IndicatorProcessor<>(IndicatorSpec.bollinger(20, 2), executor, 1_024);
+            IndicatorProcessor<long[]> obv = new IndicatorProcessor<>(IndicatorSpec.obv(), executor, 1_024);
+            publisher.subscribeLossless(ema);
+            publisher.subscribeLossless(macd);
+            publisher.subscribeLossless(bands);
+            publisher.subscribeLossless(obv);
+
+            List<double[]> emaChunks = new ArrayList<>();
+            List<MacdSeries> macdChunks = new ArrayList<>();
+            List<BandSeries> bandChunks = new ArrayList<>();
+            List<long[]> obvChunks = new ArrayList<>();
+            CompletableFuture<?> all = CompletableFuture.allOf(
+                    ema.consume(emaChunks::add), macd.consume(macdChunks::add),
+                    bands.consume(bandChunks::add), obv.consume(obvChunks::add));
+
+            for (int i = 0; i < series.size(); i++) {
+                if (i == 500) publisher.flush();
+                publisher.accept(series.timestamps()[i], series.open()[i], series.high()[i],
+                        series.low()[i], series.close()[i], series.volume()[i]);
+            }
+            publisher.close();
+            all.get(10, TimeUnit.SECONDS);
+
+            assertEquals(0, publisher.dropped());
+            assertEquals(144, emaChunks.size());
+            double[] emaValues = concat(emaChunks);
+            double[] expectedEma = IndicatorUtils.ema(series.close(), 12);
+            assertTrue(Double.isNaN(emaValues[10]));
+            assertArrayEquals(expectedEma, Arrays.copyOfRange(emaValues, 11, emaValues.length));
+
+            MacdSeries expectedMacd = Macd.calculateResult(12, 26, 9, series.close(), Macd.Padding.NONE);
+            double[] line = concat(macdChunks.stream().map(MacdSeries::line).toList());
+            double[] signal = concat(macdChunks.stream().map(MacdSeries::signal).toList());
+            assertArrayEquals(expectedMacd.line(), Arrays.copyOfRange(line, 25, line.length), 1e-12);
+            assertArrayEquals(Arrays.copyOfRange(expectedMacd.signal(), 8, expectedMacd.size()), Arrays.copyOfRange(signal, 33, signal.length), 1e-12);
+
+            BandSeries expectedBands = BollingerBands.calculate(20, series.close(), 2);
+            double[] upper = concat(bandChunks.stream().map(BandSeries::upper).toList());
+            assertArrayEquals(expectedBands.upper(), Arrays.copyOfRange(upper, 19, upper.length), 1e-9);
+
+            long[] obvValues = obvChunks.stream().flatMapToLong(Arrays::stream).toArray();
+            assertArrayEquals(OnBalanceVolume.calculate(series), obvValues);
+        }
+    }
+
+    @Test
+    void slowSubscriberDoesNotStallFeedTest() throws Exception {
+        BarSeries series = BatchEngineTest.randomSeries(10_000, 73);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            BarPublisher publisher = new BarPublisher(1, executor, 16_384);
+            IndicatorProcessor<double[]> rsi = new IndicatorProcessor<>(IndicatorSpec.rsi(14), executor, 4);
+            publisher.subscribeLossless(rsi);
+
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch completed = new CountDownLatch(1);
+            rsi.subscribe(new Flow.Subscriber<>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(double[] item) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                    completed.countDown();
+                }
+            });
+
+            long start = System.nanoTime();
+            for (int i = 0; i < series.size(); i++) {
+                publisher.accept(series.timestamps()[i], series.open()[i], series.high()[i],
+                        series.low()[i], series.close()[i], series.volume()[i]);
+            }
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+            publisher.close();
+            while (rsi.dropped() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            assertTrue(completed.await(10, TimeUnit.SECONDS));
+            assertTrue(rsi.dropped() > 0);
+        }
+    }
+
+    @Test
+    void laggingDeliveryKeepsProcessorStateTest() throws Exception {
+        BarSeries series = BatchEngineTest.randomSeries(2_000, 79);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // the publisher delivers nothing until the feed is done, its buffers overflow right away
+            CountDownLatch gate = new CountDownLatch(1);
+            Executor lagging = task -> executor.execute(() -> {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                task.run();
+            });
+            BarPublisher publisher = new BarPublisher(1, lagging, 1);
+            IndicatorProcessor<double[]> rsi = new IndicatorProcessor<>(IndicatorSpec.rsi(14), executor, 4_096);
+            IndicatorProcessor<double[]> atr = new IndicatorProcessor<>(IndicatorSpec.atr(14), executor, 4_096);
+            publisher.subscribeLossless(rsi);
+            publisher.subscribeLossless(atr);
+            List<BarSeries> chunks = new ArrayList<>();
+            CompletableFuture<Void> raw = publisher.consume(chunks::add);
+
+            List<double[]> rsiChunks = new ArrayList<>();
+            List<double[]> atrChunks = new ArrayList<>();
+            CompletableFuture<?> all = CompletableFuture.allOf(rsi.consume(rsiChunks::add), atr.consume(atrChunks::add));
+
+            for (int i = 0; i < series.size(); i++) {
+                publisher.accept(series.timestamps()[i], series.open()[i], series.high()[i],
+                        series.low()[i], series.close()[i], series.volume()[i]);
+            }
+            publisher.close();
+            gate.countDown();
+            all.get(10, TimeUnit.SECONDS);
+            raw.get(10, TimeUnit.SECONDS);
+
+            assertTrue(publisher.dropped() > 0);
+            assertTrue(chunks.size() < series.size());
+            assertTrue(publisher.lagged() > 0);
+            assertEquals(0, rsi.dropped());
+            double[] rsiValues = concat(rsiChunks);
+            double[] expectedRsi = RelativeStrengthIndex.calculate(14, series.close());
+            assertArrayEquals(expectedRsi, Arrays.copyOfRange(rsiValues, 14, rsiValues.length));
+            double[] atrValues = concat(atrChunks);
+            double[] expectedAtr = AverageTrueRange.calculateAtr(14, series);
+            assertArrayEquals(expectedAtr, Arrays.copyOfRange(atrValues, 13, atrValues.length));
+        }
+    }
+
+    @Test
+    void processorOnAnyPublisherTest() throws Exception {
+        BarSeries series = BatchEngineTest.randomSeries(500, 83);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             SubmissionPublisher<BarSeries> publisher = new SubmissionPublisher<>(executor, 2)) {
+            IndicatorProcessor<double[]> ema = new IndicatorProcessor<>(IndicatorSpec.ema(10), executor, 16);
+            publisher.subscribe(ema);
+            List<double[]> emaChunks = new ArrayList<>();
+            CompletableFuture<Void> done = ema.consume(emaChunks::add);
+
+            // submit blocks while the processor has not requested more, so nothing is lost
+            for (int from = 0; from < series.size(); from += 50) {
+                double[] closes = Arrays.copyOfRange(series.close(), from, from + 50);
+                publisher.submit(new BarSeries(new long[50], closes, closes, closes, closes, new long[50]));
+            }
+            publisher.close();
+            done.get(10, TimeUnit.SECONDS);
+
+            double[] emaValues = concat(emaChunks);
+            assertArrayEquals(IndicatorUtils.ema(series.close(), 10), Arrays.copyOfRange(emaValues, 9, emaValues.length));
+        }
+    }
+
+    private static double[] concat(List<double[]> chunks) {
+        return chunks.stream().flatMapToDouble(Arrays::stream).toArray();
+    }
+}
@@ -0,0 +1,83 @@
+import org.indic.engine.IndicatorPlan;
+import org.indic.engine.IndicatorSpec;
+import org.indic.engine.Node;
+import org.indic.engine.PlanResults;
+import org.indic.indicators.*;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.MacdSeries;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndicatorPlanTest {
+
+    @Test
+    void sharedNodesTest() {
+        IndicatorPlan plan = new IndicatorPlan();
+        Node<MacdSeries> macd = plan.macd(12, 26, 9);
+        int afterMacd = plan.size();
+        Node<double[]> ema12 = plan.ema(12);
+        Node<double[]> ema26 = plan.ema(26);
+        assertEquals(afterMacd, plan.size());
+
+        Node<BandSeries> bollinger = plan.bollinger(20, 2);
+        int afterBollinger = plan.size();
+        Node<double[]> sma20 = plan.sma(20);
+        assertEquals(afterBollinger, plan.size());
+
+        plan.atr(14);
+        int afterAtr = plan.size();
+        plan.atr(20);
+        assertEquals(afterAtr + 1, plan.size());
+
+        BarSeries series = BatchEngineTest.randomSeries(500, 3);
+        PlanResults results = plan.execute(series);
+        double[] closes = series.close();
+        assertSame(results.get(ema12), results.get(new Node.Ema(Node.CLOSE, 12)));
+        assertArrayEquals(IndicatorUtils.ema(closes, 26), results.get(ema26));
+        assertArrayEquals(IndicatorUtils.smaList(closes, 20), results.get(sma20));
+
+        MacdSeries expectedMacd = Macd.calculateResult(12, 26, 9, closes);
+        assertArrayEquals(expectedMacd.line(), results.get(macd).line());
+        assertArrayEquals(expectedMacd.signal(), results.get(macd).signal());
+        assertArrayEquals(expectedMacd.histogram(), results.get(macd).histogram());
+
+        BandSeries expectedBands = BollingerBands.calculate(20, closes, 2);
+        assertArrayEquals(expectedBands.upper(), results.get(bollinger).upper());
+        assertArrayEquals(expectedBands.lower(), results.get(bollinger).lower());
+        assertArrayEquals(AverageTrueRange.calculateAtr(20, series), results.get(new Node.Atr(20)));
+    }
+
+    @Test
+    void specsMapToNodesTest() {
+        IndicatorPlan plan = new IndicatorPlan();
+        Node<double[]> rsi = plan.add(IndicatorSpec.rsi(14));
+        assertEquals(new Node.Rsi(Node.CLOSE, 14, RelativeStrengthIndex.Smoothing.CUMULATIVE), rsi);
+        assertNull(plan.execute(BatchEngineTest.randomSeries(50, 1)).get(plan.ema(5)));
+    }
+
+    @Test
+    void customSpecTest() {
+        record Range() implements IndicatorSpec<double[]> {
+            @Override
+            public double[] compute(BarSeries series) {
+                double[] range = new double[series.size()];
+                for (int i = 0; i < range.length; i++) {
+                    range[i] = series.high()[i] - series.low()[i];
+                }
+                return range;
+            }
+        }
+
+        IndicatorPlan plan = new IndicatorPlan();
+        plan.ema(5);
+        Node<double[]> range = plan.add(new Range());
+        assertEquals(new Node.Custom<>(new Range()), range);
+        assertEquals(range, plan.add(new Range()));
+        assertEquals(3, plan.size());
+
+        BarSeries series = BatchEngineTest.randomSeries(50, 2);
+        assertArrayEquals(new Range().compute(series), plan.execute(series).get(range));
+    }
+}
@@ -1,13 +1,22 @@
 import org.indic.indicators.*;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
 import org.indic.records.Bands;
 import org.indic.records.MacdResult;
+import org.indic.records.MacdSeries;
 import org.indic.records.OscillatorResult;
+import org.indic.records.OscillatorSeries;
+import org.indic.streaming.MacdState;
+import org.indic.streaming.RsiState;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.OptionalDouble;
+import java.util.Random;
 import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -149,4 +158,258 @@ public class IndicatorTest {
         assertEquals(expected.getLast(), res.k().getLast(), 0.1);
     }
 
+    @Test
+    void primitiveEmaMatchesListTest() {
+        List<Double> closes = List.of(22.27, 22.19, 22.08, 22.17, 22.18, 22.13, 22.23, 22.43, 22.24, 22.29, 22.15, 22.39, 22.38, 22.61, 23.36);
+        double[] ema = IndicatorUtils.ema(IndicatorUtils.toArray(closes), 5);
+        assertEquals(IndicatorUtils.ema(closes, 5), IndicatorUtils.toList(ema));
+        assertEquals(IndicatorUtils.smaList(closes, 5), IndicatorUtils.toList(IndicatorUtils.smaList(IndicatorUtils.toArray(closes), 5)));
+    }
+
+    @Test
+    void primitiveMacdMatchesListTest() {
+        List<Double> c = List.of(53.30, 53.32, 53.72, 54.19, 53.92, 54.65, 54.60, 54.21, 54.53, 53.79, 53.66, 53.56, 53.57);
+        MacdResult expected = Macd.calculateResult(4, 8, 6, c);
+        MacdSeries actual = Macd.calculateResult(4, 8, 6, IndicatorUtils.toArray(c));
+        assertEquals(expected.line(), IndicatorUtils.toList(actual.line()));
+        assertEquals(expected.signal(), IndicatorUtils.toList(actual.signal()));
+        assertEquals(expected.histogram(), IndicatorUtils.toList(actual.histogram()));
+        assertEquals(c.size() - 4 + 1, actual.histogram().length);
+    }
+
+    @Test
+    void primitiveObvTest() {
+        double[] c = {53.30, 53.32, 53.72, 54.19, 53.92, 54.65, 54.60, 54.21, 54.53, 53.79, 53.66, 53.56, 53.57};
+        long[] v = {8200, 8100, 8300, 8900, 9200, 13300, 10300, 9900, 10100, 11300, 12600, 10700, 11500};
+        BarSeries series = new BarSeries(new long[c.length], c, c, c, c, v);
+        long[] obv = OnBalanceVolume.calculate(series);
+        assertEquals(c.length, obv.length);
+        assertEquals(4400, obv[obv.length - 1]);
+    }
+
+    @Test
+    void primitiveAtrTest() {
+        double[] highs = {48.70, 48.72, 48.90, 48.87, 48.82, 48.81, 48.74, 48.70, 48.73, 48.96};
+        double[] lows = {47.79, 48.14, 48.39, 48.37, 48.24, 48.40, 48.22, 48.39, 48.48, 48.42};
+        double[] closes = {48.16, 48.61, 48.75, 48.63, 48.74, 48.58, 48.65, 48.72, 48.71, 48.90};
+        BarSeries series = new BarSeries(new long[closes.length], closes, highs, lows, closes, new long[closes.length]);
+        double[] atr = AverageTrueRange.calculateAtr(3, series);
+        assertEquals(closes.length - 3 + 1, atr.length);
+        assertEquals(0.43, atr[atr.length - 1], 0.01);
+    }
+
+    @Test
+    void rollingStandardDeviationTest() {
+        double[] c = {12.0,11.0,12.0,14.0,18.0,12.0,15.0,13.0,16.0,12.0,11.0,13.0,15.0,14.0,16.0,18.0,22.0,19.0,24.0,17.0,19.0};
+        int period = 5;
+        double[] deviations = IndicatorUtils.rollingStandardDeviation(c, period);
+        BandSeries bands = BollingerBands.calculate(period, c, 2);
+        assertEquals(c.length - period + 1, deviations.length);
+        for (int i = 0; i < deviations.length; i++) {
+            double[] window = Arrays.copyOfRange(c, 0, i + period);
+            assertEquals(IndicatorUtils.standardDeviation(window, period).orElseThrow(), deviations[i], 1e-9);
+            assertEquals(IndicatorUtils.smaWithPeriodValues(window, period).orElseThrow(), bands.middle()[i], 1e-9);
+            assertEquals(bands.middle()[i] + 2 * deviations[i], bands.upper()[i], 1e-9);
+        }
+    }
+
+    @Test
+    void rollingSmaLongSeriesTest() {
+        double[] prices = new Random(11).doubles(100_000, 1_000.0, 1_001.0).toArray();
+        int period = 200;
+        double[] sma = IndicatorUtils.smaList(prices, period);
+        double[] window = Arrays.copyOfRange(prices, prices.length - period, prices.length);
+        assertEquals(Arrays.stream(window).average().orElseThrow(), sma[sma.length - 1], 1e-9);
+        double[] deviations = IndicatorUtils.rollingStandardDeviation(prices, period);
+        assertEquals(IndicatorUtils.standardDeviation(prices, period).orElseThrow(), deviations[deviations.length - 1], 1e-9);
+    }
+
+    @Test
+    void rollingNonFiniteRecoversTest() {
+        double[] prices = new Random(12).doubles(600, 100.0, 101.0).toArray();
+        prices[50] = Double.NaN;
+        prices[300] = Double.POSITIVE_INFINITY;
+        int period = 20;
+        double[] sma = IndicatorUtils.smaList(prices, period);
+        double[] deviations = IndicatorUtils.rollingStandardDeviation(prices, period);
+        for (int t = period - 1; t < prices.length; t++) {
+            int i = t - period + 1;
+            boolean poisoned = (t >= 50 && i <= 50) || (t >= 300 && i <= 300);
+            // the sum is rebuilt once per turn of the window after the value left it
+            boolean rebuilt = t < 50 || (t >= 50 + 2 * period && t < 300) || t >= 300 + 2 * period;
+            if (poisoned) {
+                assertTrue(!Double.isFinite(sma[i]));
+            } else if (rebuilt) {
+                double[] window = Arrays.copyOfRange(prices, i, t + 1);
+                assertEquals(Arrays.stream(window).average().orElseThrow(), sma[i], 1e-9);
+                assertEquals(IndicatorUtils.standardDeviation(window, period).orElseThrow(), deviations[i], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void rollingMinMaxTest() {
+        double[] values = new Random(13).doubles(1_000, 0.0, 100.0).toArray();
+        int period = 14;
+        double[] min = RollingMinMax.rollingMin(values, period);
+        double[] max = RollingMinMax.rollingMax(values, period);
+        for (int i = 0; i < min.length; i++) {
+            double[] window = Arrays.copyOfRange(values, i, i + period);
+            assertEquals(Arrays.stream(window).min().orElseThrow(), min[i]);
+            assertEquals(Arrays.stream(window).max().orElseThrow(), max[i]);
+        }
+    }
+
+    @Test
+    void stochasticDTest() {
+        double[] highs = {127.01,127.62,126.59,127.35,128.17,128.43,127.37,126.42,126.90,126.85,125.65,125.72,127.16,127.72,127.69,128.22,128.27,128.09,128.27,127.74};
+        double[] lows = {125.36,126.16,124.93,126.09,126.82,126.48,126.03,124.83,126.39,125.72,124.56,124.57,125.07,126.86,126.63,126.80,126.71,126.80,126.13,125.92};
+        double[] closes = {125.90,126.80,125.50,127.00,127.80,127.06,126.50,125.10,126.60,126.10,124.90,125.10,126.60,127.29,127.18,128.01,127.11,127.73,127.06,127.33};
+        OscillatorSeries res = StochasticOscillator.calculate(14, closes, highs, lows);
+        double[] d = StochasticOscillator.calculateD(res.k(), 3);
+        assertEquals(res.k().length - 2, d.length);
+        assertEquals(res.d_3(), d[d.length - 1], 1e-9);
+    }
+
+    @Test
+    void wilderRsiTest() {
+        double[] c = {44.34,44.09,44.15,43.61,44.33,44.83,45.10,45.42,45.84,46.08,45.89,46.03,45.61,46.28,46.28,46.00,46.03,46.41,46.22,45.64};
+        double[] rsi = RelativeStrengthIndex.calculate(14, c, RelativeStrengthIndex.Smoothing.WILDER);
+        double[] expected = {70.46, 66.25, 66.48, 69.35, 66.29, 57.92};
+        assertEquals(expected.length, rsi.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], rsi[i], 0.01);
+        }
+    }
+
+    @Test
+    void cumulativeRsiMatchesListTest() {
+        List<Double> c = List.of(12.0,11.0,12.0,14.0,18.0,12.0,15.0,13.0,16.0,12.0,11.0,13.0,15.0,14.0,16.0,18.0,22.0,19.0,24.0,17.0,19.0);
+        List<Double> rsi = RelativeStrengthIndex.calculate(3, c);
+        assertEquals(c.size() - 3, rsi.size());
+        // gains 1 + 2 and losses 1 up to closes[3]
+        assertEquals(100 - 100 / (1 + 3.0 / 1.0), rsi.getFirst(), 1e-9);
+    }
+
+    @Test
+    void cumulativeRsiCompensatedTest() {
+        Random random = new Random(37);
+        double[] closes = new double[500_000];
+        closes[0] = 1_000.0;
+        for (int i = 1; i < closes.length; i++) {
+            closes[i] = closes[i - 1] + random.nextGaussian() * 0.01 + 0.001;
+        }
+        double[] gains = new double[closes.length];
+        double[] losses = new double[closes.length];
+        for (int i = 1; i < closes.length; i++) {
+            double diff = closes[i] - closes[i - 1];
+            gains[i] = diff > 0 ? diff : 0.0;
+            losses[i] = diff > 0 ? 0.0 : -diff;
+        }
+
+        double[] rsi = RelativeStrengthIndex.calculate(14, closes);
+        RsiState state = RsiState.seeded(14, closes);
+        for (int i : new int[]{14, 1_000, 100_000, closes.length - 1}) {
+            // the list version averaged with DoubleStream.average, which sums with compensation
+            double expected = RelativeStrengthIndex.rsi(Arrays.stream(gains, 1, i + 1).average().orElseThrow(),
+                    Arrays.stream(losses, 1, i + 1).average().orElseThrow());
+            assertEquals(expected, rsi[i - 14], 1e-12);
+        }
+        assertEquals(rsi[rsi.length - 1], state.value());
+        assertEquals(rsi[rsi.length - 1], RelativeStrengthIndex.latest(14, closes, RelativeStrengthIndex.Smoothing.CUMULATIVE, 15));
+    }
+
+    @Test
+    void fusedMacdMatchesMultiPassTest() {
+        double[] prices = new Random(17).doubles(300, 50.0, 60.0).toArray();
+        double[] shortEma = IndicatorUtils.ema(prices, 12);
+        double[] longEma = IndicatorUtils.ema(prices, 26);
+        double longSma = IndicatorUtils.sma(prices, 26).orElseThrow();
+        double[] line = new double[shortEma.length];
+        for (int i = 0; i < line.length; i++) {
+            line[i] = shortEma[i] - (i < 14 ? longSma : longEma[i - 14]);
+        }
+        double[] signalEma = IndicatorUtils.ema(line, 9);
+        double signalSma = IndicatorUtils.sma(line, 9).orElseThrow();
+
+        MacdSeries res = Macd.calculateResult(12, 26, 9, prices);
+        assertArrayEquals(line, res.line());
+        for (int i = 0; i < line.length; i++) {
+            double signal = i < 8 ? signalSma : signalEma[i - 8];
+            assertEquals(signal, res.signal()[i]);
+            assertEquals(line[i] - signal, res.histogram()[i]);
+        }
+    }
+
+    @Test
+    void fusedMacdWithoutPaddingTest() {
+        double[] prices = new Random(19).doubles(300, 50.0, 60.0).toArray();
+        int size = Macd.length(12, 26, prices.length, Macd.Padding.NONE);
+        double[] line = new double[size];
+        double[] signal = new double[size];
+        double[] histogram = new double[size];
+        assertEquals(prices.length - 25, Macd.calculate(12, 26, 9, prices, Macd.Padding.NONE, line, signal, histogram));
+
+        MacdState state = new MacdState(12, 26, 9);
+        for (int i = 0; i < prices.length; i++) {
+            state.update(prices[i]);
+            if (i >= 25) {
+                assertEquals(state.line(), line[i - 25]);
+                assertEquals(state.signal(), signal[i - 25]);
+            }
+        }
+        assertTrue(Double.isNaN(histogram[0]));
+        assertEquals(state.histogram(), histogram[size - 1]);
+    }
+
+    @Test
+    void derivedBandColumnsTest() {
+        double[] prices = new Random(23).doubles(500, 50.0, 60.0).toArray();
+        BandSeries bands = BollingerBands.calculate(20, prices, 2);
+        double[] lower = new double[bands.size()];
+        double[] upper = new double[bands.size()];
+        double[] bandwidth = new double[bands.size()];
+        assertEquals(prices.length - 19, bands.size());
+        assertArrayEquals(IndicatorUtils.smaList(prices, 20), bands.middle(), 1e-9);
+        assertArrayEquals(IndicatorUtils.rollingStandardDeviation(prices, 20), bands.deviation(), 1e-9);
+        bands.lower(lower);
+        bands.upper(upper);
+        bands.bandwidth(bandwidth);
+        for (int i = 0; i < bands.size(); i++) {
+            double middle = bands.middle()[i];
+            double deviation = bands.deviation()[i];
+            assertEquals(middle - 2 * deviation, bands.lower()[i]);
+            assertEquals(middle + 2 * deviation, bands.upper()[i]);
+            assertEquals(bands.lower()[i], lower[i]);
+            assertEquals(bands.upper()[i], upper[i]);
+            assertEquals((upper[i] - lower[i]) / middle, bandwidth[i]);
+        }
+        assertTrue(bands.lower() == bands.lower());
+        assertArrayEquals(bandwidth, BollingerBands.bandwidth(bands).orElseThrow());
+
+        Bands list = BollingerBands.calculate(20, IndicatorUtils.toList(prices), 2);
+        assertEquals(IndicatorUtils.toList(bands.lower()), list.lower());
+        assertEquals(IndicatorUtils.toList(bands.upper()), list.upper());
+        assertEquals(IndicatorUtils.toList(bandwidth), BollingerBands.bandwidth(list).orElseThrow());
+    }
+
+    @Test
+    void derivedMacdHistogramTest() {
+        double[] prices = new Random(29).doubles(300, 50.0, 60.0).toArray();
+        int size = Macd.length(12, 26, prices.length, Macd.Padding.SMA);
+        double[] histogram = new double[size];
+        Macd.calculate(12, 26, 9, prices, Macd.Padding.SMA, new double[size], new double[size], histogram);
+
+        MacdSeries res = Macd.calculateResult(12, 26, 9, prices);
+        assertArrayEquals(histogram, res.histogram());
+        double[] buffer = new double[size];
+        res.histogram(buffer);
+        assertArrayEquals(histogram, buffer);
+        assertEquals(histogram[size - 1], res.histogram(size - 1));
+
+        MacdResult list = Macd.calculateResult(12, 26, 9, IndicatorUtils.toList(prices));
+        assertEquals(IndicatorUtils.toList(histogram), list.histogram());
+        assertEquals(IndicatorUtils.toList(res.line()), list.line());
+    }
+
 }
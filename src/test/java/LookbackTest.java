@@ -0,0 +1,108 @@
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.Lookback;
+import org.indic.indicators.Macd;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.records.BarSeries;
+import org.indic.records.MacdSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LookbackTest {
+
+    private static final double TOLERANCE = 1e-6;
+
+    @Test
+    void wholeSeriesMatchesBatchTest() {
+        BarSeries series = BatchEngineTest.randomSeries(2_000, 51);
+        double[] closes = series.close();
+        int all = closes.length;
+
+        assertEquals(last(IndicatorUtils.ema(closes, 20)), IndicatorUtils.latestEma(closes, 20, all));
+        assertEquals(last(AverageTrueRange.calculateAtr(14, series)), AverageTrueRange.latestAtr(14, series, all));
+        for (RelativeStrengthIndex.Smoothing smoothing : RelativeStrengthIndex.Smoothing.values()) {
+            assertEquals(last(RelativeStrengthIndex.calculate(14, closes, smoothing)), RelativeStrengthIndex.latest(14, closes, smoothing, all));
+        }
+        // cumulative averages always read every close
+        assertEquals(last(RelativeStrengthIndex.calculate(14, closes)), RelativeStrengthIndex.latest(14, closes, RelativeStrengthIndex.Smoothing.CUMULATIVE, 15));
+
+        MacdSeries macd = Macd.calculateResult(12, 26, 9, closes, Macd.Padding.NONE);
+        double[] latest = new double[3];
+        assertTrue(Macd.latest(12, 26, 9, closes, all, latest));
+        assertEquals(last(macd.line()), latest[0]);
+        assertEquals(last(macd.signal()), latest[1]);
+        assertEquals(macd.histogram(macd.size() - 1), latest[2]);
+    }
+
+    @Test
+    void errorBoundsTest() {
+        BarSeries series = BatchEngineTest.randomSeries(50_000, 53);
+        double[] closes = series.close();
+        double range = Arrays.stream(closes).max().orElseThrow() - Arrays.stream(closes).min().orElseThrow();
+
+        for (int period : new int[]{5, 20, 200}) {
+            int lookback = Lookback.ema(period, TOLERANCE);
+            assertTrue(lookback < 20 * period);
+            assertEquals(last(IndicatorUtils.ema(closes, period)), IndicatorUtils.latestEma(closes, period, lookback), TOLERANCE * range);
+
+            double[] tr = AverageTrueRange.calculateTR(closes, series.high(), series.low());
+            double trRange = Arrays.stream(tr).max().orElseThrow() - Arrays.stream(tr).min().orElseThrow();
+            assertEquals(last(AverageTrueRange.calculateAtr(period, series)),
+                    AverageTrueRange.latestAtr(period, series, Lookback.atr(period, TOLERANCE)), TOLERANCE * trRange);
+
+            double[] averages = wilderAverages(closes, period);
+            double maxDiff = 0.0;
+            for (int i = 1; i < closes.length; i++) {
+                maxDiff = Math.max(maxDiff, Math.abs(closes[i] - closes[i - 1]));
+            }
+            double rsiBound = 100 * TOLERANCE * maxDiff / (averages[0] + averages[1]);
+            assertEquals(last(RelativeStrengthIndex.calculate(period, closes, RelativeStrengthIndex.Smoothing.WILDER)),
+                    RelativeStrengthIndex.latest(period, closes, RelativeStrengthIndex.Smoothing.WILDER, Lookback.rsi(period, TOLERANCE)), 1.01 * rsiBound);
+        }
+
+        double[] latest = new double[3];
+        assertTrue(Macd.latest(12, 26, 9, closes, Lookback.macd(12, 26, 9, TOLERANCE), latest));
+        for (Macd.Padding padding : Macd.Padding.values()) {
+            MacdSeries macd = Macd.calculateResult(12, 26, 9, closes, padding);
+            assertEquals(last(macd.line()), latest[0], 2 * TOLERANCE * range);
+            assertEquals(last(macd.signal()), latest[1], 6 * TOLERANCE * range);
+            assertEquals(macd.histogram(macd.size() - 1), latest[2], 8 * TOLERANCE * range);
+        }
+    }
+
+    @Test
+    void shortSeriesTest() {
+        double[] closes = {1, 2, 3, 4};
+        assertTrue(Double.isNaN(IndicatorUtils.latestEma(closes, 5, 100)));
+        assertEquals(last(IndicatorUtils.ema(closes, 4)), IndicatorUtils.latestEma(closes, 4, 1));
+        assertTrue(Double.isNaN(RelativeStrengthIndex.latest(4, closes, RelativeStrengthIndex.Smoothing.WILDER, 100)));
+        assertFalse(Macd.latest(2, 3, 3, closes, 100, new double[3]));
+        assertEquals(1, Lookback.ema(1, TOLERANCE));
+        assertThrows(IllegalArgumentException.class, () -> Lookback.ema(10, 0));
+    }
+
+    private static double[] wilderAverages(double[] closes, int period) {
+        double gains = 0.0;
+        double losses = 0.0;
+        for (int i = 1; i < closes.length; i++) {
+            double diff = closes[i] - closes[i - 1];
+            double gain = diff > 0 ? diff : 0.0;
+            double loss = diff > 0 ? 0.0 : -diff;
+            if (i <= period) {
+                gains += gain / period;
+                losses += loss / period;
+            } else {
+                gains = (gains * (period - 1) + gain) / period;
+                losses = (losses * (period - 1) + loss) / period;
+            }
+        }
+        return new double[]{gains, losses};
+    }
+
+    private static double last(double[] values) {
+        return values[values.length - 1];
+    }
+}
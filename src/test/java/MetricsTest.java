@@ -0,0 +1,136 @@
+import org.indic.engine.IndicatorPlan;
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.Macd;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.indicators.StochasticOscillator;
+import org.indic.metrics.IndicatorMetrics;
+import org.indic.metrics.IndicatorStats;
+import org.indic.metrics.LatencyHistogram;
+import org.indic.metrics.MetricsRecorder;
+import org.indic.records.BarSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class MetricsTest {
+
+    @AfterEach
+    void disable() {
+        IndicatorMetrics.disable();
+    }
+
+    @Test
+    void disabledByDefaultTest() {
+        List<String> records = new ArrayList<>();
+        RelativeStrengthIndex.calculate(14, new double[100]);
+        assertFalse(IndicatorMetrics.isEnabled());
+        assertNull(IndicatorMetrics.begin("Macd", 1));
+
+        IndicatorMetrics.enable((indicator, inputSize, nanos, allocatedBytes) -> records.add(indicator + " " + inputSize));
+        RelativeStrengthIndex.calculate(14, new double[100]);
+        IndicatorMetrics.disable();
+        RelativeStrengthIndex.calculate(14, new double[100]);
+
+        assertEquals(List.of("RelativeStrengthIndex 100"), records);
+    }
+
+    @Test
+    void recorderTest() throws Exception {
+        BarSeries series = BatchEngineTest.randomSeries(10_000, 61);
+        try (MetricsRecorder recorder = new MetricsRecorder().registerMBeans()) {
+            IndicatorMetrics.enable(recorder);
+            for (int i = 0; i < 10; i++) {
+                Macd.calculateResult(12, 26, 9, series.close());
+            }
+            RelativeStrengthIndex.calculate(14, series.close());
+
+            IndicatorStats macd = recorder.stats("Macd");
+            assertEquals(10, macd.getCalls());
+            assertEquals(10_000, macd.getMeanInputSize());
+            assertTrue(macd.getP50Nanos() > 0);
+            assertTrue(macd.getP99Nanos() <= macd.getMaxNanos());
+            assertTrue(macd.getMeanAllocatedBytes() >= 0);
+            // the rsi values alone are 8 * 9_986 bytes
+            assertTrue(recorder.stats("RelativeStrengthIndex").getMeanAllocatedBytes() >= 8 * 9_986);
+            assertEquals(1, recorder.stats("RelativeStrengthIndex").getCalls());
+            assertEquals(2, recorder.all().size());
+
+            ObjectName name = new ObjectName("org.indic:type=IndicatorMetrics,name=Macd");
+            assertEquals(10L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Calls"));
+            recorder.close();
+            assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        }
+    }
+
+    @Test
+    void planAndLatestValuesAreProbedTest() {
+        BarSeries series = BatchEngineTest.randomSeries(2_000, 67);
+        List<String> records = new ArrayList<>();
+        IndicatorMetrics.enable((indicator, inputSize, nanos, allocatedBytes) -> {
+            synchronized (records) {
+                records.add(indicator);
+            }
+        });
+
+        IndicatorPlan plan = new IndicatorPlan();
+        plan.atr(14);
+        plan.macd(12, 26, 9);
+        plan.bollinger(20, 2);
+        plan.execute(series);
+        assertTrue(records.containsAll(List.of("TrueRange", "AverageTrueRange", "Macd", "BollingerBands", "StandardDeviation")));
+
+        records.clear();
+        IndicatorUtils.latestEma(series.close(), 12, 100);
+        AverageTrueRange.latestAtr(14, series, 100);
+        RelativeStrengthIndex.latest(14, series.close(), RelativeStrengthIndex.Smoothing.WILDER, 100);
+        Macd.latest(12, 26, 9, series.close(), 200, new double[3]);
+        StochasticOscillator.latestK(14, series, series.size());
+        assertEquals(List.of("Ema", "AverageTrueRange", "RelativeStrengthIndex", "Macd", "StochasticOscillator"), records);
+    }
+
+    @Test
+    void allocationMeasurementOnlyWhileEnabledTest() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        boolean before = threads.isThreadAllocatedMemoryEnabled();
+        try {
+            threads.setThreadAllocatedMemoryEnabled(false);
+            IndicatorMetrics.disable();
+            RelativeStrengthIndex.calculate(14, new double[100]);
+            assertFalse(threads.isThreadAllocatedMemoryEnabled());
+
+            IndicatorMetrics.enable((indicator, inputSize, nanos, allocatedBytes) -> { });
+            assertTrue(threads.isThreadAllocatedMemoryEnabled());
+            IndicatorMetrics.disable();
+            assertFalse(threads.isThreadAllocatedMemoryEnabled());
+        } finally {
+            threads.setThreadAllocatedMemoryEnabled(before);
+        }
+    }
+
+    @Test
+    void histogramTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        assertEquals(50_000.5, histogram.mean());
+        assertEquals(50_000, histogram.percentile(50), 50_000 * 0.035);
+        assertEquals(99_000, histogram.percentile(99), 99_000 * 0.035);
+        assertEquals(1, histogram.percentile(0));
+        assertEquals(100_000, histogram.percentile(100));
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+    }
+}
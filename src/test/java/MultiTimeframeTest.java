@@ -0,0 +1,217 @@
+import org.indic.indicators.BollingerBands;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.indicators.RelativeStrengthIndex.Smoothing;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.streaming.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiTimeframeTest {
+
+    @Test
+    void timeframesTest() {
+        BarSeries base = BatchEngineTest.randomSeries(3_000, 5);
+        MultiTimeframe feed = new MultiTimeframe(Duration.ofMinutes(1));
+
+        long[] intervals = {Duration.ofMinutes(5).toMillis(), Duration.ofMinutes(15).toMillis(), Duration.ofHours(1).toMillis()};
+        List<List<double[]>> bars = new ArrayList<>();
+        List<RsiState> rsi = new ArrayList<>();
+        List<RsiState> wilder = new ArrayList<>();
+        List<MacdState> macd = new ArrayList<>();
+        List<BollingerState> bollinger = new ArrayList<>();
+        List<AtrState> atr = new ArrayList<>();
+        for (long interval : intervals) {
+            Timeframe timeframe = feed.timeframe(interval);
+            List<double[]> completed = new ArrayList<>();
+            timeframe.addConsumer((t, o, h, l, c, v) -> completed.add(new double[]{t, o, h, l, c, v}));
+            bars.add(completed);
+            rsi.add(timeframe.rsi(14));
+            wilder.add(timeframe.rsi(14, Smoothing.WILDER));
+            macd.add(timeframe.macd(12, 26, 9));
+            bollinger.add(timeframe.bollinger(20, 2));
+            atr.add(timeframe.atr(14));
+        }
+
+        feed(feed, base);
+
+        for (int i = 0; i < intervals.length; i++) {
+            BarSeries expected = resample(base, intervals[i]);
+            assertEquals(expected.size(), bars.get(i).size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertArrayEquals(new double[]{expected.timestamps()[j], expected.open()[j], expected.high()[j],
+                        expected.low()[j], expected.close()[j], expected.volume()[j]}, bars.get(i).get(j));
+            }
+            assertFalse(feed.timeframes().get(i).hasPartialBar());
+
+            double[] closes = expected.close();
+            double[] rsiValues = RelativeStrengthIndex.calculate(14, closes);
+            assertEquals(rsiValues[rsiValues.length - 1], rsi.get(i).value());
+            double[] wilderValues = RelativeStrengthIndex.calculate(14, closes, Smoothing.WILDER);
+            assertEquals(wilderValues[wilderValues.length - 1], wilder.get(i).value());
+            BandSeries bands = BollingerBands.calculate(20, closes, 2);
+            assertEquals(bands.middle()[bands.size() - 1], bollinger.get(i).middle());
+            assertEquals(bands.deviation()[bands.size() - 1], bollinger.get(i).deviation());
+
+            MacdState expectedMacd = MacdState.seeded(12, 26, 9, closes);
+            assertEquals(expectedMacd.line(), macd.get(i).line());
+            assertEquals(expectedMacd.signal(), macd.get(i).signal());
+            AtrState expectedAtr = AtrState.seeded(14, closes, expected.high(), expected.low());
+            assertEquals(expectedAtr.value(), atr.get(i).value());
+        }
+    }
+
+    @Test
+    void peekPartialBarTest() {
+        BarSeries base = BatchEngineTest.randomSeries(900, 17);
+        MultiTimeframe feed = new MultiTimeframe(60_000);
+        Timeframe timeframe = feed.timeframe(Duration.ofMinutes(15));
+        EmaState ema = timeframe.ema(5);
+        RsiState rsi = timeframe.rsi(6);
+        RsiState wilder = timeframe.rsi(6, Smoothing.WILDER);
+        MacdState macd = timeframe.macd(3, 8, 4);
+        BollingerState bollinger = timeframe.bollinger(7, 2);
+        AtrState atr = timeframe.atr(5);
+        List<double[]> completed = new ArrayList<>();
+        timeframe.addConsumer((t, o, h, l, c, v) -> completed.add(new double[]{h, l, c}));
+
+        int peeked = 0;
+        for (int i = 0; i < base.size(); i++) {
+            feed.accept(base.timestamps()[i], base.open()[i], base.high()[i], base.low()[i], base.close()[i], base.volume()[i]);
+            if (!timeframe.hasPartialBar()) continue;
+
+            double[] closes = new double[completed.size() + 1];
+            double[] highs = new double[completed.size() + 1];
+            double[] lows = new double[completed.size() + 1];
+            for (int j = 0; j < completed.size(); j++) {
+                highs[j] = completed.get(j)[0];
+                lows[j] = completed.get(j)[1];
+                closes[j] = completed.get(j)[2];
+            }
+            closes[completed.size()] = timeframe.partialClose();
+            highs[completed.size()] = timeframe.partialHigh();
+            lows[completed.size()] = timeframe.partialLow();
+
+            double close = timeframe.partialClose();
+            double rsiBefore = rsi.value();
+            assertEquals(EmaState.seeded(5, closes).value(), ema.peek(close));
+            assertEquals(RsiState.seeded(6, closes).value(), rsi.peek(close));
+            assertEquals(RsiState.seeded(6, closes, Smoothing.WILDER).value(), wilder.peek(close));
+            MacdState expectedMacd = MacdState.seeded(3, 8, 4, closes);
+            assertEquals(expectedMacd.line(), macd.peek(close));
+            assertEquals(expectedMacd.signal(), macd.peekSignal(close));
+            BollingerState expectedBands = BollingerState.seeded(7, closes, 2);
+            assertEquals(expectedBands.middle(), bollinger.peekMiddle(close));
+            assertEquals(expectedBands.deviation(), bollinger.peekDeviation(close));
+            assertEquals(AtrState.seeded(5, closes, highs, lows).value(), atr.peek(timeframe.partialHigh(), timeframe.partialLow(), close));
+            assertEquals(rsiBefore, rsi.value());
+            peeked++;
+        }
+        assertEquals(60 * 14, peeked);
+        assertFalse(Double.isNaN(bollinger.middle()));
+    }
+
+    @Test
+    void missingBaseBarsTest() {
+        MultiTimeframe feed = new MultiTimeframe(60_000);
+        Timeframe timeframe = feed.timeframe(300_000);
+        List<double[]> bars = new ArrayList<>();
+        timeframe.addConsumer((t, o, h, l, c, v) -> bars.add(new double[]{t, o, h, l, c, v}));
+
+        feed.accept(0, 10, 12, 9, 11, 100);
+        feed.accept(60_000, 11, 13, 10, 12, 100);
+        feed.accept(120_000, 12, 12, 8, 9, 100);
+        assertTrue(bars.isEmpty());
+        assertEquals(9, timeframe.partialClose());
+        assertEquals(13, timeframe.partialHigh());
+        assertEquals(8, timeframe.partialLow());
+        assertEquals(300, timeframe.partialVolume());
+
+        // the gap completes the first bar, the last minute of the interval completes the second
+        feed.accept(420_000, 9, 10, 9, 10, 50);
+        assertEquals(1, bars.size());
+        assertArrayEquals(new double[]{0, 10, 13, 8, 9, 300}, bars.get(0));
+        feed.accept(540_000, 10, 11, 7, 7, 50);
+        assertEquals(2, bars.size());
+        assertArrayEquals(new double[]{300_000, 9, 11, 7, 7, 100}, bars.get(1));
+        assertFalse(timeframe.hasPartialBar());
+
+        feed.accept(600_000, 7, 8, 6, 8, 10);
+        assertEquals(1, feed.flush());
+        assertEquals(0, feed.flush());
+        assertEquals(3, timeframe.bars());
+        assertArrayEquals(new double[]{600_000, 7, 8, 6, 8, 10}, bars.get(2));
+
+        assertSame(timeframe, feed.timeframe(Duration.ofMinutes(5)));
+        assertThrows(IllegalArgumentException.class, () -> feed.timeframe(90_000));
+        assertThrows(IllegalArgumentException.class, () -> feed.timeframe(0));
+        assertThrows(IllegalArgumentException.class, () -> new MultiTimeframe(0));
+    }
+
+    @Test
+    void sameBarsAsAggregatorTest() {
+        // single price base bars are ticks, gaps and a late bar included
+        long[] timestamps = {0, 120_000, 60_000, 240_000, 660_000, 720_000, 900_000, 1_260_000};
+        MultiTimeframe feed = new MultiTimeframe(60_000);
+        List<double[]> bars = new ArrayList<>();
+        feed.timeframe(300_000).addConsumer((t, o, h, l, c, v) -> bars.add(new double[]{t, o, h, l, c, v}));
+        List<double[]> aggregated = new ArrayList<>();
+        BarAggregator aggregator = BarAggregator.timeBars(300_000, (t, o, h, l, c, v) -> aggregated.add(new double[]{t, o, h, l, c, v}));
+
+        for (int i = 0; i < timestamps.length; i++) {
+            double price = 100 + i * (i % 2 == 0 ? 1 : -1);
+            feed.accept(timestamps[i], price, price, price, price, 10 + i);
+            aggregator.tick(timestamps[i], price, 10 + i);
+        }
+        feed.flush();
+        aggregator.flush();
+
+        assertEquals(aggregated.size(), bars.size());
+        for (int i = 0; i < bars.size(); i++) {
+            assertArrayEquals(aggregated.get(i), bars.get(i));
+        }
+
+        // a late base bar after the last minute completed its bar goes into the next one
+        feed.accept(1_500_000, 1, 1, 1, 1, 1);
+        feed.accept(1_740_000, 2, 2, 2, 2, 1);
+        feed.accept(1_620_000, 3, 3, 3, 3, 1);
+        assertEquals(1_800_000, feed.timeframes().get(0).partialTimestamp());
+        assertEquals(1_500_000, bars.get(bars.size() - 1)[0]);
+    }
+
+    private static void feed(MultiTimeframe feed, BarSeries series) {
+        for (int i = 0; i < series.size(); i++) {
+            feed.accept(series.timestamps()[i], series.open()[i], series.high()[i], series.low()[i], series.close()[i], series.volume()[i]);
+        }
+    }
+
+    private static BarSeries resample(BarSeries base, long interval) {
+        BarSeries bars = BarSeries.allocate(base.size());
+        int size = -1;
+        long start = Long.MIN_VALUE;
+        for (int i = 0; i < base.size(); i++) {
+            long bucket = Math.floorDiv(base.timestamps()[i], interval) * interval;
+            if (bucket != start) {
+                start = bucket;
+                size++;
+                bars.timestamps()[size] = bucket;
+                bars.open()[size] = base.open()[i];
+                bars.high()[size] = base.high()[i];
+                bars.low()[size] = base.low()[i];
+            }
+            bars.high()[size] = Math.max(bars.high()[size], base.high()[i]);
+            bars.low()[size] = Math.min(bars.low()[size], base.low()[i]);
+            bars.close()[size] = base.close()[i];
+            bars.volume()[size] += base.volume()[i];
+        }
+        size++;
+        return new BarSeries(Arrays.copyOf(bars.timestamps(), size), Arrays.copyOf(bars.open(), size), Arrays.copyOf(bars.high(), size),
+                Arrays.copyOf(bars.low(), size), Arrays.copyOf(bars.close(), size), Arrays.copyOf(bars.volume(), size));
+    }
+}
@@ -0,0 +1,71 @@
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.OnBalanceVolume;
+import org.indic.indicators.ParallelScan;
+import org.indic.records.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelScanTest {
+
+    private static final double ULP = Math.ulp(1.0);
+
+    @Test
+    void emaWithinToleranceTest() {
+        BarSeries series = BatchEngineTest.randomSeries(1_000_000, 81);
+        double[] prices = series.close();
+        double max = Arrays.stream(prices).map(Math::abs).max().orElseThrow();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int period : new int[]{2, 12, 200, 5_000}) {
+                double[] expected = IndicatorUtils.ema(prices, period);
+                double[] actual = ParallelScan.ema(prices, period, pool);
+                assertEquals(expected.length, actual.length);
+                assertArrayEquals(expected, actual, 4 * (period + 1) * ULP * max);
+                assertEquals(expected[0], actual[0]);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void atrWithinToleranceTest() {
+        BarSeries series = BatchEngineTest.randomSeries(1_000_000, 83);
+        double[] tr = AverageTrueRange.calculateTR(series.close(), series.high(), series.low());
+        double max = Arrays.stream(tr).max().orElseThrow();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int period : new int[]{1, 14, 500}) {
+                double[] expected = AverageTrueRange.calculateAtr(period, series);
+                assertArrayEquals(expected, ParallelScan.atr(period, series, pool), 8 * period * ULP * max);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void obvExactTest() {
+        BarSeries series = BatchEngineTest.randomSeries(1_000_000, 87);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            assertArrayEquals(OnBalanceVolume.calculate(series), ParallelScan.obv(series.close(), series.volume(), pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertArrayEquals(OnBalanceVolume.calculate(series), ParallelScan.obv(series));
+    }
+
+    @Test
+    void shortSeriesSequentialTest() {
+        BarSeries series = BatchEngineTest.randomSeries(1_000, 89);
+        assertArrayEquals(IndicatorUtils.ema(series.close(), 12), ParallelScan.ema(series.close(), 12));
+        assertArrayEquals(AverageTrueRange.calculateAtr(14, series), ParallelScan.atr(14, series));
+        assertArrayEquals(new double[0], ParallelScan.ema(new double[3], 5));
+    }
+}
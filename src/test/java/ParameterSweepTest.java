@@ -0,0 +1,95 @@
+import org.indic.engine.ParameterSweep;
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.BollingerBands;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.indicators.RelativeStrengthIndex.Smoothing;
+import org.indic.records.BandSeries;
+import org.indic.records.BandSweep;
+import org.indic.records.BarSeries;
+import org.indic.records.SweepMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParameterSweepTest {
+
+    private final BarSeries series = BatchEngineTest.randomSeries(5_000, 51);
+
+    @Test
+    void recurrencesTest() {
+        try (ParameterSweep sweep = new ParameterSweep(2, 40, 4)) {
+            SweepMatrix ema = sweep.ema(series.close());
+            SweepMatrix atr = sweep.atr(series);
+            SweepMatrix wilder = sweep.rsi(series.close(), Smoothing.WILDER);
+            SweepMatrix cumulative = sweep.rsi(series.close(), Smoothing.CUMULATIVE);
+
+            for (int period = 2; period <= 40; period++) {
+                assertArrayEquals(IndicatorUtils.ema(series.close(), period), tail(ema.row(period), period - 1));
+                assertArrayEquals(AverageTrueRange.calculateAtr(period, series), tail(atr.row(period), period - 1));
+                assertArrayEquals(RelativeStrengthIndex.calculate(period, series.close(), Smoothing.WILDER), tail(wilder.row(period), period));
+                assertArrayEquals(RelativeStrengthIndex.calculate(period, series.close()), tail(cumulative.row(period), period));
+
+                assertTrue(Double.isNaN(ema.get(period, period - 2)));
+                assertTrue(Double.isNaN(wilder.get(period, period - 1)));
+            }
+        }
+    }
+
+    @Test
+    void prefixSumsTest() {
+        try (ParameterSweep sweep = new ParameterSweep(5, 60)) {
+            SweepMatrix sma = sweep.sma(series.close());
+            SweepMatrix deviation = sweep.standardDeviation(series.close());
+            BandSweep bands = sweep.bollinger(series.close(), 2);
+
+            for (int period = 5; period <= 60; period++) {
+                assertArrayEquals(IndicatorUtils.smaList(series.close(), period), tail(sma.row(period), period - 1), 1e-9);
+                assertArrayEquals(IndicatorUtils.rollingStandardDeviation(series.close(), period), tail(deviation.row(period), period - 1));
+
+                BandSeries expected = BollingerBands.calculate(period, series.close(), 2);
+                assertArrayEquals(expected.middle(), tail(bands.middle().row(period), period - 1));
+                assertArrayEquals(expected.upper(), tail(bands.upper().row(period), period - 1));
+                assertArrayEquals(expected.lower(), tail(bands.lower().row(period), period - 1));
+                assertTrue(Double.isNaN(bands.middle().get(period, period - 2)));
+            }
+        }
+    }
+
+    @Test
+    void driftingDeviationTest() {
+        // prices drift far from the first price while the windows stay narrow,
+        // sums of squares over the whole series would cancel most digits here
+        double[] prices = new double[1_000_000];
+        Random random = new Random(52);
+        prices[0] = 100;
+        for (int i = 1; i < prices.length; i++) {
+            prices[i] = prices[i - 1] + 0.01 + 1e-3 * random.nextGaussian();
+        }
+        try (ParameterSweep sweep = new ParameterSweep(10, 12, 2)) {
+            SweepMatrix deviation = sweep.standardDeviation(prices);
+            for (int period = 10; period <= 12; period++) {
+                assertArrayEquals(IndicatorUtils.rollingStandardDeviation(prices, period), tail(deviation.row(period), period - 1));
+            }
+        }
+    }
+
+    @Test
+    void periodsLongerThanSeriesTest() {
+        double[] closes = Arrays.copyOf(series.close(), 10);
+        try (ParameterSweep sweep = new ParameterSweep(8, 12, 1)) {
+            SweepMatrix ema = sweep.ema(closes);
+            assertEquals(5, ema.periods());
+            assertEquals(IndicatorUtils.ema(closes, 10)[0], ema.get(10, 9));
+            assertTrue(Arrays.stream(ema.row(11)).allMatch(Double::isNaN));
+            assertTrue(Arrays.stream(sweep.rsi(closes, Smoothing.WILDER).row(10)).allMatch(Double::isNaN));
+        }
+    }
+
+    private static double[] tail(double[] row, int from) {
+        return Arrays.copyOfRange(row, from, row.length);
+    }
+}
@@ -0,0 +1,100 @@
+import org.indic.engine.IndicatorSpec;
+import org.indic.engine.ResultCache;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.MacdSeries;
+import org.indic.records.OscillatorSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.indic.indicators.RelativeStrengthIndex.Smoothing.WILDER;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultCacheTest {
+
+    private final BarSeries series = BatchEngineTest.randomSeries(1_000, 71);
+
+    @Test
+    void extendSameAsRecalculationTest() {
+        ResultCache cache = new ResultCache(100);
+        List<IndicatorSpec<double[]>> specs = List.of(IndicatorSpec.sma(20), IndicatorSpec.ema(12), IndicatorSpec.rsi(14),
+                IndicatorSpec.rsi(14, WILDER), IndicatorSpec.atr(14));
+
+        for (int size : new int[]{5, 300, 301, 301, 700, 1_000}) {
+            BarSeries prefix = prefix(series, size);
+            for (IndicatorSpec<double[]> spec : specs) {
+                assertArrayEquals(spec.compute(prefix), cache.get("S", prefix, spec), spec.toString());
+            }
+            assertArrayEquals(IndicatorSpec.obv().compute(prefix), cache.get("S", prefix, IndicatorSpec.obv()));
+
+            BandSeries expectedBands = IndicatorSpec.bollinger(20, 2).compute(prefix);
+            BandSeries bands = cache.get("S", prefix, IndicatorSpec.bollinger(20, 2));
+            assertArrayEquals(expectedBands.lower(), bands.lower());
+            assertArrayEquals(expectedBands.middle(), bands.middle());
+            assertArrayEquals(expectedBands.upper(), bands.upper());
+
+            OscillatorSeries expected = IndicatorSpec.stochastic(14).compute(prefix);
+            OscillatorSeries oscillator = cache.get("S", prefix, IndicatorSpec.stochastic(14));
+            assertArrayEquals(expected.k(), oscillator.k());
+            assertEquals(expected.d(), oscillator.d());
+            assertEquals(expected.d_3(), oscillator.d_3());
+        }
+
+        // 8 specs, calculated once, then extended 4 times and hit once
+        assertEquals(8, cache.misses());
+        assertEquals(32, cache.extensions());
+        assertEquals(8, cache.hits());
+    }
+
+    @Test
+    void changedSeriesTest() {
+        ResultCache cache = new ResultCache(10);
+        IndicatorSpec<double[]> ema = IndicatorSpec.ema(12);
+        cache.get("S", prefix(series, 500), ema);
+
+        BarSeries corrected = prefix(series, 600);
+        corrected.close()[499] += 1.0;
+        assertArrayEquals(ema.compute(corrected), cache.get("S", corrected, ema));
+        assertEquals(2, cache.misses());
+
+        // macd with sma padding is not append stable
+        IndicatorSpec<MacdSeries> macd = IndicatorSpec.macd(12, 26, 9);
+        cache.get("S", prefix(series, 500), macd);
+        MacdSeries result = cache.get("S", series, macd);
+        assertArrayEquals(macd.compute(series).signal(), result.signal());
+        assertEquals(4, cache.misses());
+        assertEquals(0, cache.extensions());
+    }
+
+    @Test
+    void evictionTest() {
+        ResultCache cache = new ResultCache(3, 2_500);
+        cache.get("A", series, IndicatorSpec.ema(12));
+        cache.get("B", series, IndicatorSpec.ema(12));
+        cache.get("A", series, IndicatorSpec.ema(12));
+        assertEquals(2, cache.size());
+        assertEquals(2_000, cache.bars());
+
+        // over the bar limit, B was used least recently
+        cache.get("C", series, IndicatorSpec.ema(12));
+        assertEquals(2, cache.size());
+        cache.get("A", series, IndicatorSpec.ema(12));
+        assertEquals(2, cache.hits());
+        cache.get("B", series, IndicatorSpec.ema(12));
+        assertEquals(4, cache.misses());
+
+        cache.invalidate("A");
+        assertEquals(1, cache.size());
+        assertEquals(1_000, cache.bars());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    private static BarSeries prefix(BarSeries series, int size) {
+        return new BarSeries(Arrays.copyOf(series.timestamps(), size), Arrays.copyOf(series.open(), size),
+                Arrays.copyOf(series.high(), size), Arrays.copyOf(series.low(), size),
+                Arrays.copyOf(series.close(), size), Arrays.copyOf(series.volume(), size));
+    }
+}
@@ -0,0 +1,72 @@
+import org.indic.buffers.BarRing;
+import org.indic.buffers.DoubleRing;
+import org.indic.indicators.BollingerBands;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.StochasticOscillator;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.indic.records.OscillatorSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingBufferTest {
+
+    @Test
+    void ringTest() {
+        for (DoubleRing ring : new DoubleRing[]{DoubleRing.onHeap(4), DoubleRing.offHeap(4)}) {
+            ring.add(1);
+            ring.add(2);
+            assertEquals(2, ring.size());
+            assertFalse(ring.isFull());
+            assertArrayEquals(new double[]{1, 2}, ring.toArray());
+
+            for (int i = 3; i <= 7; i++) ring.add(i);
+            assertTrue(ring.isFull());
+            assertEquals(4, ring.get(0));
+            assertEquals(7, ring.latest());
+            assertArrayEquals(new double[]{4, 5, 6, 7}, ring.toArray());
+            assertThrows(IndexOutOfBoundsException.class, () -> ring.get(4));
+
+            ring.clear();
+            assertEquals(0, ring.size());
+        }
+    }
+
+    @Test
+    void windowedIndicatorsTest() {
+        BarSeries series = BatchEngineTest.randomSeries(1_000, 41);
+        int capacity = 100;
+        double[] closes = Arrays.copyOfRange(series.close(), series.size() - capacity, series.size());
+        double[] highs = Arrays.copyOfRange(series.high(), series.size() - capacity, series.size());
+        double[] lows = Arrays.copyOfRange(series.low(), series.size() - capacity, series.size());
+
+        for (BarRing bars : new BarRing[]{BarRing.onHeap(capacity), BarRing.offHeap(capacity)}) {
+            for (int i = 0; i < series.size(); i++) {
+                bars.accept(series.timestamps()[i], series.open()[i], series.high()[i], series.low()[i], series.close()[i], series.volume()[i]);
+            }
+
+            assertEquals(IndicatorUtils.smaWithPeriodValues(closes, 20), IndicatorUtils.smaWithPeriodValues(bars.close(), 20));
+            assertEquals(IndicatorUtils.standardDeviation(closes, 20), IndicatorUtils.standardDeviation(bars.close(), 20));
+
+            BandSeries expectedBands = BollingerBands.calculate(20, closes, 2);
+            BandSeries bands = BollingerBands.calculate(20, bars.close(), 2);
+            assertArrayEquals(expectedBands.middle(), bands.middle());
+            assertArrayEquals(expectedBands.upper(), bands.upper());
+
+            double[] latest = new double[3];
+            assertTrue(BollingerBands.latest(20, bars.close(), 2, latest));
+            assertEquals(expectedBands.lower()[expectedBands.lower().length - 1], latest[0], 1e-9);
+            assertEquals(expectedBands.middle()[expectedBands.middle().length - 1], latest[1], 1e-9);
+            assertEquals(expectedBands.upper()[expectedBands.upper().length - 1], latest[2], 1e-9);
+
+            OscillatorSeries expected = StochasticOscillator.calculate(14, closes, highs, lows);
+            OscillatorSeries oscillator = StochasticOscillator.calculate(14, bars);
+            assertArrayEquals(expected.k(), oscillator.k());
+            assertEquals(expected.d(), oscillator.d());
+            assertEquals(expected.k()[expected.k().length - 1], StochasticOscillator.latestK(14, bars));
+        }
+    }
+}
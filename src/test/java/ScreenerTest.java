@@ -0,0 +1,135 @@
+import org.indic.engine.Condition;
+import org.indic.engine.LatestValue;
+import org.indic.engine.Screener;
+import org.indic.indicators.AverageTrueRange;
+import org.indic.indicators.BollingerBands;
+import org.indic.indicators.IndicatorUtils;
+import org.indic.indicators.Lookback;
+import org.indic.indicators.RelativeStrengthIndex;
+import org.indic.indicators.StochasticOscillator;
+import org.indic.records.BandSeries;
+import org.indic.records.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScreenerTest {
+
+    @Test
+    void latestValuesTest() {
+        BarSeries series = BatchEngineTest.randomSeries(500, 41);
+        double[] closes = series.close();
+
+        assertEquals(last(RelativeStrengthIndex.calculate(14, closes)), LatestValue.rsi(14).latest(series));
+        assertEquals(last(RelativeStrengthIndex.calculate(14, closes, RelativeStrengthIndex.Smoothing.WILDER)),
+                LatestValue.rsi(14, RelativeStrengthIndex.Smoothing.WILDER).latest(series));
+        assertEquals(last(IndicatorUtils.ema(closes, 20)), LatestValue.ema(20).latest(series));
+        assertEquals(last(AverageTrueRange.calculateAtr(14, series)), LatestValue.atr(14).latest(series));
+        assertEquals(last(IndicatorUtils.smaList(closes, 50)), LatestValue.sma(50).latest(series), 1e-9);
+
+        BandSeries bands = BollingerBands.calculate(20, closes, 2);
+        assertEquals(bands.lower(bands.size() - 1), LatestValue.lowerBand(20, 2).latest(series), 1e-9);
+        assertEquals(bands.upper(bands.size() - 1), LatestValue.upperBand(20, 2).latest(series), 1e-9);
+
+        double[] k = StochasticOscillator.calculate(14, series).k();
+        double[] latestK = new double[2];
+        LatestValue.stochasticK(14).latest(series, latestK);
+        assertEquals(k[k.length - 2], latestK[0]);
+        assertEquals(k[k.length - 1], latestK[1]);
+
+        double[] rsi = new double[3];
+        LatestValue.rsi(14).latest(BatchEngineTest.randomSeries(16, 3), rsi);
+        assertTrue(Double.isNaN(rsi[0]));
+        assertFalse(Double.isNaN(rsi[1]));
+        assertTrue(Double.isNaN(LatestValue.sma(50).latest(BatchEngineTest.randomSeries(49, 3))));
+    }
+
+    @Test
+    void boundedLookbackTest() {
+        BarSeries series = BatchEngineTest.randomSeries(20_000, 43);
+        double[] closes = series.close();
+        double tolerance = 1e-9;
+
+        LatestValue ema = LatestValue.ema(20, tolerance);
+        LatestValue wilder = LatestValue.rsi(14, RelativeStrengthIndex.Smoothing.WILDER, tolerance);
+        LatestValue atr = LatestValue.atr(14, tolerance);
+        assertEquals(Lookback.ema(20, tolerance) * 2, ema.cost(2));
+        assertEquals(Lookback.atr(14, tolerance), atr.cost(1));
+        assertEquals(LatestValue.WHOLE_SERIES, LatestValue.rsi(14, RelativeStrengthIndex.Smoothing.CUMULATIVE, tolerance).cost(1));
+
+        assertEquals(IndicatorUtils.latestEma(closes, 20, Lookback.ema(20, tolerance)), ema.latest(series));
+        assertEquals(last(IndicatorUtils.ema(closes, 20)), ema.latest(series), 1e-6);
+        assertEquals(last(RelativeStrengthIndex.calculate(14, closes, RelativeStrengthIndex.Smoothing.WILDER)), wilder.latest(series), 1e-6);
+        assertEquals(last(AverageTrueRange.calculateAtr(14, series)), atr.latest(series), 1e-6);
+
+        double[] values = new double[2];
+        atr.latest(series, values);
+        assertEquals(AverageTrueRange.latestAtr(14, series, Lookback.atr(14, tolerance), series.size() - 1), values[0]);
+        assertEquals(AverageTrueRange.latestAtr(14, series, Lookback.atr(14, tolerance)), values[1]);
+        wilder.latest(BatchEngineTest.randomSeries(15, 3), values);
+        assertTrue(Double.isNaN(values[0]));
+        assertFalse(Double.isNaN(values[1]));
+    }
+
+    @Test
+    void screenMatchesFullCalculationTest() {
+        Map<String, BarSeries> universe = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            universe.put("S" + i, BatchEngineTest.randomSeries(100 + i, i));
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (Map.Entry<String, BarSeries> entry : universe.entrySet()) {
+            BarSeries series = entry.getValue();
+            double rsi = last(RelativeStrengthIndex.calculate(14, series.close()));
+            BandSeries bands = BollingerBands.calculate(20, series.close(), 2);
+            double[] k = StochasticOscillator.calculate(14, series).k();
+            if (rsi < 50 && last(series.close()) < bands.middle()[bands.size() - 1] && k[k.length - 1] > k[k.length - 2]) {
+                expected.add(entry.getKey());
+            }
+        }
+        expected.sort(null);
+
+        try (Screener screener = new Screener(List.of(
+                LatestValue.rsi(14).below(50),
+                LatestValue.close().below(LatestValue.sma(20)),
+                LatestValue.stochasticK(14).rising()), 4)) {
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, screener.screen(universe));
+        }
+    }
+
+    @Test
+    void cheapestConditionFirstTest() {
+        AtomicInteger expensive = new AtomicInteger();
+        Condition wholeSeries = Condition.of(LatestValue.WHOLE_SERIES, series -> {
+            expensive.incrementAndGet();
+            return true;
+        });
+        Condition rsi = LatestValue.rsi(14).below(101);
+        Condition cheap = LatestValue.close().above(0);
+        Condition failing = LatestValue.close().below(0);
+
+        try (Screener screener = new Screener(List.of(wholeSeries, rsi, failing, cheap), 2)) {
+            assertEquals(List.of(failing, cheap, wholeSeries, rsi), screener.conditions());
+            Map<String, BarSeries> universe = Map.of("A", BatchEngineTest.randomSeries(100, 1), "B", BatchEngineTest.randomSeries(100, 2));
+            assertEquals(List.of(), screener.screen(universe));
+            assertEquals(0, expensive.get());
+        }
+
+        try (Screener screener = new Screener(List.of(wholeSeries, cheap), 2)) {
+            assertEquals(List.of("A", "B"), screener.screen(List.of("B", "A"), symbol -> BatchEngineTest.randomSeries(100, symbol.length())));
+            assertEquals(2, expensive.get());
+        }
+    }
+
+    private static double last(double[] values) {
+        return values[values.length - 1];
+    }
+}
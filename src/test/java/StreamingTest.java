@@ -0,0 +1,219 @@
+import org.indic.indicators.*;
+import org.indic.records.BandSeries;
+import org.indic.records.OscillatorSeries;
+import org.indic.streaming.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamingTest {
+
+    private static final int SIZE = 500;
+
+    private static double[] randomWalk(long seed) {
+        Random random = new Random(seed);
+        double[] prices = new double[SIZE];
+        prices[0] = 100.0;
+        for (int i = 1; i < SIZE; i++) {
+            prices[i] = prices[i - 1] + random.nextGaussian();
+        }
+        return prices;
+    }
+
+    @Test
+    void emaStateTest() {
+        double[] prices = randomWalk(1);
+        double[] expected = IndicatorUtils.ema(prices, 12);
+
+        EmaState state = EmaState.seeded(12, Arrays.copyOf(prices, 100));
+        double[] actual = new double[SIZE - 100];
+        for (int i = 100; i < SIZE; i++) {
+            actual[i - 100] = state.update(prices[i]);
+        }
+        assertArrayEquals(Arrays.copyOfRange(expected, expected.length - actual.length, expected.length), actual);
+    }
+
+    @Test
+    void atrStateTest() {
+        double[] closes = randomWalk(2);
+        double[] highs = Arrays.stream(closes).map(c -> c + 0.5).toArray();
+        double[] lows = Arrays.stream(closes).map(c -> c - 0.7).toArray();
+        double[] expected = AverageTrueRange.calculateAtr(14, closes, highs, lows);
+
+        AtrState state = new AtrState(14);
+        double[] actual = new double[expected.length];
+        for (int i = 0; i < SIZE; i++) {
+            double atr = state.update(highs[i], lows[i], closes[i]);
+            if (i >= 13) actual[i - 13] = atr;
+        }
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void rsiStateTest() {
+        double[] closes = randomWalk(3);
+        double[] expected = RelativeStrengthIndex.calculate(14, closes);
+
+        RsiState state = RsiState.seeded(14, Arrays.copyOf(closes, 14));
+        double[] actual = new double[expected.length];
+        for (int i = 14; i < SIZE; i++) {
+            actual[i - 14] = state.update(closes[i]);
+        }
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void wilderRsiStateTest() {
+        double[] closes = randomWalk(8);
+        double[] expected = RelativeStrengthIndex.calculate(14, closes, RelativeStrengthIndex.Smoothing.WILDER);
+
+        RsiState state = RsiState.seeded(14, Arrays.copyOf(closes, 10), RelativeStrengthIndex.Smoothing.WILDER);
+        double[] actual = new double[expected.length];
+        for (int i = 10; i < SIZE; i++) {
+            double rsi = state.update(closes[i]);
+            if (i >= 14) actual[i - 14] = rsi;
+        }
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void macdStateTest() {
+        double[] prices = randomWalk(4);
+        double[] shortEma = IndicatorUtils.ema(prices, 12);
+        double[] longEma = IndicatorUtils.ema(prices, 26);
+        double[] line = new double[longEma.length];
+        for (int i = 0; i < line.length; i++) {
+            line[i] = shortEma[i + 26 - 12] - longEma[i];
+        }
+        double[] signal = IndicatorUtils.ema(line, 9);
+
+        MacdState state = MacdState.seeded(12, 26, 9, Arrays.copyOf(prices, 60));
+        for (int i = 60; i < SIZE; i++) {
+            state.update(prices[i]);
+        }
+        assertEquals(line[line.length - 1], state.line());
+        assertEquals(signal[signal.length - 1], state.signal());
+
+        double[] paddedLine = Macd.calculateLine(12, 26, prices);
+        assertEquals(paddedLine[paddedLine.length - 1], state.line());
+    }
+
+    @Test
+    void obvStateTest() {
+        double[] closes = randomWalk(5);
+        long[] volumes = new Random(5).longs(SIZE, 1000, 100000).toArray();
+        long[] expected = OnBalanceVolume.calculate(closes, volumes);
+
+        ObvState state = new ObvState();
+        long[] actual = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            actual[i] = state.update(closes[i], volumes[i]);
+        }
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void bollingerStateTest() {
+        double[] prices = randomWalk(6);
+        BandSeries expected = BollingerBands.calculate(20, prices, 2);
+
+        BollingerState state = new BollingerState(20, 2);
+        double[] upper = new double[expected.upper().length];
+        double[] lower = new double[expected.lower().length];
+        for (int i = 0; i < SIZE; i++) {
+            state.update(prices[i]);
+            if (i >= 19) {
+                upper[i - 19] = state.upper();
+                lower[i - 19] = state.lower();
+            }
+        }
+        assertArrayEquals(expected.upper(), upper);
+        assertArrayEquals(expected.lower(), lower);
+    }
+
+    @Test
+    void stochasticStateTest() {
+        double[] closes = randomWalk(7);
+        double[] highs = Arrays.stream(closes).map(c -> c + 0.5).toArray();
+        double[] lows = Arrays.stream(closes).map(c -> c - 0.7).toArray();
+        OscillatorSeries expected = StochasticOscillator.calculate(14, closes, highs, lows);
+
+        StochasticState state = new StochasticState(14);
+        double[] actual = new double[expected.k().length];
+        for (int i = 0; i < SIZE; i++) {
+            double k = state.update(closes[i], highs[i], lows[i]);
+            if (i >= 13) actual[i - 13] = k;
+        }
+        assertArrayEquals(expected.k(), actual);
+        assertEquals(expected.d(), state.d());
+        assertEquals(expected.d_3(), state.d3());
+    }
+
+    @Test
+    void timeBarsTest() {
+        List<String> bars = new ArrayList<>();
+        BarAggregator aggregator = BarAggregator.timeBars(Duration.ofMinutes(1),
+                (timestamp, open, high, low, close, volume) -> bars.add(timestamp + " " + open + " " + high + " " + low + " " + close + " " + volume));
+
+        aggregator.tick(60_500, 10.0, 100);
+        aggregator.tick(61_000, 12.0, 50);
+        aggregator.tick(119_999, 9.0, 10);
+        aggregator.tick(60_000, 11.0, 5);
+        assertEquals(0, bars.size());
+
+        // the minute 120_000 has no ticks
+        aggregator.tick(185_000, 11.5, 7);
+        assertEquals(List.of("60000 10.0 12.0 9.0 11.0 165"), bars);
+
+        assertTrue(aggregator.flush());
+        assertFalse(aggregator.flush());
+        assertEquals(List.of("60000 10.0 12.0 9.0 11.0 165", "180000 11.5 11.5 11.5 11.5 7"), bars);
+        assertEquals(2, aggregator.bars());
+    }
+
+    @Test
+    void volumeBarsTest() {
+        List<String> bars = new ArrayList<>();
+        BarAggregator aggregator = BarAggregator.volumeBars(100,
+                (timestamp, open, high, low, close, volume) -> bars.add(timestamp + " " + open + " " + close + " " + volume));
+
+        aggregator.tick(1, 10.0, 60);
+        aggregator.tick(2, 11.0, 30);
+        aggregator.tick(3, 12.0, 20);
+        aggregator.tick(4, 13.0, 100);
+        aggregator.tick(5, 14.0, 1);
+
+        assertEquals(List.of("1 10.0 12.0 110", "4 13.0 13.0 100"), bars);
+        assertTrue(aggregator.hasOpenBar());
+    }
+
+    @Test
+    void ticksIntoIndicatorsTest() {
+        double[] prices = randomWalk(8);
+        EmaState ema = new EmaState(12);
+        List<Double> closes = new ArrayList<>();
+        BarAggregator aggregator = BarAggregator.timeBars(1_000, (timestamp, open, high, low, close, volume) -> {
+            closes.add(close);
+            ema.update(close);
+        });
+        // ten ticks per second
+        for (int i = 0; i < SIZE; i++) {
+            aggregator.tick(i * 100L, prices[i], 1);
+        }
+        aggregator.flush();
+
+        assertEquals(SIZE / 10, closes.size());
+        assertEquals(prices[19], closes.get(1));
+        double[] expected = IndicatorUtils.ema(closes, 12).stream().mapToDouble(Double::doubleValue).toArray();
+        assertEquals(expected[expected.length - 1], ema.value());
+    }
+}